@@ -0,0 +1,25 @@
+package org.example.analyticsservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "analytics.active-users")
+public class ActiveUserProperties {
+
+    /** Идентификатор инстанса в active_user_sketches; пустой — имя хоста. */
+    private String instanceId = "";
+
+    /** Как часто скетчи из памяти сохраняются в Mongo; входы за это время теряются при падении инстанса. */
+    private Duration flushInterval = Duration.ofSeconds(30);
+
+    /** До стольких пользователей за период хранится точный список и отдаётся точное число. */
+    private int exactThreshold = 1000;
+
+    /** Сколько хранить скетч после окончания периода. */
+    private Duration retention = Duration.ofDays(400);
+}
@@ -0,0 +1,22 @@
+package org.example.analyticsservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "analytics.cache")
+public class AnalyticsCacheProperties {
+
+    /** Сколько рассчитанных ответов (эндпоинт + диапазон) держать в памяти. */
+    private long maximumSize = 500;
+
+    /** После стольких секунд ответ ещё отдаётся, но пересчитывается в фоне. */
+    private Duration refreshAfter = Duration.ofSeconds(30);
+
+    /** Жёсткий срок жизни: старше этого ответ не отдаётся. */
+    private Duration timeToLive = Duration.ofMinutes(5);
+}
@@ -4,6 +4,9 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.example.analyticsservice.model.mongo.*;
 import org.example.analyticsservice.repository.mongodb.*;
+import org.example.analyticsservice.service.CompletionTimeStatistics;
+import org.example.analyticsservice.service.UserTaskRollups;
+import org.example.analyticsservice.service.UserTaskCounters;
 import org.example.events.enums.Department;
 import org.example.events.enums.TaskPriority;
 import org.example.events.enums.TaskStatus;
@@ -49,6 +52,9 @@ public class DataSeeder {
     private final TaskStatisticsRepository taskStatisticsRepository;
     private final TaskCounterRepository taskCounterRepository;
     private final UserTaskStatisticsRepository userTaskStatisticsRepository;
+    private final UserTaskRollups userTaskRollups;
+    private final UserTaskCounters userTaskCounters;
+    private final CompletionTimeStatistics completionTimeStatistics;
     private final UserStatisticsRepository userStatisticsRepository;
     private final UserCounterRepository userCounterRepository;
     private final DailyActiveUserRepository dailyActiveUserRepository;
@@ -69,6 +75,7 @@ public class DataSeeder {
                 .map(seed -> toTaskDocument(seed, now))
                 .toList();
         taskDocumentRepository.saveAll(documents);
+        userTaskCounters.rebuild();
 
         // --- Global counters & statistics ---
         long totalTasks = seeds.size();
@@ -93,6 +100,7 @@ public class DataSeeder {
                 pendingTasks, byStatus, byPriority, byCategory, byDepartment
         );
         taskStatisticsRepository.saveAll(taskStatsList);
+        completionTimeStatistics.rebuild();
 
         // --- User statistics & counters ---
         long totalUsers = 6L;
@@ -123,6 +131,7 @@ public class DataSeeder {
                 .filter(Objects::nonNull)
                 .toList();
         userTaskStatisticsRepository.saveAll(userTaskStats);
+        userTaskRollups.rebuild();
 
         log.info("Analytics-service: создано {} task_documents, обновлены счётчики и статистики", documents.size());
     }
@@ -0,0 +1,24 @@
+package org.example.analyticsservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "analytics.live")
+public class LiveFeedProperties {
+
+    /** Период рассылки: изменения за тик уходят всем подписчикам одним сообщением. */
+    private Duration tick = Duration.ofSeconds(1);
+
+    /** Если изменений нет, раз в этот интервал отправляется комментарий, чтобы прокси не рвали соединение. */
+    private Duration heartbeat = Duration.ofSeconds(15);
+
+    /** Время жизни одного SSE-соединения; клиент (EventSource) переподключается сам. */
+    private Duration emitterTimeout = Duration.ofMinutes(30);
+
+    private int maxSubscribers = 1000;
+}
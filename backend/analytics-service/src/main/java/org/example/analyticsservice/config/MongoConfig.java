@@ -0,0 +1,22 @@
+package org.example.analyticsservice.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.MongoTransactionManager;
+
+@Configuration
+public class MongoConfig {
+
+    /**
+     * Пачка событий задач пишется одной транзакцией (требует replica set, в docker-compose — rs0).
+     * Отключается через analytics.ingestion.transactional=false для standalone Mongo — тогда сбой
+     * посреди записи пачки может потерять её приращения.
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "analytics.ingestion", name = "transactional", havingValue = "true", matchIfMissing = true)
+    public MongoTransactionManager transactionManager(MongoDatabaseFactory databaseFactory) {
+        return new MongoTransactionManager(databaseFactory);
+    }
+}
@@ -4,6 +4,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.example.analyticsservice.model.mongo.*;
 import org.example.analyticsservice.repository.mongodb.*;
+import org.example.analyticsservice.service.UserTaskRollups;
 import org.springframework.boot.ApplicationRunner;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -12,8 +13,10 @@ import org.springframework.data.mongodb.core.index.Index;
 import org.springframework.data.mongodb.core.index.IndexOperations;
 import org.springframework.data.domain.Sort;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDate;
+import java.util.List;
 
 @Configuration
 @Slf4j
@@ -41,6 +44,11 @@ public class MongoDBInitializer {
                 createCollectionIfNotExists("task_counts");
                 createCollectionIfNotExists("task_statistics");
                 createCollectionIfNotExists("user_task_statistics");
+                createCollectionIfNotExists("user_task_counts");
+                createCollectionIfNotExists(UserTaskRollups.Granularity.WEEK.collection());
+                createCollectionIfNotExists(UserTaskRollups.Granularity.MONTH.collection());
+                createCollectionIfNotExists("active_user_sketches");
+                createCollectionIfNotExists("applied_offsets");
                 
                 // Создаем индексы
                 createIndexes();
@@ -98,6 +106,8 @@ public class MongoDBInitializer {
             tasksIndexOps.ensureIndex(isDeletedIndex);
             Index isCompletedIndex = new Index().on("is_completed", Sort.Direction.ASC);
             tasksIndexOps.ensureIndex(isCompletedIndex);
+            Index completedAtIndex = new Index().on("completed_at", Sort.Direction.ASC).sparse();
+            tasksIndexOps.ensureIndex(completedAtIndex);
             log.info("Created indexes for task_documents collection");
             
             // Индексы для task_statistics
@@ -113,8 +123,25 @@ public class MongoDBInitializer {
             userTaskStatsIndexOps.ensureIndex(userTaskStatsCompositeIndex);
             Index userIdIndex = new Index().on("user_id", Sort.Direction.ASC);
             userTaskStatsIndexOps.ensureIndex(userIdIndex);
+            userTaskStatsIndexOps.ensureIndex(new Index().on("date", Sort.Direction.ASC));
             log.info("Created indexes for user_task_statistics collection");
             
+            // Индексы для недельных и месячных свёрток user_task_statistics
+            for (String rollupCollection : List.of(UserTaskRollups.Granularity.WEEK.collection(),
+                    UserTaskRollups.Granularity.MONTH.collection())) {
+                IndexOperations rollupIndexOps = mongoTemplate.indexOps(rollupCollection);
+                rollupIndexOps.ensureIndex(new Index().on("user_id", Sort.Direction.ASC)
+                        .on("date", Sort.Direction.ASC).unique());
+                rollupIndexOps.ensureIndex(new Index().on("date", Sort.Direction.ASC));
+                log.info("Created indexes for {} collection", rollupCollection);
+            }
+            
+            // Индексы для active_user_sketches: чтение по периоду, удаление по истечении хранения
+            IndexOperations activeUserSketchIndexOps = mongoTemplate.indexOps(ActiveUserSketch.class);
+            activeUserSketchIndexOps.ensureIndex(new Index().on("bucket", Sort.Direction.ASC));
+            activeUserSketchIndexOps.ensureIndex(new Index().on("expires_at", Sort.Direction.ASC).expire(Duration.ZERO));
+            log.info("Created indexes for active_user_sketches collection");
+            
             // Индексы для user_counts и task_counts (уже есть _id)
             log.info("Indexes for user_counts and task_counts collections (using _id)");
         } catch (Exception e) {
@@ -0,0 +1,41 @@
+package org.example.analyticsservice.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.analyticsservice.service.CompletionTimeStatistics;
+import org.example.analyticsservice.service.UserTaskCounters;
+import org.example.analyticsservice.service.UserTaskRollups;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+/**
+ * Пересборка производных коллекций при старте выполняется до запуска потребителей Kafka: пересборка
+ * читает исходные данные и перезаписывает результат через replaceOne, так что $inc из параллельно
+ * применённой пачки был бы затёрт или учтён дважды. Контейнеры слушателей создаются с autoStartup=false
+ * и запускаются здесь; если пересборка упала, приложение не стартует и события не потребляются.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StatisticsBootstrap {
+
+    private final UserTaskCounters userTaskCounters;
+    private final UserTaskRollups userTaskRollups;
+    private final CompletionTimeStatistics completionTimeStatistics;
+    private final KafkaListenerEndpointRegistry kafkaListenerEndpointRegistry;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildThenStartListeners() {
+        userTaskCounters.rebuildIfMissing();
+        userTaskRollups.rebuildIfMissing();
+        completionTimeStatistics.rebuildIfMissing();
+
+        for (MessageListenerContainer container : kafkaListenerEndpointRegistry.getListenerContainers()) {
+            container.start();
+        }
+        log.info("Started {} Kafka listener containers", kafkaListenerEndpointRegistry.getListenerContainers().size());
+    }
+}
@@ -2,17 +2,23 @@ package org.example.analyticsservice.controller;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.example.analyticsservice.dto.ActiveUsersDto;
 import org.example.analyticsservice.dto.DashboardDto;
 import org.example.analyticsservice.dto.LoginAnalyticsDto;
 import org.example.analyticsservice.dto.TaskSummaryDto;
 import org.example.analyticsservice.dto.UserTaskSummaryDto;
+import org.example.analyticsservice.service.AnalyticsLiveFeed;
+import org.example.analyticsservice.service.AnalyticsQueryCache;
 import org.example.analyticsservice.service.AnalyticsService;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -28,6 +34,8 @@ public class AnalyticsController {
     private static final long DEFAULT_RANGE_DAYS = 30;
 
     private final AnalyticsService analyticsService;
+    private final AnalyticsQueryCache analyticsQueryCache;
+    private final AnalyticsLiveFeed analyticsLiveFeed;
 
     @GetMapping("/tasks")
     public ResponseEntity<TaskSummaryDto> getTaskAnalytics(
@@ -36,7 +44,7 @@ public class AnalyticsController {
 
         DateRange range = resolveRange(startDate, endDate);
         log.info("Запрос задач: {} — {}", range.start(), range.end());
-        TaskSummaryDto summary = analyticsService.getTaskSummary(range.start(), range.end());
+        TaskSummaryDto summary = analyticsQueryCache.getTaskSummary(range.start(), range.end());
         return ResponseEntity.ok(summary);
     }
 
@@ -64,10 +72,19 @@ public class AnalyticsController {
 
         DateRange range = resolveRange(startDate, endDate);
         log.info("Запрос логинов: {} — {}", range.start(), range.end());
-        LoginAnalyticsDto analytics = analyticsService.getLoginAnalytics(range.start(), range.end());
+        LoginAnalyticsDto analytics = analyticsQueryCache.getLoginAnalytics(range.start(), range.end());
         return ResponseEntity.ok(analytics);
     }
 
+    @GetMapping("/active-users")
+    public ResponseEntity<ActiveUsersDto> getActiveUsers(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+
+        LocalDate resolvedDate = Optional.ofNullable(date).orElse(LocalDate.now());
+        log.info("Запрос активных пользователей: {}", resolvedDate);
+        return ResponseEntity.ok(analyticsService.getActiveUsers(resolvedDate));
+    }
+
     @GetMapping("/dashboard")
     public ResponseEntity<DashboardDto> getDashboard(
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
@@ -75,10 +92,19 @@ public class AnalyticsController {
 
         DateRange range = resolveRange(startDate, endDate);
         log.info("Запрос дашборда: {} — {}", range.start(), range.end());
-        DashboardDto dashboard = analyticsService.getDashboard(range.start(), range.end());
+        DashboardDto dashboard = analyticsQueryCache.getDashboard(range.start(), range.end());
         return ResponseEntity.ok(dashboard);
     }
 
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> stream() {
+        SseEmitter emitter = analyticsLiveFeed.subscribe();
+        if (emitter == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        return ResponseEntity.ok(emitter);
+    }
+
     private DateRange resolveRange(LocalDateTime startDateTime, LocalDateTime endDateTime) {
         LocalDate resolvedEnd = Optional.ofNullable(endDateTime)
                 .map(LocalDateTime::toLocalDate)
@@ -0,0 +1,13 @@
+package org.example.analyticsservice.dto;
+
+import java.time.LocalDate;
+
+public record ActiveUsersDto(
+    LocalDate date,
+    Long dailyActiveUsers,
+    Long weeklyActiveUsers,
+    Long monthlyActiveUsers,
+    Boolean dailyExact,
+    Boolean weeklyExact,
+    Boolean monthlyExact
+) {}
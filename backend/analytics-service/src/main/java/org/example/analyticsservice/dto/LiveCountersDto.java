@@ -0,0 +1,15 @@
+package org.example.analyticsservice.dto;
+
+import java.time.Instant;
+
+/**
+ * Приращения счётчиков за один тик живой ленты (/analytics/stream).
+ */
+public record LiveCountersDto(
+    Instant timestamp,
+    Long createdTasks,
+    Long completedTasks,
+    Long successfulLogins,
+    Long failedLogins,
+    Long newActiveUsers
+) {}
@@ -16,6 +16,8 @@ public record TaskSummaryDto(
         Long deletedTasks,
         Double completionPercentage,
         Double averageCompletionTimeHours,
+        Double completionTimeP50Hours,
+        Double completionTimeP90Hours,
         Map<String, Long> tasksByStatus,
         Map<String, Long> tasksByPriority,
         Map<String, Long> tasksByCategory,
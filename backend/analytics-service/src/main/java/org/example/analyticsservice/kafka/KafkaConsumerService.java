@@ -1,15 +1,28 @@
 package org.example.analyticsservice.kafka;
     
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.example.analyticsservice.service.AnalyticsService;
+import org.example.analyticsservice.service.ConsumedEvent;
 import org.example.events.task.*;
 import org.example.events.user.*;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
 @Service
 @Slf4j
 public class KafkaConsumerService {
@@ -19,139 +32,97 @@ public class KafkaConsumerService {
     
     @Autowired
     private ObjectMapper objectMapper;
-    
-    // Task Events
-    @KafkaListener(topics = "${app.kafka.topics.task-created}", groupId = "${spring.kafka.consumer.group-id}")
-    public void consumeTaskCreated(String message) {
-        try {
-            TaskCreatedEvent event = objectMapper.readValue(message, TaskCreatedEvent.class);
-            log.info("Received TaskCreatedEvent: {}", event);
-            if (analyticsService != null) {
-                log.info("Получено событие TaskCreatedEvent для задачи: {}", event.id());
-                analyticsService.handleTaskCreated(event);
-            }
-        } catch (Exception e) {
-            log.error("Error deserializing TaskCreatedEvent: {}", e.getMessage(), e);
-        }
-    }
-
-    @KafkaListener(topics = "${app.kafka.topics.task-updated}", groupId = "${spring.kafka.consumer.group-id}")
-    public void consumeTaskUpdated(String message) {
-        try {
-            TaskUpdatedEvent event = objectMapper.readValue(message, TaskUpdatedEvent.class);
-            log.info("Received TaskUpdatedEvent for task: {}", event.id());
-            if (analyticsService != null) {
-                analyticsService.handleTaskUpdated(event);
-            }
-        } catch (Exception e) {
-            log.error("Error deserializing TaskUpdatedEvent: {}", e.getMessage(), e);
-        }
-    }
-
-    @KafkaListener(topics = "${app.kafka.topics.task-completed}", groupId = "${spring.kafka.consumer.group-id}")
-    public void consumeTaskCompleted(String message) {
-        try {
-            TaskCompletedEvent event = objectMapper.readValue(message, TaskCompletedEvent.class);
-            log.info("Received TaskCompletedEvent for task: {}", event.id());
-            if (analyticsService != null) {
-                analyticsService.handleTaskCompleted(event);
-            }
-        } catch (Exception e) {
-            log.error("Error deserializing TaskCompletedEvent: {}", e.getMessage(), e);
-        }
-    }
-
-    @KafkaListener(topics = "${app.kafka.topics.task-deleted}", groupId = "${spring.kafka.consumer.group-id}")
-    public void consumeTaskDeleted(String message) {
-        try {
-            TaskDeletedEvent event = objectMapper.readValue(message, TaskDeletedEvent.class);
-            log.info("Received TaskDeletedEvent for task: {}", event.id());
-            if (analyticsService != null) {
-                analyticsService.handleTaskDeleted(event);
-            }
-        } catch (Exception e) {
-            log.error("Error deserializing TaskDeletedEvent: {}", e.getMessage(), e);
-        }
-    }
 
-    // User Events
-    @KafkaListener(topics = "${app.kafka.topics.user-registered}", groupId = "${spring.kafka.consumer.group-id}")
-    public void consumeUserRegistered(String message) {
-        try {
-            UserCreatedEvent event = objectMapper.readValue(message, UserCreatedEvent.class);
-            log.info("Received UserCreatedEvent for user: {}", event.id());
-            if (analyticsService != null) {
-                analyticsService.handleUserRegistered(event);
-            }
-        } catch (Exception e) {
-            log.error("Error deserializing UserCreatedEvent: {}", e.getMessage(), e);
-        }
-    }
+    @Autowired
+    private Environment environment;
+    
+    private Map<String, Class<?>> taskEventTypes;
+    private Map<String, Class<?>> userEventTypes;
 
-    @KafkaListener(topics = "${app.kafka.topics.user-updated}", groupId = "${spring.kafka.consumer.group-id}")
-    public void consumeUserUpdated(String message) {
-        try {
-            UserProfileUpdatedEvent event = objectMapper.readValue(message, UserProfileUpdatedEvent.class);
-            log.info("Received UserProfileUpdatedEvent for user: {}", event.id());
-            if (analyticsService != null) {
-                analyticsService.handleUserUpdated(event);
-            }
-        } catch (Exception e) {
-            log.error("Error deserializing UserProfileUpdatedEvent: {}", e.getMessage(), e);
-        }
+    @PostConstruct
+    void initEventTypes() {
+        taskEventTypes = Map.of(
+                environment.getRequiredProperty("app.kafka.topics.task-created"), TaskCreatedEvent.class,
+                environment.getRequiredProperty("app.kafka.topics.task-updated"), TaskUpdatedEvent.class,
+                environment.getRequiredProperty("app.kafka.topics.task-completed"), TaskCompletedEvent.class,
+                environment.getRequiredProperty("app.kafka.topics.task-deleted"), TaskDeletedEvent.class,
+                environment.getRequiredProperty("app.kafka.topics.task-status-updated"), TaskStatusUpdatedEvent.class,
+                environment.getRequiredProperty("app.kafka.topics.task-assignees-updated"), TaskAssigneesUpdatedEvent.class);
+        userEventTypes = Map.of(
+                environment.getRequiredProperty("app.kafka.topics.user-registered"), UserCreatedEvent.class,
+                environment.getRequiredProperty("app.kafka.topics.user-updated"), UserProfileUpdatedEvent.class,
+                environment.getRequiredProperty("app.kafka.topics.user-login-success"), UserLoginEvent.class,
+                environment.getRequiredProperty("app.kafka.topics.user-login-failed"), LoginFailEvent.class);
     }
 
-    // Auth Events
-    @KafkaListener(topics = "${app.kafka.topics.user-login-success}", groupId = "${spring.kafka.consumer.group-id}")
-    public void consumeUserLoginSuccess(String message) {
-        try {
-            UserLoginEvent event = objectMapper.readValue(message, UserLoginEvent.class);
-            log.info("Received UserLoginEvent (successful) for user: {}", event.id());
+    // Task Events: все топики задач одной пачкой, тип события определяется по топику
+    @KafkaListener(
+            topics = {
+                    "${app.kafka.topics.task-created}",
+                    "${app.kafka.topics.task-updated}",
+                    "${app.kafka.topics.task-completed}",
+                    "${app.kafka.topics.task-deleted}",
+                    "${app.kafka.topics.task-status-updated}",
+                    "${app.kafka.topics.task-assignees-updated}"
+            },
+            groupId = "${spring.kafka.consumer.group-id}")
+    public void consumeTaskEvents(List<ConsumerRecord<String, String>> records, Acknowledgment acknowledgment) {
+        consume(records, taskEventTypes, acknowledgment, events -> {
             if (analyticsService != null) {
-                analyticsService.handleUserLoginSuccess(event);
+                analyticsService.handleTaskEvents(events.stream().map(ConsumedEvent::event).toList());
             }
-        } catch (Exception e) {
-            log.error("Error deserializing UserLoginEvent: {}", e.getMessage(), e);
-        }
+        });
     }
 
-    @KafkaListener(topics = "${app.kafka.topics.user-login-failed}", groupId = "${spring.kafka.consumer.group-id}")
-    public void consumeUserLoginFailed(String message) {
-        try {
-            LoginFailEvent loginFailEvent = objectMapper.readValue(message, LoginFailEvent.class);
-            log.info("Received failed login event: {}", loginFailEvent.failureReason());
+    // User & Auth Events
+    @KafkaListener(
+            topics = {
+                    "${app.kafka.topics.user-registered}",
+                    "${app.kafka.topics.user-updated}",
+                    "${app.kafka.topics.user-login-success}",
+                    "${app.kafka.topics.user-login-failed}"
+            },
+            groupId = "${spring.kafka.consumer.group-id}")
+    public void consumeUserEvents(List<ConsumerRecord<String, String>> records, Acknowledgment acknowledgment) {
+        consume(records, userEventTypes, acknowledgment, events -> {
             if (analyticsService != null) {
-                analyticsService.handleUserLoginFailed(loginFailEvent);
+                analyticsService.handleUserEvents(events);
             }
-        } catch (Exception e) {
-            log.error("Error deserializing LoginFailEvent: {}", e.getMessage(), e);
-        }
+        });
     }
 
-    // Дополнительные события задач
-    @KafkaListener(topics = "${app.kafka.topics.task-status-updated}", groupId = "${spring.kafka.consumer.group-id}")
-    public void consumeTaskStatusUpdated(String message) {
-        try {
-            TaskStatusUpdatedEvent event = objectMapper.readValue(message, TaskStatusUpdatedEvent.class);
-            log.info("Received TaskStatusUpdatedEvent for task: {}", event.id());
-            if (analyticsService != null) {
-                analyticsService.handleTaskStatusUpdated(event);
+    /**
+     * Разбирает пачку и применяет её целиком, после чего подтверждает офсеты. На нечитаемой записи
+     * применяются записи перед ней, а сама она отдаётся обработчику ошибок через
+     * {@link BatchListenerFailedException}: тот фиксирует офсеты до неё и отправляет её в dead-letter топик,
+     * остаток пачки придёт следующим poll. Ошибка записи в Mongo пробрасывается — пачка будет повторена.
+     */
+    private void consume(List<ConsumerRecord<String, String>> records, Map<String, Class<?>> types,
+                         Acknowledgment acknowledgment, Consumer<List<ConsumedEvent>> handler) {
+        List<ConsumedEvent> parsed = new ArrayList<>(records.size());
+        for (int i = 0; i < records.size(); i++) {
+            ConsumerRecord<String, String> record = records.get(i);
+            Class<?> type = types.get(record.topic());
+            try {
+                parsed.add(new ConsumedEvent(record.topic(), record.partition(), record.offset(), record.timestamp(),
+                        objectMapper.readValue(record.value(), type)));
+            } catch (JsonProcessingException e) {
+                if (!parsed.isEmpty()) {
+                    handler.accept(inTimestampOrder(parsed));
+                }
+                throw new BatchListenerFailedException("Cannot deserialize " + type.getSimpleName()
+                        + " from " + record.topic() + "-" + record.partition() + "@" + record.offset(), e, i);
             }
-        } catch (Exception e) {
-            log.error("Error deserializing TaskStatusUpdatedEvent: {}", e.getMessage(), e);
         }
+        log.debug("Received {} events", parsed.size());
+        handler.accept(inTimestampOrder(parsed));
+        acknowledgment.acknowledge();
     }
 
-    @KafkaListener(topics = "${app.kafka.topics.task-assignees-updated}", groupId = "${spring.kafka.consumer.group-id}")
-    public void consumeTaskAssigneesUpdated(String message) {
-        try {
-            TaskAssigneesUpdatedEvent event = objectMapper.readValue(message, TaskAssigneesUpdatedEvent.class);
-            log.info("Received TaskAssigneesUpdatedEvent for task: {}", event.id());
-            if (analyticsService != null) {
-                analyticsService.handleTaskAssigneesUpdated(event);
-            }
-        } catch (Exception e) {
-            log.error("Error deserializing TaskAssigneesUpdatedEvent: {}", e.getMessage(), e);
-        }
+    // записи разных топиков приходят сгруппированными по партициям; создание должно идти раньше завершения
+    private static List<ConsumedEvent> inTimestampOrder(List<ConsumedEvent> parsed) {
+        return parsed.stream()
+                .sorted(Comparator.comparingLong(ConsumedEvent::timestamp))
+                .toList();
     }
 }
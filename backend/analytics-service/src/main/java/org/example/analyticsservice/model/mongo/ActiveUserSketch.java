@@ -0,0 +1,47 @@
+package org.example.analyticsservice.model.mongo;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Скетч активных пользователей одного инстанса за период (день, ISO-неделя или месяц).
+ * Документов на период столько, сколько инстансов; при чтении они сливаются.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "active_user_sketches")
+public class ActiveUserSketch {
+
+    @Id
+    private String id;
+
+    // day:2024-01-15, week:2024-W03, month:2024-01
+    @Field("bucket")
+    private String bucket;
+
+    @Field("instance_id")
+    private String instanceId;
+
+    @Field("registers")
+    private byte[] registers;
+
+    // точный список, пока пользователей не больше analytics.active-users.exact-threshold; затем null
+    @Field("users")
+    private List<String> users;
+
+    @Field("last_updated")
+    private Instant lastUpdated;
+
+    @Field("expires_at")
+    private Instant expiresAt;
+}
@@ -0,0 +1,33 @@
+package org.example.analyticsservice.model.mongo;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+import java.time.Instant;
+
+/**
+ * Последний применённый офсет партиции топика событий пользователей. Пишется в той же транзакции,
+ * что и счётчики, поэтому запись с офсетом не больше сохранённого уже учтена и при повторе пропускается.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "applied_offsets")
+public class AppliedOffset {
+
+    // user-login-success-0
+    @Id
+    private String id;
+
+    @Field("offset")
+    private Long offset;
+
+    @Field("last_updated")
+    private Instant lastUpdated;
+}
@@ -9,9 +9,12 @@ import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.Field;
 
 import java.time.Instant;
+import java.util.Map;
 
 /**
- * Глобальный счетчик задач
+ * Глобальный счетчик задач и накопительные распределения активных задач.
+ * Распределения меняются через $inc при приёме событий и сверяются с task_documents
+ * по расписанию (TaskDistributionReconciler).
  */
 @Data
 @Builder
@@ -27,6 +30,18 @@ public class TaskCounter {
     @Builder.Default
     private Long totalTasks = 0L;
 
+    @Field("tasks_by_priority")
+    private Map<String, Long> tasksByPriority;
+
+    @Field("tasks_by_status")
+    private Map<String, Long> tasksByStatus;
+
+    @Field("tasks_by_department")
+    private Map<String, Long> tasksByDepartment;
+
+    @Field("tasks_by_category")
+    private Map<String, Long> tasksByCategory;
+
     @Field("last_updated")
     @Builder.Default
     private Instant lastUpdated = Instant.now();
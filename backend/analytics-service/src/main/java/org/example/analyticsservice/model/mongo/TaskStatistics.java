@@ -75,6 +75,19 @@ public class TaskStatistics {
     @Builder.Default
     private Long updatedTasksToday = 0L;
 
+    // Время выполнения задач, завершённых за день: сумма и число (в секундах) для среднего
+    @Field("completion_time_seconds_sum")
+    @Builder.Default
+    private Long completionTimeSecondsSum = 0L;
+
+    @Field("completion_time_count")
+    @Builder.Default
+    private Long completionTimeCount = 0L;
+
+    // Гистограмма QuantileSketch: корзина -> число задач, для перцентилей
+    @Field("completion_time_histogram")
+    private Map<String, Long> completionTimeHistogram;
+
     // Распределение по приоритетам
     @Field("tasks_by_priority")
     private Map<String, Long> tasksByPriority;
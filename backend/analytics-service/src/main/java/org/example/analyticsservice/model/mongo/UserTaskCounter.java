@@ -0,0 +1,43 @@
+package org.example.analyticsservice.model.mongo;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Накопительные распределения активных задач пользователя (как исполнителя), _id — id пользователя.
+ * Меняются через $inc при приёме событий; в строки user_task_statistics копируется их снимок.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "user_task_counts")
+public class UserTaskCounter {
+
+    @Id
+    private String id;
+
+    @Field("tasks_by_priority")
+    private Map<String, Long> tasksByPriority;
+
+    @Field("tasks_by_status")
+    private Map<String, Long> tasksByStatus;
+
+    @Field("tasks_by_department")
+    private Map<String, Long> tasksByDepartment;
+
+    @Field("tasks_by_category")
+    private Map<String, Long> tasksByCategory;
+
+    @Field("last_updated")
+    @Builder.Default
+    private Instant lastUpdated = Instant.now();
+}
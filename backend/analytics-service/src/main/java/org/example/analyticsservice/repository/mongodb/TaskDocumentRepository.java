@@ -5,6 +5,7 @@ import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -13,6 +14,8 @@ public interface TaskDocumentRepository extends MongoRepository<TaskDocument, St
 
     Optional<TaskDocument> findByTaskId(String taskId);
 
+    List<TaskDocument> findByTaskIdIn(Collection<String> taskIds);
+
     List<TaskDocument> findByCreatorId(String creatorId);
 
     List<TaskDocument> findByAssigneeIdsContaining(String assigneeId);
@@ -23,9 +26,6 @@ public interface TaskDocumentRepository extends MongoRepository<TaskDocument, St
     @Query("{ 'creator_id': ?0, 'is_deleted': false }")
     List<TaskDocument> findActiveTasksByCreator(String creatorId);
 
-    @Query("{ 'is_completed': true, 'is_deleted': false }")
-    List<TaskDocument> findAllCompletedTasks();
-
     @Query("{ 'is_deleted': false }")
     List<TaskDocument> findAllActiveTasks();
 
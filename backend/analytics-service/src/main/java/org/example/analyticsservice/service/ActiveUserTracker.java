@@ -0,0 +1,289 @@
+package org.example.analyticsservice.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.example.analyticsservice.config.ActiveUserProperties;
+import org.example.analyticsservice.model.mongo.ActiveUserSketch;
+import org.example.analyticsservice.repository.mongodb.UserStatisticsRepository;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.temporal.IsoFields;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Активные пользователи за день, неделю и месяц. Вход пользователя обновляет три скетча в памяти
+ * ({@link HyperLogLog} плюс точный список, пока он мал) без обращения к Mongo; раз в
+ * analytics.active-users.flush-interval изменённые скетчи сливаются с сохранёнными ранее копиями
+ * этого инстанса и записываются в active_user_sketches. Число за период — объединение скетчей
+ * всех инстансов; точное, если ни один из них не превысил порог точного списка.
+ * <p>
+ * Офсеты Kafka подтверждаются сразу после записи счётчиков, а скетч попадает в Mongo только при сбросе,
+ * поэтому при аварийном завершении инстанса входы за последний flush-interval не войдут в DAU/WAU/MAU
+ * (счётчики входов и регистраций от этого не страдают). При штатной остановке скетчи сбрасываются
+ * в {@link #flushOnShutdown()}. Окно сужается уменьшением flush-interval ценой более частой записи.
+ */
+@Slf4j
+@Component
+public class ActiveUserTracker {
+
+    private final MongoTemplate mongoTemplate;
+    private final UserStatisticsRepository userStatisticsRepository;
+    private final ActiveUserProperties properties;
+    private final String instanceId;
+    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+
+    public ActiveUserTracker(MongoTemplate mongoTemplate, UserStatisticsRepository userStatisticsRepository,
+                             ActiveUserProperties properties) {
+        this.mongoTemplate = mongoTemplate;
+        this.userStatisticsRepository = userStatisticsRepository;
+        this.properties = properties;
+        this.instanceId = properties.getInstanceId().isBlank() ? hostName() : properties.getInstanceId();
+    }
+
+    public record ActiveUserCount(long count, boolean exact) {}
+
+    public void record(String username, LocalDate date) {
+        if (username == null) {
+            return;
+        }
+        for (Period period : Period.values()) {
+            buckets.computeIfAbsent(period.key(date), key -> new Bucket(period.end(date))).add(username);
+        }
+    }
+
+    public ActiveUserCount dailyActiveUsers(LocalDate date) {
+        return count(Period.DAY.key(date));
+    }
+
+    public ActiveUserCount weeklyActiveUsers(LocalDate date) {
+        return count(Period.WEEK.key(date));
+    }
+
+    public ActiveUserCount monthlyActiveUsers(LocalDate date) {
+        return count(Period.MONTH.key(date));
+    }
+
+    /** Активные сегодня по данным только этого инстанса, без обращения к Mongo. */
+    public long localDailyActiveUsers(LocalDate date) {
+        Bucket bucket = buckets.get(Period.DAY.key(date));
+        return bucket != null ? bucket.localCount() : 0L;
+    }
+
+    private ActiveUserCount count(String bucketKey) {
+        HyperLogLog merged = new HyperLogLog();
+        Set<String> users = new HashSet<>();
+        boolean exact = true;
+        for (ActiveUserSketch sketch : mongoTemplate.find(
+                new Query(Criteria.where("bucket").is(bucketKey)), ActiveUserSketch.class)) {
+            merged.merge(HyperLogLog.fromRegisters(sketch.getRegisters()));
+            if (sketch.getUsers() != null) {
+                users.addAll(sketch.getUsers());
+            } else {
+                exact = false;
+            }
+        }
+        Bucket local = buckets.get(bucketKey);
+        if (local != null) {
+            exact &= local.mergeInto(merged, users);
+        }
+        return exact ? new ActiveUserCount(users.size(), true) : new ActiveUserCount(merged.estimate(), false);
+    }
+
+    @Scheduled(fixedDelayString = "${analytics.active-users.flush-interval:PT30S}",
+            initialDelayString = "${analytics.active-users.flush-interval:PT30S}")
+    public void flush() {
+        Map<String, ActiveUserSketch> dirty = new HashMap<>();
+        List<Bucket> taken = new ArrayList<>();
+        buckets.forEach((key, bucket) -> {
+            ActiveUserSketch sketch = bucket.takeIfDirty();
+            if (sketch != null) {
+                sketch.setId(key + '|' + instanceId);
+                sketch.setBucket(key);
+                sketch.setInstanceId(instanceId);
+                dirty.put(sketch.getId(), sketch);
+                taken.add(bucket);
+            }
+        });
+        if (!dirty.isEmpty()) {
+            try {
+                persist(dirty);
+            } catch (RuntimeException e) {
+                // скетч в памяти полон, поэтому достаточно записать его при следующем сбросе
+                taken.forEach(Bucket::markDirty);
+                throw e;
+            }
+            LocalDate today = LocalDate.now();
+            if (dirty.containsKey(Period.DAY.key(today) + '|' + instanceId)) {
+                userStatisticsRepository.setActiveUsers(today, Instant.now(), dailyActiveUsers(today).count());
+            }
+        }
+        evictClosedPeriods();
+    }
+
+    private void persist(Map<String, ActiveUserSketch> dirty) {
+        // после рестарта в памяти только новые входы — сохранённая копия дополняет их, а не затирается
+        for (ActiveUserSketch stored : mongoTemplate.find(
+                new Query(Criteria.where("_id").in(dirty.keySet())), ActiveUserSketch.class)) {
+            merge(dirty.get(stored.getId()), stored);
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ActiveUserSketch.class);
+        Instant now = Instant.now();
+        for (ActiveUserSketch sketch : dirty.values()) {
+            sketch.setLastUpdated(now);
+            bulk.replaceOne(new Query(Criteria.where("_id").is(sketch.getId())), sketch,
+                    FindAndReplaceOptions.options().upsert());
+        }
+        bulk.execute();
+        log.debug("Persisted {} active user sketches", dirty.size());
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        flush();
+    }
+
+    private void merge(ActiveUserSketch target, ActiveUserSketch stored) {
+        HyperLogLog sketch = HyperLogLog.fromRegisters(target.getRegisters());
+        sketch.merge(HyperLogLog.fromRegisters(stored.getRegisters()));
+        target.setRegisters(sketch.toRegisters());
+        if (target.getUsers() == null || stored.getUsers() == null) {
+            target.setUsers(null);
+        } else {
+            Set<String> users = new HashSet<>(target.getUsers());
+            users.addAll(stored.getUsers());
+            target.setUsers(users.size() <= properties.getExactThreshold() ? new ArrayList<>(users) : null);
+        }
+    }
+
+    /** Закончившиеся периоды уже сохранены — в памяти держим только текущие. */
+    private void evictClosedPeriods() {
+        LocalDate today = LocalDate.now();
+        Set<String> current = new HashSet<>();
+        for (Period period : Period.values()) {
+            current.add(period.key(today));
+        }
+        buckets.entrySet().removeIf(entry -> !current.contains(entry.getKey()) && !entry.getValue().isDirty());
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return UUID.randomUUID().toString();
+        }
+    }
+
+    private enum Period {
+        DAY {
+            String key(LocalDate date) {
+                return "day:" + date;
+            }
+
+            LocalDate endExclusive(LocalDate date) {
+                return date.plusDays(1);
+            }
+        },
+        WEEK {
+            String key(LocalDate date) {
+                return "week:%d-W%02d".formatted(date.get(IsoFields.WEEK_BASED_YEAR),
+                        date.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR));
+            }
+
+            LocalDate endExclusive(LocalDate date) {
+                return date.with(DayOfWeek.MONDAY).plusWeeks(1);
+            }
+        },
+        MONTH {
+            String key(LocalDate date) {
+                return "month:" + YearMonth.from(date);
+            }
+
+            LocalDate endExclusive(LocalDate date) {
+                return YearMonth.from(date).plusMonths(1).atDay(1);
+            }
+        };
+
+        abstract String key(LocalDate date);
+
+        abstract LocalDate endExclusive(LocalDate date);
+
+        Instant end(LocalDate date) {
+            return endExclusive(date).atStartOfDay(ZoneId.systemDefault()).toInstant();
+        }
+    }
+
+    /** Скетч текущего периода в памяти: 16 КБ регистров и не больше exact-threshold имён. */
+    private final class Bucket {
+
+        private final HyperLogLog sketch = new HyperLogLog();
+        private final Instant expiresAt;
+        private Set<String> users = new HashSet<>();
+        private boolean dirty;
+
+        Bucket(Instant periodEnd) {
+            this.expiresAt = periodEnd.plus(properties.getRetention());
+        }
+
+        synchronized void add(String username) {
+            sketch.add(username);
+            if (users != null && users.add(username) && users.size() > properties.getExactThreshold()) {
+                users = null;
+            }
+            dirty = true;
+        }
+
+        synchronized long localCount() {
+            return users != null ? users.size() : sketch.estimate();
+        }
+
+        synchronized void markDirty() {
+            dirty = true;
+        }
+
+        synchronized boolean isDirty() {
+            return dirty;
+        }
+
+        synchronized ActiveUserSketch takeIfDirty() {
+            if (!dirty) {
+                return null;
+            }
+            dirty = false;
+            return ActiveUserSketch.builder()
+                    .registers(sketch.toRegisters())
+                    .users(users != null ? new ArrayList<>(users) : null)
+                    .expiresAt(expiresAt)
+                    .build();
+        }
+
+        /** Возвращает false, если точный список уже отброшен. */
+        synchronized boolean mergeInto(HyperLogLog target, Set<String> targetUsers) {
+            target.merge(sketch);
+            if (users == null) {
+                return false;
+            }
+            targetUsers.addAll(users);
+            return true;
+        }
+    }
+}
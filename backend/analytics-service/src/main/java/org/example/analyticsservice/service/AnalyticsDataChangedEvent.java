@@ -0,0 +1,24 @@
+package org.example.analyticsservice.service;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * Публикуется {@link AnalyticsService} после записи пачки событий: какой набор статистики и за
+ * какой день изменился, и на сколько выросли основные счётчики. По дню кэш ответов сбрасывает
+ * только затронутые диапазоны, по дельтам живая лента рассылает изменения подписчикам.
+ */
+public record AnalyticsDataChangedEvent(Dataset dataset, LocalDate date, Map<Counter, Long> deltas) {
+
+    public enum Dataset {
+        TASKS,
+        LOGINS
+    }
+
+    public enum Counter {
+        CREATED_TASKS,
+        COMPLETED_TASKS,
+        SUCCESSFUL_LOGINS,
+        FAILED_LOGINS
+    }
+}
@@ -0,0 +1,135 @@
+package org.example.analyticsservice.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.example.analyticsservice.config.LiveFeedProperties;
+import org.example.analyticsservice.dto.LiveCountersDto;
+import org.example.analyticsservice.service.AnalyticsDataChangedEvent.Counter;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Живая лента счётчиков по SSE. Дельты из {@link AnalyticsDataChangedEvent} копятся в LongAdder,
+ * раз в тик (analytics.live.tick) сворачиваются в одно сообщение, которое сериализуется один раз
+ * и рассылается всем подписчикам — нагрузка на Mongo от клиентов нулевая, а от числа подписчиков
+ * зависит только рассылка. Дельты — события, применённые этим инстансом, т.е. его партиции Kafka.
+ */
+@Slf4j
+@Service
+public class AnalyticsLiveFeed {
+
+    private static final String EVENT_NAME = "counters";
+
+    private final ActiveUserTracker activeUserTracker;
+    private final ObjectMapper objectMapper;
+    private final LiveFeedProperties properties;
+    private final Map<Counter, LongAdder> pending = new EnumMap<>(Counter.class);
+    private final Set<SseEmitter> subscribers = new CopyOnWriteArraySet<>();
+
+    private LocalDate activeUsersDate = LocalDate.now();
+    private long activeUsersSent;
+    private long lastSentAt = System.nanoTime();
+
+    public AnalyticsLiveFeed(ActiveUserTracker activeUserTracker, ObjectMapper objectMapper,
+                             LiveFeedProperties properties) {
+        this.activeUserTracker = activeUserTracker;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+        for (Counter counter : Counter.values()) {
+            pending.put(counter, new LongAdder());
+        }
+        this.activeUsersSent = activeUserTracker.localDailyActiveUsers(activeUsersDate);
+    }
+
+    /** Возвращает null, если подписчиков уже analytics.live.max-subscribers. */
+    public SseEmitter subscribe() {
+        if (subscribers.size() >= properties.getMaxSubscribers()) {
+            return null;
+        }
+        SseEmitter emitter = new SseEmitter(properties.getEmitterTimeout().toMillis());
+        emitter.onCompletion(() -> subscribers.remove(emitter));
+        emitter.onTimeout(() -> subscribers.remove(emitter));
+        emitter.onError(error -> subscribers.remove(emitter));
+        subscribers.add(emitter);
+        log.debug("Live feed subscriber added, {} active", subscribers.size());
+        return emitter;
+    }
+
+    @EventListener
+    public void onDataChanged(AnalyticsDataChangedEvent event) {
+        event.deltas().forEach((counter, delta) -> {
+            if (delta != 0) {
+                pending.get(counter).add(delta);
+            }
+        });
+    }
+
+    @Scheduled(fixedRateString = "${analytics.live.tick:PT1S}")
+    public void tick() {
+        // дельты снимаются и при отсутствии подписчиков, иначе первый подписчик получил бы накопленное за всё время
+        long created = pending.get(Counter.CREATED_TASKS).sumThenReset();
+        long completed = pending.get(Counter.COMPLETED_TASKS).sumThenReset();
+        long successfulLogins = pending.get(Counter.SUCCESSFUL_LOGINS).sumThenReset();
+        long failedLogins = pending.get(Counter.FAILED_LOGINS).sumThenReset();
+        long newActiveUsers = activeUsersDelta();
+        if (subscribers.isEmpty()) {
+            return;
+        }
+
+        if (created == 0 && completed == 0 && successfulLogins == 0 && failedLogins == 0 && newActiveUsers == 0) {
+            if (System.nanoTime() - lastSentAt >= properties.getHeartbeat().toNanos()) {
+                broadcast(SseEmitter.event().comment("heartbeat"));
+            }
+            return;
+        }
+
+        LiveCountersDto counters = new LiveCountersDto(Instant.now(), created, completed,
+                successfulLogins, failedLogins, newActiveUsers);
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(counters);
+        } catch (JsonProcessingException e) {
+            log.error("Error serializing live counters: {}", e.getMessage(), e);
+            return;
+        }
+        broadcast(SseEmitter.event().name(EVENT_NAME).data(json, MediaType.APPLICATION_JSON));
+    }
+
+    /** Прирост активных сегодня по скетчу в памяти; в полночь отсчёт начинается заново. */
+    private long activeUsersDelta() {
+        LocalDate today = LocalDate.now();
+        long current = activeUserTracker.localDailyActiveUsers(today);
+        long delta = today.equals(activeUsersDate) ? current - activeUsersSent : current;
+        activeUsersDate = today;
+        activeUsersSent = current;
+        return Math.max(delta, 0);
+    }
+
+    private void broadcast(SseEmitter.SseEventBuilder event) {
+        // сообщение собрано один раз; каждому подписчику пишутся одни и те же части
+        Set<DataWithMediaType> parts = event.build();
+        for (SseEmitter emitter : subscribers) {
+            try {
+                emitter.send(parts);
+            } catch (IOException | IllegalStateException e) {
+                subscribers.remove(emitter);
+                log.debug("Live feed subscriber dropped: {}", e.getMessage());
+            }
+        }
+        lastSentAt = System.nanoTime();
+    }
+}
@@ -0,0 +1,128 @@
+package org.example.analyticsservice.service;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.example.analyticsservice.config.AnalyticsCacheProperties;
+import org.example.analyticsservice.dto.DashboardDto;
+import org.example.analyticsservice.dto.LoginAnalyticsDto;
+import org.example.analyticsservice.dto.TaskSummaryDto;
+import org.example.analyticsservice.service.AnalyticsDataChangedEvent.Dataset;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Кэш рассчитанных ответов /tasks, /logins и /dashboard по ключу (эндпоинт, диапазон).
+ * Ответ отдаётся из памяти, пока не истёк time-to-live; после refresh-after или после записи
+ * событий за день внутри диапазона он помечается устаревшим и пересчитывается в фоне — один
+ * пересчёт на ключ, читатели тем временем получают прежний ответ. Диапазоны, не содержащие
+ * изменённый день, не трогаются.
+ * <p>
+ * Каждое изменение получает номер, и для набора статистики запоминается последний номер по дню.
+ * Ответ хранит номер, с которого начался его расчёт, и устаревшим считается, если в его диапазоне
+ * есть изменение новее. Так расчёт, который шёл во время записи, тоже будет пересчитан: отметить
+ * ключ заранее нельзя, пока загрузка не завершилась, его нет в кэше.
+ */
+@Slf4j
+@Service
+public class AnalyticsQueryCache {
+
+    private final AnalyticsService analyticsService;
+    private final LoadingCache<Key, Versioned> cache;
+    private final AtomicLong changes = new AtomicLong();
+    private final Map<Dataset, NavigableMap<LocalDate, Long>> lastChange = new EnumMap<>(Dataset.class);
+
+    public AnalyticsQueryCache(AnalyticsService analyticsService, AnalyticsCacheProperties properties,
+                               MeterRegistry meterRegistry) {
+        this.analyticsService = analyticsService;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .refreshAfterWrite(properties.getRefreshAfter())
+                .expireAfterWrite(properties.getTimeToLive())
+                .recordStats()
+                .build(this::compute);
+        for (Dataset dataset : Dataset.values()) {
+            lastChange.put(dataset, new ConcurrentSkipListMap<>());
+        }
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "analyticsResponses");
+    }
+
+    enum Endpoint {
+        TASKS(EnumSet.of(Dataset.TASKS)),
+        LOGINS(EnumSet.of(Dataset.LOGINS)),
+        DASHBOARD(EnumSet.of(Dataset.TASKS, Dataset.LOGINS));
+
+        private final Set<Dataset> dependsOn;
+
+        Endpoint(Set<Dataset> dependsOn) {
+            this.dependsOn = dependsOn;
+        }
+    }
+
+    record Key(Endpoint endpoint, LocalDate start, LocalDate end) {
+    }
+
+    /** Ответ и номер последнего изменения, учтённого на момент начала его расчёта. */
+    private record Versioned(Object value, long version) {
+    }
+
+    public TaskSummaryDto getTaskSummary(LocalDate startDate, LocalDate endDate) {
+        return (TaskSummaryDto) get(new Key(Endpoint.TASKS, startDate, endDate));
+    }
+
+    public LoginAnalyticsDto getLoginAnalytics(LocalDate startDate, LocalDate endDate) {
+        return (LoginAnalyticsDto) get(new Key(Endpoint.LOGINS, startDate, endDate));
+    }
+
+    public DashboardDto getDashboard(LocalDate startDate, LocalDate endDate) {
+        return (DashboardDto) get(new Key(Endpoint.DASHBOARD, startDate, endDate));
+    }
+
+    @EventListener
+    public void onDataChanged(AnalyticsDataChangedEvent event) {
+        lastChange.get(event.dataset()).merge(event.date(), changes.incrementAndGet(), Math::max);
+    }
+
+    private Object get(Key key) {
+        Versioned entry = cache.get(key);
+        // пересчёт только для ключей, которые читают: устаревший ответ отдаётся ещё раз;
+        // если пересчёт уже идёт, refresh к нему присоединяется, а его итог проверится при следующем чтении
+        if (lastChange(key) > entry.version()) {
+            cache.refresh(key);
+        }
+        return entry.value();
+    }
+
+    private long lastChange(Key key) {
+        long last = 0;
+        for (Dataset dataset : key.endpoint().dependsOn) {
+            for (long change : lastChange.get(dataset).subMap(key.start(), true, key.end(), true).values()) {
+                last = Math.max(last, change);
+            }
+        }
+        return last;
+    }
+
+    private Versioned compute(Key key) {
+        // номер берётся до чтения: изменение, записанное во время расчёта, окажется новее ответа
+        long version = changes.get();
+        log.debug("Computing {} for {} — {}", key.endpoint(), key.start(), key.end());
+        Object value = switch (key.endpoint()) {
+            case TASKS -> analyticsService.getTaskSummary(key.start(), key.end());
+            case LOGINS -> analyticsService.getLoginAnalytics(key.start(), key.end());
+            case DASHBOARD -> analyticsService.getDashboard(key.start(), key.end());
+        };
+        return new Versioned(value, version);
+    }
+}
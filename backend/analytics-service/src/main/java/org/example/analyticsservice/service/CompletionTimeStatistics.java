@@ -0,0 +1,102 @@
+package org.example.analyticsservice.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.example.analyticsservice.model.mongo.TaskStatistics;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.time.ZoneId;
+import java.util.List;
+
+import static org.example.analyticsservice.service.TaskEventIngestionService.*;
+
+/**
+ * Время выполнения задач по дневным строкам task_statistics: сумма и число длительностей дают
+ * среднее за любой диапазон, гистограммы {@link QuantileSketch} складываются в перцентили.
+ * Строки ведёт {@link TaskEventIngestionService}; для задач, завершённых до появления этих полей,
+ * они один раз восстанавливаются агрегацией по task_documents (индекс по completed_at).
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CompletionTimeStatistics {
+
+    private static final double SECONDS_PER_HOUR = 3600.0;
+
+    private final MongoTemplate mongoTemplate;
+
+    public record CompletionTimeSummary(double averageHours, double p50Hours, double p90Hours) {}
+
+    public static CompletionTimeSummary summarize(List<TaskStatistics> days) {
+        long sum = 0;
+        long count = 0;
+        QuantileSketch sketch = new QuantileSketch();
+        for (TaskStatistics day : days) {
+            sum += day.getCompletionTimeSecondsSum() != null ? day.getCompletionTimeSecondsSum() : 0L;
+            count += day.getCompletionTimeCount() != null ? day.getCompletionTimeCount() : 0L;
+            sketch.merge(day.getCompletionTimeHistogram());
+        }
+        if (count == 0) {
+            return new CompletionTimeSummary(0.0, 0.0, 0.0);
+        }
+        return new CompletionTimeSummary(
+                sum / SECONDS_PER_HOUR / count,
+                sketch.quantile(0.5) / SECONDS_PER_HOUR,
+                sketch.quantile(0.9) / SECONDS_PER_HOUR);
+    }
+
+    public void rebuildIfMissing() {
+        boolean tracked = mongoTemplate.exists(
+                new Query(Criteria.where(COMPLETION_TIME_COUNT).gt(0)), TaskStatistics.class);
+        if (!tracked) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Пересчитывает поля времени выполнения дневных строк из task_documents на стороне Mongo:
+     * длительности группируются по дню завершения и корзине гистограммы, затем сворачиваются в
+     * документ дня и вливаются ($merge) в существующие строки task_statistics.
+     */
+    public void rebuild() {
+        String timezone = ZoneId.systemDefault().getId();
+        List<Document> pipeline = List.of(
+                new Document("$match", new Document("is_completed", true)
+                        .append("is_deleted", false)
+                        .append("completed_at", new Document("$ne", null))
+                        .append("created_at", new Document("$ne", null))),
+                new Document("$project", new Document("date", new Document("$dateTrunc", new Document("date", "$completed_at")
+                        .append("unit", "day")
+                        .append("timezone", timezone)))
+                        .append("seconds", new Document("$dateDiff", new Document("startDate", "$created_at")
+                                .append("endDate", "$completed_at")
+                                .append("unit", "second")))),
+                new Document("$match", new Document("seconds", new Document("$gt", 0))),
+                new Document("$group", new Document("_id", new Document("date", "$date")
+                        .append("bucket", new Document("$ceil", new Document("$divide",
+                                List.of(new Document("$ln", "$seconds"), QuantileSketch.LOG_GAMMA)))))
+                        .append("count", new Document("$sum", 1L))
+                        .append("sum", new Document("$sum", "$seconds"))),
+                new Document("$group", new Document("_id", "$_id.date")
+                        .append(COMPLETION_TIME_SUM, new Document("$sum", "$sum"))
+                        .append(COMPLETION_TIME_COUNT, new Document("$sum", "$count"))
+                        .append("histogram", new Document("$push", new Document("k",
+                                new Document("$toString", new Document("$toInt", "$_id.bucket")))
+                                .append("v", "$count")))),
+                new Document("$project", new Document("_id", 0)
+                        .append("date", "$_id")
+                        .append(COMPLETION_TIME_SUM, 1)
+                        .append(COMPLETION_TIME_COUNT, 1)
+                        .append(COMPLETION_TIME_HISTOGRAM, new Document("$arrayToObject", "$histogram"))),
+                new Document("$merge", new Document("into", "task_statistics")
+                        .append("on", "date")
+                        .append("whenMatched", "merge")
+                        .append("whenNotMatched", "discard")));
+        mongoTemplate.getCollection("task_documents").aggregate(pipeline).toCollection();
+        log.info("Rebuilt completion time statistics from task_documents");
+    }
+}
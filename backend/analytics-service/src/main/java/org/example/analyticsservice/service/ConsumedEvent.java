@@ -0,0 +1,9 @@
+package org.example.analyticsservice.service;
+
+/** Разобранное событие вместе с положением записи в Kafka — по нему отсекаются повторно доставленные записи. */
+public record ConsumedEvent(String topic, int partition, long offset, long timestamp, Object event) {
+
+    public String partitionKey() {
+        return topic + '-' + partition;
+    }
+}
@@ -0,0 +1,69 @@
+package org.example.analyticsservice.service;
+
+import com.mongodb.MongoException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.mongodb.MongoTransactionManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.function.Supplier;
+
+/**
+ * Mongo-транзакция с повтором: транзакция, чья запись пересеклась с параллельной, сразу прерывается
+ * с WriteConflict и меткой TransientTransactionError и выполняется заново целиком — так же,
+ * как пачка событий задач в {@link TaskEventIngestionService}.
+ * Без менеджера транзакций (analytics.ingestion.transactional=false) действие выполняется как есть.
+ */
+@Slf4j
+@Component
+public class MongoTransactions {
+
+    private static final int MAX_ATTEMPTS = 5;
+
+    private final TransactionTemplate transactionTemplate;
+
+    public MongoTransactions(ObjectProvider<MongoTransactionManager> transactionManager) {
+        MongoTransactionManager manager = transactionManager.getIfAvailable();
+        this.transactionTemplate = manager != null ? new TransactionTemplate(manager) : null;
+    }
+
+    public boolean isTransactional() {
+        return transactionTemplate != null;
+    }
+
+    /** Действие может выполниться несколько раз, поэтому вне Mongo оно ничего менять не должно. */
+    public <T> T execute(Supplier<T> action) {
+        if (transactionTemplate == null) {
+            return action.get();
+        }
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> action.get());
+            } catch (RuntimeException ex) {
+                if (attempt >= MAX_ATTEMPTS || !isTransientTransactionError(ex)) {
+                    throw ex;
+                }
+                log.debug("Transaction aborted ({}), retrying: attempt {}", ex.getMessage(), attempt + 1);
+            }
+        }
+    }
+
+    public void run(Runnable action) {
+        execute(() -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /** Метка TransientTransactionError гарантирует, что транзакция откатилась и её можно выполнить заново. */
+    private static boolean isTransientTransactionError(Throwable ex) {
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof MongoException mongoException
+                    && mongoException.hasErrorLabel(MongoException.TRANSIENT_TRANSACTION_ERROR_LABEL)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
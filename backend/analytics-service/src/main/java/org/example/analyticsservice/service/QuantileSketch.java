@@ -0,0 +1,82 @@
+package org.example.analyticsservice.service;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Гистограмма с логарифмическими корзинами (как в DDSketch): значение x попадает в корзину
+ * ceil(log_γ x), γ = (1 + α) / (1 - α), и любой квантиль восстанавливается с относительной
+ * ошибкой не больше α = 2%. Корзины — просто счётчики, поэтому скетчи сливаются сложением:
+ * в Mongo это $inc поля histogram.&lt;корзина&gt;, а диапазон дней — сумма дневных гистограмм.
+ * Для длительностей от секунды до нескольких лет нужно не больше ~500 корзин.
+ */
+public final class QuantileSketch {
+
+    public static final double RELATIVE_ACCURACY = 0.02;
+
+    private static final double GAMMA = (1 + RELATIVE_ACCURACY) / (1 - RELATIVE_ACCURACY);
+    public static final double LOG_GAMMA = Math.log(GAMMA);
+
+    private final TreeMap<Integer, Long> counts = new TreeMap<>();
+    private long total;
+
+    /** Корзина для положительного значения; ключ поля в Mongo — её строковое представление. */
+    public static int index(double value) {
+        if (value <= 0) {
+            throw new IllegalArgumentException("Value must be positive: " + value);
+        }
+        return (int) Math.ceil(Math.log(value) / LOG_GAMMA);
+    }
+
+    public void add(double value) {
+        add(index(value), 1);
+    }
+
+    public void add(int index, long count) {
+        if (count == 0) {
+            return;
+        }
+        counts.merge(index, count, Long::sum);
+        total += count;
+    }
+
+    /** Сливает гистограмму в том виде, в каком она хранится в документе: корзина -> число значений. */
+    public void merge(Map<String, Long> histogram) {
+        if (histogram == null) {
+            return;
+        }
+        histogram.forEach((index, count) -> {
+            if (count != null) {
+                add(Integer.parseInt(index), count);
+            }
+        });
+    }
+
+    public long count() {
+        return total;
+    }
+
+    /** Квантиль q из [0, 1]; для пустого скетча — 0. */
+    public double quantile(double q) {
+        if (q < 0 || q > 1) {
+            throw new IllegalArgumentException("Quantile must be in [0, 1]: " + q);
+        }
+        if (total <= 0) {
+            return 0.0;
+        }
+        long rank = (long) Math.floor(q * (total - 1));
+        long seen = 0;
+        for (Map.Entry<Integer, Long> bucket : counts.entrySet()) {
+            seen += bucket.getValue();
+            if (seen > rank) {
+                return value(bucket.getKey());
+            }
+        }
+        return value(counts.lastKey());
+    }
+
+    /** Середина корзины (γ^(i-1), γ^i] в смысле относительной ошибки. */
+    private static double value(int index) {
+        return 2 * Math.pow(GAMMA, index) / (GAMMA + 1);
+    }
+}
@@ -0,0 +1,38 @@
+package org.example.analyticsservice.service;
+
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Накопленные за пачку событий приращения счётчиков одного документа статистики:
+ * имя поля в Mongo -> дельта. Записывается одним $inc вместо отдельного запроса на каждое событие.
+ */
+class StatisticsDelta {
+
+    private final Map<String, Long> increments = new LinkedHashMap<>();
+
+    void add(String field, long delta) {
+        increments.merge(field, delta, Long::sum);
+    }
+
+    long get(String field) {
+        return increments.getOrDefault(field, 0L);
+    }
+
+    boolean isEmpty() {
+        return increments.values().stream().allMatch(delta -> delta == 0);
+    }
+
+    Update toUpdate(Instant lastUpdated) {
+        Update update = new Update().set("last_updated", lastUpdated);
+        increments.forEach((field, delta) -> {
+            if (delta != 0) {
+                update.inc(field, delta);
+            }
+        });
+        return update;
+    }
+}
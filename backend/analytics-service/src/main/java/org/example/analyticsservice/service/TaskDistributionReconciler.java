@@ -0,0 +1,123 @@
+package org.example.analyticsservice.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.example.analyticsservice.model.mongo.TaskCounter;
+import org.example.analyticsservice.model.mongo.TaskStatistics;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.example.analyticsservice.service.TaskEventIngestionService.*;
+
+/**
+ * Сверяет накопленные через $inc распределения с task_documents: потерянное или повторно
+ * применённое событие сдвигает счётчики навсегда, поэтому их периодически пересчитывают одним
+ * агрегационным запросом ($facet по четырём полям) на стороне Mongo и исправляют, если разошлись.
+ * <p>
+ * Подсчёт, чтение счётчика и исправление идут в одной транзакции: обе выборки видят один снимок,
+ * а исправление — это $inc разницы, а не $set. Если пачка событий изменила счётчик после начала
+ * снимка, запись сверки получает WriteConflict и сверка повторяется на новом снимке; $inc пачки,
+ * зафиксированный раньше, уже учтён в обеих выборках и не затирается. Без транзакций
+ * (analytics.ingestion.transactional=false) событие между подсчётом и чтением счётчика может
+ * сдвинуть разницу на себя — это исправит следующая сверка.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "analytics.distributions.reconcile", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class TaskDistributionReconciler {
+
+    private static final Map<String, String> SOURCE_FIELDS = Map.of(
+            BY_CATEGORY, "description_category",
+            BY_PRIORITY, "priority",
+            BY_STATUS, "status",
+            BY_DEPARTMENT, "department");
+
+    private final MongoTemplate mongoTemplate;
+    private final MongoTransactions transactions;
+
+    @Scheduled(fixedDelayString = "${analytics.distributions.reconcile.interval:PT15M}",
+            initialDelayString = "${analytics.distributions.reconcile.initial-delay:PT1M}")
+    public void reconcile() {
+        transactions.run(this::correct);
+    }
+
+    private void correct() {
+        Map<String, Map<String, Long>> actual = countActiveTasks();
+        TaskCounter counter = mongoTemplate.findOne(GLOBAL_COUNTER, TaskCounter.class);
+        Map<String, Map<String, Long>> accumulated = counter != null
+                ? distributions(counter)
+                : Map.of(BY_CATEGORY, Map.of(), BY_PRIORITY, Map.of(), BY_STATUS, Map.of(), BY_DEPARTMENT, Map.of());
+        StatisticsDelta correction = difference(actual, accumulated);
+        if (correction.isEmpty()) {
+            log.debug("Task distributions are consistent");
+            return;
+        }
+
+        log.info("Task distributions drifted, correcting: accumulated={}, actual={}", accumulated, actual);
+        Instant now = Instant.now();
+        TaskCounter corrected = mongoTemplate.findAndModify(GLOBAL_COUNTER, correction.toUpdate(now),
+                FindAndModifyOptions.options().upsert(true).returnNew(true), TaskCounter.class);
+        if (corrected != null) {
+            // в дневную строку, как и при приёме событий, копируется текущее состояние счётчика
+            Update update = new Update().set("last_updated", now);
+            distributions(corrected).forEach(update::set);
+            mongoTemplate.updateFirst(new Query(Criteria.where("date").is(LocalDate.now())), update, TaskStatistics.class);
+        }
+    }
+
+    private static StatisticsDelta difference(Map<String, Map<String, Long>> actual,
+                                              Map<String, Map<String, Long>> accumulated) {
+        StatisticsDelta delta = new StatisticsDelta();
+        for (String field : SOURCE_FIELDS.keySet()) {
+            Map<String, Long> expected = actual.getOrDefault(field, Map.of());
+            Map<String, Long> current = accumulated.getOrDefault(field, Map.of());
+            Set<String> values = new HashSet<>(expected.keySet());
+            values.addAll(current.keySet());
+            for (String value : values) {
+                delta.add(field + '.' + value, expected.getOrDefault(value, 0L) - current.getOrDefault(value, 0L));
+            }
+        }
+        return delta;
+    }
+
+    private Map<String, Map<String, Long>> countActiveTasks() {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("is_deleted").is(false)),
+                Aggregation.facet(Aggregation.group(SOURCE_FIELDS.get(BY_CATEGORY)).count().as("count")).as(BY_CATEGORY)
+                        .and(Aggregation.group(SOURCE_FIELDS.get(BY_PRIORITY)).count().as("count")).as(BY_PRIORITY)
+                        .and(Aggregation.group(SOURCE_FIELDS.get(BY_STATUS)).count().as("count")).as(BY_STATUS)
+                        .and(Aggregation.group(SOURCE_FIELDS.get(BY_DEPARTMENT)).count().as("count")).as(BY_DEPARTMENT));
+        Document result = mongoTemplate.aggregate(aggregation, "task_documents", Document.class).getUniqueMappedResult();
+
+        Map<String, Map<String, Long>> distributions = new HashMap<>();
+        for (String field : SOURCE_FIELDS.keySet()) {
+            Map<String, Long> counts = new HashMap<>();
+            List<Document> groups = result != null ? result.getList(field, Document.class, List.of()) : List.of();
+            for (Document group : groups) {
+                Object key = group.get("_id");
+                if (key != null) {
+                    counts.put(key.toString(), ((Number) group.get("count")).longValue());
+                }
+            }
+            distributions.put(field, counts);
+        }
+        return distributions;
+    }
+}
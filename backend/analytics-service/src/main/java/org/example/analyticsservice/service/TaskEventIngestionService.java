@@ -0,0 +1,539 @@
+package org.example.analyticsservice.service;
+
+import com.mongodb.MongoException;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.example.analyticsservice.model.mongo.TaskCounter;
+import org.example.analyticsservice.model.mongo.TaskDocument;
+import org.example.analyticsservice.model.mongo.TaskStatistics;
+import org.example.analyticsservice.model.mongo.UserTaskCounter;
+import org.example.analyticsservice.model.mongo.UserTaskStatistics;
+import org.example.analyticsservice.repository.mongodb.TaskDocumentRepository;
+import org.example.events.enums.Department;
+import org.example.events.enums.TaskPriority;
+import org.example.events.enums.TaskStatus;
+import org.example.events.task.*;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.mongodb.MongoTransactionManager;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Применяет пачку событий задач: документы задач читаются одним запросом, события складываются
+ * в памяти в дельты дневной и пользовательской статистики, а затем каждая коллекция пишется
+ * одним BulkOperations. Число запросов к Mongo зависит от числа затронутых документов, а не событий.
+ * Вся пачка пишется в одной транзакции: документы задач служат признаком «событие уже применено»,
+ * поэтому сохранить их без счётчиков нельзя — повтор пачки после сбоя не восстановил бы дельты.
+ */
+@Slf4j
+@Service
+public class TaskEventIngestionService {
+
+    static final String TOTAL = "total_tasks";
+    static final String COMPLETED = "completed_tasks";
+    static final String IN_PROGRESS = "in_progress_tasks";
+    static final String PENDING = "pending_tasks";
+    static final String DELETED = "deleted_tasks";
+    static final String CREATED_TODAY = "created_tasks_today";
+    static final String COMPLETED_TODAY = "completed_tasks_today";
+    static final String DELETED_TODAY = "deleted_tasks_today";
+    static final String UPDATED_TODAY = "updated_tasks_today";
+    static final String COMPLETION_TIME_SUM = "completion_time_seconds_sum";
+    static final String COMPLETION_TIME_COUNT = "completion_time_count";
+    static final String COMPLETION_TIME_HISTOGRAM = "completion_time_histogram";
+
+    static final String BY_CATEGORY = "tasks_by_category";
+    static final String BY_PRIORITY = "tasks_by_priority";
+    static final String BY_STATUS = "tasks_by_status";
+    static final String BY_DEPARTMENT = "tasks_by_department";
+
+    static final Query GLOBAL_COUNTER = new Query(Criteria.where("_id").is("global"));
+
+    private static final Map<String, Map<String, Long>> EMPTY_DISTRIBUTIONS = Map.of(
+            BY_CATEGORY, Map.of(), BY_PRIORITY, Map.of(), BY_STATUS, Map.of(), BY_DEPARTMENT, Map.of());
+
+    /** Процент выполнения пересчитывается на сервере из уже применённых счётчиков, без чтения документа. */
+    private static final AggregationUpdate COMPLETION_PERCENTAGE = AggregationUpdate.from(List.of(context ->
+            new Document("$set", new Document("completion_percentage", new Document("$cond", List.of(
+                    new Document("$gt", List.of("$" + TOTAL, 0)),
+                    new Document("$multiply", List.of(new Document("$divide", List.of(new Document("$ifNull", List.of("$" + COMPLETED, 0)), "$" + TOTAL)), 100)),
+                    "$completion_percentage"))))));
+
+    /** Конфликт записи с параллельной пачкой (общий счётчик, строка дня) — транзакция повторяется сразу. */
+    private static final int MAX_TRANSACTION_ATTEMPTS = 5;
+
+    private final MongoTemplate mongoTemplate;
+    private final TaskDocumentRepository taskDocumentRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    public TaskEventIngestionService(MongoTemplate mongoTemplate, TaskDocumentRepository taskDocumentRepository,
+                                     ObjectProvider<MongoTransactionManager> transactionManager) {
+        this.mongoTemplate = mongoTemplate;
+        this.taskDocumentRepository = taskDocumentRepository;
+        MongoTransactionManager manager = transactionManager.getIfAvailable();
+        this.transactionTemplate = manager != null ? new TransactionTemplate(manager) : null;
+    }
+
+    /** Возвращает приращения счётчиков созданных и завершённых задач за пачку — для живой ленты. */
+    public Map<AnalyticsDataChangedEvent.Counter, Long> ingest(List<?> events) {
+        if (events.isEmpty()) {
+            return Map.of();
+        }
+        if (transactionTemplate == null) {
+            return apply(events);
+        }
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> apply(events));
+            } catch (RuntimeException ex) {
+                if (attempt >= MAX_TRANSACTION_ATTEMPTS || !isTransientTransactionError(ex)) {
+                    throw ex;
+                }
+                log.debug("Task batch transaction aborted ({}), retrying: attempt {}", ex.getMessage(), attempt + 1);
+            }
+        }
+    }
+
+    /** Метка TransientTransactionError гарантирует, что транзакция откатилась и её можно выполнить заново. */
+    private static boolean isTransientTransactionError(Throwable ex) {
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof MongoException mongoException
+                    && mongoException.hasErrorLabel(MongoException.TRANSIENT_TRANSACTION_ERROR_LABEL)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Map<AnalyticsDataChangedEvent.Counter, Long> apply(List<?> events) {
+        Set<String> taskIds = events.stream()
+                .map(TaskEventIngestionService::taskId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<String, TaskDocument> tasks = taskDocumentRepository.findByTaskIdIn(taskIds).stream()
+                .collect(Collectors.toMap(TaskDocument::getTaskId, Function.identity()));
+
+        Batch batch = new Batch(tasks);
+        for (Object event : events) {
+            switch (event) {
+                case TaskCreatedEvent e -> batch.created(e);
+                case TaskUpdatedEvent e -> batch.updated(e);
+                case TaskCompletedEvent e -> batch.completed(e);
+                case TaskDeletedEvent e -> batch.deleted(e);
+                case TaskStatusUpdatedEvent e -> batch.statusUpdated(e);
+                case TaskAssigneesUpdatedEvent e -> batch.assigneesUpdated(e);
+                default -> log.warn("Unsupported task event type: {}", event.getClass().getName());
+            }
+        }
+        flush(batch);
+        log.debug("Applied {} task events: {} tasks, {} users changed",
+                events.size(), batch.changedTasks.size(), batch.users.size());
+        return Map.of(
+                AnalyticsDataChangedEvent.Counter.CREATED_TASKS, batch.daily.get(CREATED_TODAY),
+                AnalyticsDataChangedEvent.Counter.COMPLETED_TASKS, batch.daily.get(COMPLETED_TODAY));
+    }
+
+    private void flush(Batch batch) {
+        if (batch.changedTasks.isEmpty()) {
+            return;
+        }
+        LocalDate today = LocalDate.now();
+        Instant now = Instant.now();
+
+        BulkOperations taskOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, TaskDocument.class);
+        for (TaskDocument task : batch.changedTasks.values()) {
+            task.setLastUpdated(now);
+            taskOps.replaceOne(new Query(Criteria.where("task_id").is(task.getTaskId())), task,
+                    FindAndReplaceOptions.options().upsert());
+        }
+        taskOps.execute();
+
+        // распределения накапливаются в глобальном счётчике, в дневную строку копируется их текущее состояние
+        Map<String, Map<String, Long>> distributions = null;
+        if (batch.createdTasks > 0 || !batch.distributions.isEmpty()) {
+            Update counterUpdate = batch.distributions.toUpdate(now);
+            if (batch.createdTasks > 0) {
+                counterUpdate.inc(TOTAL, batch.createdTasks);
+            }
+            TaskCounter counter = mongoTemplate.findAndModify(GLOBAL_COUNTER, counterUpdate,
+                    FindAndModifyOptions.options().upsert(true).returnNew(true), TaskCounter.class);
+            if (!batch.distributions.isEmpty() && counter != null) {
+                distributions = distributions(counter);
+            }
+        }
+
+        if (!batch.daily.isEmpty() || distributions != null) {
+            Update update = batch.daily.toUpdate(now);
+            if (distributions != null) {
+                distributions.forEach(update::set);
+            }
+            Query query = new Query(Criteria.where("date").is(today));
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.ORDERED, TaskStatistics.class)
+                    .upsert(query, update)
+                    .updateOne(query, COMPLETION_PERCENTAGE)
+                    .execute();
+        }
+
+        // распределения пользователя, как и общие, накапливаются в его счётчике user_task_counts
+        List<Map.Entry<String, StatisticsDelta>> userDistributions = batch.userDistributions.entrySet().stream()
+                .filter(entry -> !entry.getValue().isEmpty())
+                .toList();
+        if (!userDistributions.isEmpty()) {
+            BulkOperations counterOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, UserTaskCounter.class);
+            for (Map.Entry<String, StatisticsDelta> user : userDistributions) {
+                counterOps.upsert(new Query(Criteria.where("_id").is(user.getKey())), user.getValue().toUpdate(now));
+            }
+            counterOps.execute();
+        }
+
+        // счётчики пользователя — дельты за день: одна upsert-операция с $inc на пользователя,
+        // та же дельта прибавляется к недельной и месячной свёрткам; распределения в строку
+        // периода копируются снимком, так что последняя строка диапазона содержит их текущее состояние
+        Set<String> userIds = new LinkedHashSet<>();
+        batch.users.forEach((userId, delta) -> {
+            if (!delta.isEmpty()) {
+                userIds.add(userId);
+            }
+        });
+        userDistributions.forEach(user -> userIds.add(user.getKey()));
+        if (!userIds.isEmpty()) {
+            Map<String, Map<String, Map<String, Long>>> snapshots = new HashMap<>();
+            mongoTemplate.find(new Query(Criteria.where("_id").in(userIds)), UserTaskCounter.class)
+                    .forEach(counter -> snapshots.put(counter.getId(), distributions(counter)));
+            for (UserTaskRollups.Granularity granularity : UserTaskRollups.Granularity.values()) {
+                LocalDate periodStart = granularity.periodStart(today);
+                BulkOperations userOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.ORDERED,
+                        UserTaskStatistics.class, granularity.collection());
+                for (String userId : userIds) {
+                    Update update = batch.users.getOrDefault(userId, new StatisticsDelta()).toUpdate(now);
+                    snapshots.getOrDefault(userId, EMPTY_DISTRIBUTIONS).forEach(update::set);
+                    Query query = new Query(Criteria.where("user_id").is(userId).and("date").is(periodStart));
+                    userOps.upsert(query, update).updateOne(query, COMPLETION_PERCENTAGE);
+                }
+                userOps.execute();
+            }
+        }
+    }
+
+    /** Снимок накопленных распределений без обнулившихся ключей — в таком виде он попадает в дневную строку. */
+    static Map<String, Map<String, Long>> distributions(TaskCounter counter) {
+        return Map.of(
+                BY_CATEGORY, nonZero(counter.getTasksByCategory()),
+                BY_PRIORITY, nonZero(counter.getTasksByPriority()),
+                BY_STATUS, nonZero(counter.getTasksByStatus()),
+                BY_DEPARTMENT, nonZero(counter.getTasksByDepartment()));
+    }
+
+    static Map<String, Map<String, Long>> distributions(UserTaskCounter counter) {
+        return Map.of(
+                BY_CATEGORY, nonZero(counter.getTasksByCategory()),
+                BY_PRIORITY, nonZero(counter.getTasksByPriority()),
+                BY_STATUS, nonZero(counter.getTasksByStatus()),
+                BY_DEPARTMENT, nonZero(counter.getTasksByDepartment()));
+    }
+
+    private static Map<String, Long> nonZero(Map<String, Long> distribution) {
+        if (distribution == null) {
+            return Map.of();
+        }
+        return distribution.entrySet().stream()
+                .filter(entry -> entry.getValue() != null && entry.getValue() != 0)
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+    }
+
+    private static String taskId(Object event) {
+        return switch (event) {
+            case TaskCreatedEvent e -> e.id();
+            case TaskUpdatedEvent e -> e.id();
+            case TaskCompletedEvent e -> e.id();
+            case TaskDeletedEvent e -> e.id();
+            case TaskStatusUpdatedEvent e -> e.id();
+            case TaskAssigneesUpdatedEvent e -> e.id();
+            default -> null;
+        };
+    }
+
+    // Вспомогательный метод для извлечения категории из описания (для пирога)
+    static String extractCategory(String title, TaskPriority priority, Department department) {
+        if (title == null || title.isEmpty()) {
+            return "Без категории";
+        }
+
+        // Простая категоризация на основе ключевых слов в title
+        String lowerTitle = title.toLowerCase();
+
+        if (lowerTitle.contains("bug") || lowerTitle.contains("ошибка") || lowerTitle.contains("исправ")) {
+            return "Исправление ошибок";
+        } else if (lowerTitle.contains("feature") || lowerTitle.contains("функция") || lowerTitle.contains("новый")) {
+            return "Новые функции";
+        } else if (lowerTitle.contains("refactor") || lowerTitle.contains("рефактор")) {
+            return "Рефакторинг";
+        } else if (lowerTitle.contains("test") || lowerTitle.contains("тест")) {
+            return "Тестирование";
+        } else if (lowerTitle.contains("doc") || lowerTitle.contains("документ")) {
+            return "Документация";
+        } else if (priority == TaskPriority.HIGH) {
+            return "Срочные задачи";
+        } else {
+            return "Прочие задачи";
+        }
+    }
+
+    /**
+     * Состояние пачки: документы задач (прочитанные и созданные по ходу) и дельты счётчиков.
+     * События применяются к документам по порядку, поэтому «старый статус» берётся с учётом
+     * предыдущих событий той же пачки. Повторно доставленные события (создание известной задачи,
+     * завершение завершённой) счётчики не меняют.
+     */
+    private static final class Batch {
+        private final Map<String, TaskDocument> tasks;
+        private final Map<String, TaskDocument> changedTasks = new LinkedHashMap<>();
+        private final StatisticsDelta daily = new StatisticsDelta();
+        private final Map<String, StatisticsDelta> users = new LinkedHashMap<>();
+        private long createdTasks;
+        private final StatisticsDelta distributions = new StatisticsDelta();
+        private final Map<String, StatisticsDelta> userDistributions = new LinkedHashMap<>();
+
+        private Batch(Map<String, TaskDocument> tasks) {
+            this.tasks = new HashMap<>(tasks);
+        }
+
+        void created(TaskCreatedEvent event) {
+            TaskDocument task = tasks.get(event.id());
+            boolean known = task != null;
+            if (known) {
+                countDistributions(task, -1);
+            } else {
+                task = TaskDocument.builder()
+                        .taskId(event.id())
+                        .isCompleted(false)
+                        .isDeleted(false)
+                        .status(TaskStatus.AVAILABLE)
+                        .build();
+                tasks.put(event.id(), task);
+            }
+            task.setTitle(event.title());
+            task.setPriority(event.priority());
+            task.setDepartment(event.department());
+            task.setCreatorId(event.creatorId());
+            task.setAssigneeIds(event.assigneeIds());
+            task.setCreatedAt(event.createdAt());
+            task.setDueDate(event.dueDate());
+            task.setDescriptionCategory(extractCategory(event.title(), event.priority(), event.department()));
+            countDistributions(task, 1);
+            changed(task);
+            if (known) {
+                return;
+            }
+
+            daily.add(TOTAL, 1);
+            daily.add(CREATED_TODAY, 1);
+            daily.add(PENDING, 1);
+            createdTasks++;
+            if (event.creatorId() != null) {
+                user(event.creatorId()).add(TOTAL, 1);
+                user(event.creatorId()).add(PENDING, 1);
+            }
+            forEach(event.assigneeIds(), assigneeId -> {
+                user(assigneeId).add(TOTAL, 1);
+                user(assigneeId).add(PENDING, 1);
+            });
+        }
+
+        void updated(TaskUpdatedEvent event) {
+            TaskDocument task = tasks.get(event.id());
+            if (task == null) {
+                return;
+            }
+            countDistributions(task, -1);
+            task.setTitle(event.title());
+            task.setPriority(event.priority());
+            task.setDepartment(event.department());
+            task.setAssigneeIds(event.assigneeIds());
+            task.setUpdatedAt(event.timestamp());
+            task.setDescriptionCategory(extractCategory(event.title(), event.priority(), event.department()));
+            countDistributions(task, 1);
+            changed(task);
+            daily.add(UPDATED_TODAY, 1);
+        }
+
+        void completed(TaskCompletedEvent event) {
+            TaskDocument task = tasks.get(event.id());
+            if (task == null || task.getStatus() == TaskStatus.COMPLETED) {
+                return;
+            }
+            TaskStatus oldStatus = task.getStatus();
+            countDistributions(task, -1);
+            task.setIsCompleted(true);
+            task.setCompletedAt(event.completedAt());
+            task.setStatus(TaskStatus.COMPLETED);
+            countDistributions(task, 1);
+            changed(task);
+
+            leaveStatus(daily, oldStatus, false);
+            daily.add(COMPLETED, 1);
+            daily.add(COMPLETED_TODAY, 1);
+            completionTime(task);
+            forEach(event.assigneeIds(), assigneeId -> {
+                StatisticsDelta user = user(assigneeId);
+                user.add(COMPLETED, 1);
+                leaveStatus(user, oldStatus, false);
+            });
+        }
+
+        void deleted(TaskDeletedEvent event) {
+            TaskDocument task = tasks.get(event.id());
+            if (task == null || Boolean.TRUE.equals(task.getIsDeleted())) {
+                return;
+            }
+            countDistributions(task, -1);
+            task.setIsDeleted(true);
+            changed(task);
+
+            daily.add(DELETED, 1);
+            daily.add(DELETED_TODAY, 1);
+            if (task.getCreatorId() != null) {
+                user(task.getCreatorId()).add(DELETED, 1);
+                user(task.getCreatorId()).add(TOTAL, -1);
+            }
+            forEach(task.getAssigneeIds(), assigneeId -> {
+                user(assigneeId).add(DELETED, 1);
+                user(assigneeId).add(TOTAL, -1);
+            });
+        }
+
+        void statusUpdated(TaskStatusUpdatedEvent event) {
+            TaskDocument task = tasks.get(event.id());
+            if (task == null || task.getStatus() == event.status()) {
+                return;
+            }
+            TaskStatus oldStatus = task.getStatus();
+            TaskStatus newStatus = event.status();
+            countDistributions(task, -1);
+            task.setStatus(newStatus);
+            task.setUpdatedAt(event.updatedAt());
+            if (newStatus == TaskStatus.COMPLETED) {
+                task.setIsCompleted(true);
+                task.setCompletedAt(event.updatedAt());
+            }
+            countDistributions(task, 1);
+            changed(task);
+
+            // общая статистика не уменьшает completed: завершённая задача остаётся в истории выполненных
+            leaveStatus(daily, oldStatus, false);
+            enterStatus(daily, newStatus);
+            if (newStatus == TaskStatus.COMPLETED) {
+                daily.add(COMPLETED_TODAY, 1);
+                completionTime(task);
+            }
+            forEach(task.getAssigneeIds(), assigneeId -> {
+                StatisticsDelta user = user(assigneeId);
+                leaveStatus(user, oldStatus, true);
+                enterStatus(user, newStatus);
+            });
+        }
+
+        void assigneesUpdated(TaskAssigneesUpdatedEvent event) {
+            TaskDocument task = tasks.get(event.id());
+            if (task == null) {
+                return;
+            }
+            countDistributions(task, -1);
+            task.setAssigneeIds(event.assigneeIds());
+            task.setUpdatedAt(event.updatedAt());
+            countDistributions(task, 1);
+            changed(task);
+        }
+
+        /** Длительность выполнения попадает в дневную сумму, счётчик и гистограмму перцентилей. */
+        private void completionTime(TaskDocument task) {
+            if (task.getCreatedAt() == null || task.getCompletedAt() == null) {
+                return;
+            }
+            long seconds = Duration.between(task.getCreatedAt(), task.getCompletedAt()).toSeconds();
+            if (seconds <= 0) {
+                return;
+            }
+            daily.add(COMPLETION_TIME_SUM, seconds);
+            daily.add(COMPLETION_TIME_COUNT, 1);
+            daily.add(COMPLETION_TIME_HISTOGRAM + "." + QuantileSketch.index(seconds), 1);
+        }
+
+        private void changed(TaskDocument task) {
+            changedTasks.put(task.getTaskId(), task);
+        }
+
+        /**
+         * Вклад задачи в распределения по её текущим полям: вызывается с -1 до изменения и с +1 после,
+         * так что дельта содержит только реально сменившиеся значения. Задача входит в общие
+         * распределения и в распределения каждого своего исполнителя — смена исполнителей
+         * переносит её вклад от старых к новым. Удалённые задачи не учитываются.
+         */
+        private void countDistributions(TaskDocument task, long sign) {
+            if (Boolean.TRUE.equals(task.getIsDeleted())) {
+                return;
+            }
+            countDistributions(distributions, task, sign);
+            forEach(task.getAssigneeIds(), assigneeId -> countDistributions(
+                    userDistributions.computeIfAbsent(assigneeId, id -> new StatisticsDelta()), task, sign));
+        }
+
+        private static void countDistributions(StatisticsDelta delta, TaskDocument task, long sign) {
+            countDistribution(delta, BY_CATEGORY, task.getDescriptionCategory(), sign);
+            countDistribution(delta, BY_PRIORITY, task.getPriority() != null ? task.getPriority().name() : null, sign);
+            countDistribution(delta, BY_STATUS, task.getStatus() != null ? task.getStatus().name() : null, sign);
+            countDistribution(delta, BY_DEPARTMENT, task.getDepartment() != null ? task.getDepartment().name() : null, sign);
+        }
+
+        private static void countDistribution(StatisticsDelta delta, String field, String value, long sign) {
+            if (value != null) {
+                delta.add(field + '.' + value, sign);
+            }
+        }
+
+        private StatisticsDelta user(String userId) {
+            return users.computeIfAbsent(userId, id -> new StatisticsDelta());
+        }
+
+        private static void leaveStatus(StatisticsDelta delta, TaskStatus status, boolean includeCompleted) {
+            if (status == TaskStatus.IN_PROGRESS) {
+                delta.add(IN_PROGRESS, -1);
+            } else if (status == TaskStatus.AVAILABLE) {
+                delta.add(PENDING, -1);
+            } else if (status == TaskStatus.COMPLETED && includeCompleted) {
+                delta.add(COMPLETED, -1);
+            }
+        }
+
+        private static void enterStatus(StatisticsDelta delta, TaskStatus status) {
+            if (status == TaskStatus.COMPLETED) {
+                delta.add(COMPLETED, 1);
+            } else if (status == TaskStatus.IN_PROGRESS) {
+                delta.add(IN_PROGRESS, 1);
+            } else if (status == TaskStatus.AVAILABLE) {
+                delta.add(PENDING, 1);
+            }
+        }
+
+        private static void forEach(Set<String> userIds, java.util.function.Consumer<String> action) {
+            if (userIds != null) {
+                userIds.forEach(action);
+            }
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package org.example.analyticsservice.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.analyticsservice.model.mongo.AppliedOffset;
+import org.example.analyticsservice.model.mongo.UserCounter;
+import org.example.analyticsservice.model.mongo.UserStatistics;
+import org.example.events.user.LoginFailEvent;
+import org.example.events.user.UserCreatedEvent;
+import org.example.events.user.UserLoginEvent;
+import org.example.events.user.UserProfileUpdatedEvent;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Применяет пачку событий пользователей и входов так же, как пачку событий задач: приращения
+ * складываются в памяти и пишутся одним $inc в строку дня и, для регистраций, в общий счётчик.
+ * Вместе с ними в той же транзакции (с повтором при WriteConflict) сохраняется последний применённый
+ * офсет каждой партиции. У входа нет своего идентификатора, поэтому признаком «уже применено» служит
+ * офсет: пачка, повторно доставленная после сбоя или переназначения партиций, не считается дважды.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class UserEventIngestionService {
+
+    static final String NEW_USERS = "new_users_today";
+    static final String SUCCESSFUL_LOGINS = "successful_logins";
+    static final String FAILED_LOGINS = "failed_logins";
+    static final String TOTAL_USERS = "total_users";
+
+    private static final Query GLOBAL_COUNTER = new Query(Criteria.where("_id").is("global"));
+
+    private final MongoTemplate mongoTemplate;
+    private final MongoTransactions transactions;
+
+    /**
+     * Итог применённой части пачки. Активных пользователей учитывает вызывающий после фиксации:
+     * скетч в памяти не откатывается вместе с транзакцией, а повторный учёт имени его не меняет.
+     */
+    public record Applied(long successfulLogins, long failedLogins, List<String> activeUsers) {
+        static final Applied EMPTY = new Applied(0, 0, List.of());
+    }
+
+    public Applied ingest(List<ConsumedEvent> events) {
+        if (events.isEmpty()) {
+            return Applied.EMPTY;
+        }
+        return transactions.execute(() -> apply(events));
+    }
+
+    private Applied apply(List<ConsumedEvent> events) {
+        Set<String> partitions = events.stream().map(ConsumedEvent::partitionKey).collect(Collectors.toSet());
+        Map<String, Long> applied = mongoTemplate.find(new Query(Criteria.where("_id").in(partitions)), AppliedOffset.class)
+                .stream()
+                .collect(Collectors.toMap(AppliedOffset::getId, AppliedOffset::getOffset));
+
+        StatisticsDelta daily = new StatisticsDelta();
+        List<String> activeUsers = new ArrayList<>();
+        Map<String, Long> offsets = new HashMap<>();
+        int duplicates = 0;
+        for (ConsumedEvent consumed : events) {
+            offsets.merge(consumed.partitionKey(), consumed.offset(), Math::max);
+            if (consumed.offset() <= applied.getOrDefault(consumed.partitionKey(), -1L)) {
+                duplicates++;
+                continue;
+            }
+            switch (consumed.event()) {
+                case UserCreatedEvent e -> {
+                    daily.add(NEW_USERS, 1);
+                    activeUsers.add(e.username());
+                }
+                case UserLoginEvent e -> {
+                    daily.add(SUCCESSFUL_LOGINS, 1);
+                    activeUsers.add(e.username());
+                }
+                case LoginFailEvent e -> daily.add(FAILED_LOGINS, 1);
+                case UserProfileUpdatedEvent e -> log.debug("User profile updated: {}", e.id());
+                default -> log.warn("Unsupported user event type: {}", consumed.event().getClass().getSimpleName());
+            }
+        }
+        if (duplicates > 0) {
+            log.info("Skipped {} already applied user events", duplicates);
+        }
+
+        Instant now = Instant.now();
+        Update update = daily.toUpdate(now);
+        long registered = daily.get(NEW_USERS);
+        if (registered > 0) {
+            UserCounter counter = mongoTemplate.findAndModify(GLOBAL_COUNTER,
+                    new Update().inc(TOTAL_USERS, registered).set("last_updated", now),
+                    FindAndModifyOptions.options().upsert(true).returnNew(true), UserCounter.class);
+            if (counter != null) {
+                update.set(TOTAL_USERS, counter.getTotalUsers());
+            }
+        }
+        if (!daily.isEmpty()) {
+            mongoTemplate.upsert(new Query(Criteria.where("date").is(LocalDate.now())), update, UserStatistics.class);
+        }
+
+        BulkOperations offsetOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, AppliedOffset.class);
+        offsets.forEach((partition, offset) -> offsetOps.upsert(new Query(Criteria.where("_id").is(partition)),
+                new Update().max("offset", offset).set("last_updated", now)));
+        offsetOps.execute();
+
+        return new Applied(daily.get(SUCCESSFUL_LOGINS), daily.get(FAILED_LOGINS), activeUsers);
+    }
+}
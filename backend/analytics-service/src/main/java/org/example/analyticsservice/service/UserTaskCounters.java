@@ -0,0 +1,97 @@
+package org.example.analyticsservice.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.example.analyticsservice.model.mongo.UserTaskCounter;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.example.analyticsservice.service.TaskEventIngestionService.*;
+
+/**
+ * Накопительные распределения задач по исполнителям (user_task_counts). Их ведёт через $inc
+ * {@link TaskEventIngestionService}; здесь они один раз восстанавливаются из task_documents,
+ * если коллекция пуста (первый запуск, данные сидера).
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UserTaskCounters {
+
+    private static final int REBUILD_BATCH_SIZE = 1000;
+
+    private final MongoTemplate mongoTemplate;
+
+    public void rebuildIfMissing() {
+        if (mongoTemplate.estimatedCount(UserTaskCounter.class) == 0) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Группировка активных задач по (исполнитель, поле, значение) на стороне Mongo: каждая задача
+     * разворачивается по исполнителям и по четырём полям распределений, результат читается курсором.
+     */
+    public void rebuild() {
+        List<Document> pipeline = List.of(
+                new Document("$match", new Document("is_deleted", false)),
+                new Document("$unwind", "$assignee_ids"),
+                new Document("$project", new Document("user", "$assignee_ids")
+                        .append("pairs", List.of(
+                                pair(BY_CATEGORY, "$description_category"),
+                                pair(BY_PRIORITY, "$priority"),
+                                pair(BY_STATUS, "$status"),
+                                pair(BY_DEPARTMENT, "$department")))),
+                new Document("$unwind", "$pairs"),
+                new Document("$match", new Document("pairs.value", new Document("$ne", null))),
+                new Document("$group", new Document("_id", new Document("user", "$user")
+                        .append("field", "$pairs.field")
+                        .append("value", "$pairs.value"))
+                        .append("count", new Document("$sum", 1L))));
+
+        Instant now = Instant.now();
+        Map<String, UserTaskCounter> counters = new HashMap<>();
+        for (Document group : mongoTemplate.getCollection("task_documents").aggregate(pipeline).allowDiskUse(true)) {
+            Document id = group.get("_id", Document.class);
+            UserTaskCounter counter = counters.computeIfAbsent(id.getString("user"), user -> UserTaskCounter.builder()
+                    .id(user)
+                    .tasksByCategory(new HashMap<>())
+                    .tasksByPriority(new HashMap<>())
+                    .tasksByStatus(new HashMap<>())
+                    .tasksByDepartment(new HashMap<>())
+                    .lastUpdated(now)
+                    .build());
+            long count = ((Number) group.get("count")).longValue();
+            String value = id.get("value").toString();
+            switch (id.getString("field")) {
+                case BY_CATEGORY -> counter.getTasksByCategory().put(value, count);
+                case BY_PRIORITY -> counter.getTasksByPriority().put(value, count);
+                case BY_STATUS -> counter.getTasksByStatus().put(value, count);
+                case BY_DEPARTMENT -> counter.getTasksByDepartment().put(value, count);
+                default -> log.warn("Unexpected distribution field: {}", id.getString("field"));
+            }
+        }
+
+        mongoTemplate.remove(new Query(), UserTaskCounter.class);
+        List<UserTaskCounter> rows = new ArrayList<>(counters.values());
+        for (int from = 0; from < rows.size(); from += REBUILD_BATCH_SIZE) {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, UserTaskCounter.class)
+                    .insert(rows.subList(from, Math.min(rows.size(), from + REBUILD_BATCH_SIZE)))
+                    .execute();
+        }
+        log.info("Rebuilt task distributions of {} users from task_documents", rows.size());
+    }
+
+    private static Document pair(String field, String value) {
+        return new Document("field", field).append("value", value);
+    }
+}
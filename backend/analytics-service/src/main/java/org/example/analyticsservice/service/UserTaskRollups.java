@@ -0,0 +1,277 @@
+package org.example.analyticsservice.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.example.analyticsservice.model.mongo.UserTaskStatistics;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.ArithmeticOperators;
+import org.springframework.data.mongodb.core.aggregation.ComparisonOperators;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.aggregation.UnionWithOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Недельные и месячные свёртки user_task_statistics. Счётчики пользователя в строке — дельты за день,
+ * поэтому свёртка периода — та же строка с суммой дельт, ключ — (user_id, первый день периода); их
+ * ведёт {@link TaskEventIngestionService} тем же $inc, что и дневные строки. Распределения в строке —
+ * снимок из user_task_counts на момент последней записи, за диапазон берётся самый поздний.
+ * Диапазон раскладывается на целые месяцы, затем целые недели и оставшиеся дни, так что запрос
+ * за год читает около двух десятков строк на пользователя вместо 365.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UserTaskRollups {
+
+    private static final String[] COUNTERS = {
+            TaskEventIngestionService.TOTAL,
+            TaskEventIngestionService.COMPLETED,
+            TaskEventIngestionService.IN_PROGRESS,
+            TaskEventIngestionService.PENDING,
+            TaskEventIngestionService.DELETED};
+
+    private static final int REBUILD_BATCH_SIZE = 1000;
+
+    private final MongoTemplate mongoTemplate;
+
+    public enum Granularity {
+        DAY("user_task_statistics") {
+            LocalDate periodStart(LocalDate date) {
+                return date;
+            }
+
+            LocalDate nextPeriod(LocalDate periodStart) {
+                return periodStart.plusDays(1);
+            }
+        },
+        WEEK("user_task_statistics_weekly") {
+            LocalDate periodStart(LocalDate date) {
+                return date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            }
+
+            LocalDate nextPeriod(LocalDate periodStart) {
+                return periodStart.plusWeeks(1);
+            }
+        },
+        MONTH("user_task_statistics_monthly") {
+            LocalDate periodStart(LocalDate date) {
+                return date.withDayOfMonth(1);
+            }
+
+            LocalDate nextPeriod(LocalDate periodStart) {
+                return periodStart.plusMonths(1);
+            }
+        };
+
+        private final String collection;
+
+        Granularity(String collection) {
+            this.collection = collection;
+        }
+
+        public String collection() {
+            return collection;
+        }
+
+        abstract LocalDate periodStart(LocalDate date);
+
+        abstract LocalDate nextPeriod(LocalDate periodStart);
+
+        /** Период целиком внутри [date, end] и начинается ровно с date. */
+        boolean coversFrom(LocalDate date, LocalDate end) {
+            return periodStart(date).equals(date) && !nextPeriod(date).minusDays(1).isAfter(end);
+        }
+    }
+
+    /** Первые дни периодов, покрывающих [start, end] без пересечений: сначала месяцы, затем недели, затем дни. */
+    public static Map<Granularity, List<LocalDate>> decompose(LocalDate start, LocalDate end) {
+        Map<Granularity, List<LocalDate>> segments = new EnumMap<>(Granularity.class);
+        for (Granularity granularity : Granularity.values()) {
+            segments.put(granularity, new ArrayList<>());
+        }
+        LocalDate cursor = start;
+        while (!cursor.isAfter(end)) {
+            Granularity granularity = Granularity.MONTH.coversFrom(cursor, end) ? Granularity.MONTH
+                    : Granularity.WEEK.coversFrom(cursor, end) && !crossesCoveredMonth(cursor, end) ? Granularity.WEEK
+                    : Granularity.DAY;
+            segments.get(granularity).add(cursor);
+            cursor = granularity.nextPeriod(cursor);
+        }
+        return segments;
+    }
+
+    /** Неделя, заходящая в месяц, который целиком попадает в диапазон, сбила бы выравнивание на месяцы. */
+    private static boolean crossesCoveredMonth(LocalDate weekStart, LocalDate end) {
+        LocalDate nextMonth = Granularity.MONTH.nextPeriod(Granularity.MONTH.periodStart(weekStart));
+        return Granularity.WEEK.nextPeriod(weekStart).isAfter(nextMonth) && Granularity.MONTH.coversFrom(nextMonth, end);
+    }
+
+    /**
+     * Лучшие пользователи по проценту выполнения за диапазон: сумма дельт по сегментам и сортировка
+     * выполняются в Mongo одной агрегацией ($unionWith трёх коллекций, $group, $sort, $limit);
+     * распределения дочитываются только для попавших в выборку — из самого позднего сегмента.
+     */
+    public List<UserTaskStatistics> topUsers(LocalDate start, LocalDate end, int limit) {
+        Map<Granularity, List<LocalDate>> segments = decompose(start, end);
+
+        var group = Aggregation.group("user_id");
+        for (String counter : COUNTERS) {
+            group = group.sum(counter).as(counter);
+        }
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("date").in(segments.get(Granularity.DAY))),
+                UnionWithOperation.unionWith(Granularity.WEEK.collection())
+                        .pipeline(Aggregation.match(Criteria.where("date").in(segments.get(Granularity.WEEK)))),
+                UnionWithOperation.unionWith(Granularity.MONTH.collection())
+                        .pipeline(Aggregation.match(Criteria.where("date").in(segments.get(Granularity.MONTH)))),
+                group,
+                Aggregation.addFields().addFieldWithValue("completion_percentage", ConditionalOperators
+                        .when(ComparisonOperators.Gt.valueOf(TaskEventIngestionService.TOTAL).greaterThanValue(0))
+                        .then(ArithmeticOperators.Multiply.valueOf(
+                                        ArithmeticOperators.Divide.valueOf(TaskEventIngestionService.COMPLETED)
+                                                .divideBy(TaskEventIngestionService.TOTAL))
+                                .multiplyBy(100))
+                        .otherwise(0.0)).build(),
+                Aggregation.sort(Sort.by(Sort.Direction.DESC, "completion_percentage", TaskEventIngestionService.COMPLETED)
+                        .and(Sort.by(Sort.Direction.ASC, "_id"))),
+                Aggregation.limit(limit));
+
+        Map<String, UserTaskStatistics> top = new LinkedHashMap<>();
+        for (Document row : mongoTemplate.aggregate(aggregation, Granularity.DAY.collection(), Document.class)) {
+            String userId = row.getString("_id");
+            top.put(userId, UserTaskStatistics.builder()
+                    .userId(userId)
+                    .totalTasks(longValue(row, TaskEventIngestionService.TOTAL))
+                    .completedTasks(longValue(row, TaskEventIngestionService.COMPLETED))
+                    .inProgressTasks(longValue(row, TaskEventIngestionService.IN_PROGRESS))
+                    .pendingTasks(longValue(row, TaskEventIngestionService.PENDING))
+                    .deletedTasks(longValue(row, TaskEventIngestionService.DELETED))
+                    .completionPercentage(((Number) row.get("completion_percentage")).doubleValue())
+                    .tasksByCategory(new HashMap<>())
+                    .tasksByPriority(new HashMap<>())
+                    .tasksByStatus(new HashMap<>())
+                    .tasksByDepartment(new HashMap<>())
+                    .build());
+        }
+        if (top.isEmpty()) {
+            return List.of();
+        }
+
+        Map<String, LocalDate> latestEnd = new HashMap<>();
+        segments.forEach((granularity, periodStarts) -> {
+            if (periodStarts.isEmpty()) {
+                return;
+            }
+            for (UserTaskStatistics row : mongoTemplate.find(new Query(Criteria.where("user_id").in(top.keySet())
+                    .and("date").in(periodStarts)), UserTaskStatistics.class, granularity.collection())) {
+                LocalDate periodEnd = granularity.nextPeriod(row.getDate());
+                LocalDate seen = latestEnd.get(row.getUserId());
+                if (seen == null || periodEnd.isAfter(seen)) {
+                    latestEnd.put(row.getUserId(), periodEnd);
+                    copyDistributions(top.get(row.getUserId()), row);
+                }
+            }
+        });
+        return new ArrayList<>(top.values());
+    }
+
+    /** Свёртки строятся заново из дневных строк, если их ещё нет (первый запуск, данные сидера). */
+    public void rebuildIfMissing() {
+        if (!mongoTemplate.collectionExists(Granularity.WEEK.collection())
+                || mongoTemplate.estimatedCount(Granularity.WEEK.collection()) == 0) {
+            rebuild();
+        }
+    }
+
+    public void rebuild() {
+        Map<Granularity, Map<List<Object>, UserTaskStatistics>> rollups = new EnumMap<>(Granularity.class);
+        rollups.put(Granularity.WEEK, new HashMap<>());
+        rollups.put(Granularity.MONTH, new HashMap<>());
+        // день, из которого взят снимок распределений свёртки: берётся самый поздний в периоде
+        Map<List<Object>, LocalDate> snapshotDates = new HashMap<>();
+        try (Stream<UserTaskStatistics> daily = mongoTemplate.stream(new Query(), UserTaskStatistics.class)) {
+            daily.filter(row -> row.getUserId() != null && row.getDate() != null).forEach(row ->
+                    rollups.forEach((granularity, periods) -> {
+                        LocalDate periodStart = granularity.periodStart(row.getDate());
+                        List<Object> key = List.of(granularity, row.getUserId(), periodStart);
+                        UserTaskStatistics rollup = periods.computeIfAbsent(key,
+                                periodKey -> UserTaskStatistics.builder()
+                                        .userId(row.getUserId())
+                                        .date(periodStart)
+                                        .tasksByCategory(new HashMap<>())
+                                        .tasksByPriority(new HashMap<>())
+                                        .tasksByStatus(new HashMap<>())
+                                        .tasksByDepartment(new HashMap<>())
+                                        .build());
+                        accumulate(rollup, row);
+                        LocalDate snapshotDate = snapshotDates.get(key);
+                        if (snapshotDate == null || row.getDate().isAfter(snapshotDate)) {
+                            snapshotDates.put(key, row.getDate());
+                            copyDistributions(rollup, row);
+                        }
+                    }));
+        }
+
+        Instant now = Instant.now();
+        rollups.forEach((granularity, periods) -> {
+            List<UserTaskStatistics> rows = new ArrayList<>(periods.values());
+            for (int from = 0; from < rows.size(); from += REBUILD_BATCH_SIZE) {
+                BulkOperations ops = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED,
+                        UserTaskStatistics.class, granularity.collection());
+                for (UserTaskStatistics rollup : rows.subList(from, Math.min(rows.size(), from + REBUILD_BATCH_SIZE))) {
+                    long total = rollup.getTotalTasks();
+                    rollup.setCompletionPercentage(total > 0 ? rollup.getCompletedTasks() * 100.0 / total : 0.0);
+                    rollup.setLastUpdated(now);
+                    ops.replaceOne(new Query(Criteria.where("user_id").is(rollup.getUserId()).and("date").is(rollup.getDate())),
+                            rollup, FindAndReplaceOptions.options().upsert());
+                }
+                ops.execute();
+            }
+            log.info("Rebuilt {} {} rollups of user task statistics", rows.size(), granularity.name().toLowerCase());
+        });
+    }
+
+    private static void accumulate(UserTaskStatistics rollup, UserTaskStatistics row) {
+        add(rollup::getTotalTasks, rollup::setTotalTasks, row.getTotalTasks());
+        add(rollup::getCompletedTasks, rollup::setCompletedTasks, row.getCompletedTasks());
+        add(rollup::getInProgressTasks, rollup::setInProgressTasks, row.getInProgressTasks());
+        add(rollup::getPendingTasks, rollup::setPendingTasks, row.getPendingTasks());
+        add(rollup::getDeletedTasks, rollup::setDeletedTasks, row.getDeletedTasks());
+    }
+
+    private static void copyDistributions(UserTaskStatistics target, UserTaskStatistics row) {
+        target.setTasksByCategory(copy(row.getTasksByCategory()));
+        target.setTasksByPriority(copy(row.getTasksByPriority()));
+        target.setTasksByStatus(copy(row.getTasksByStatus()));
+        target.setTasksByDepartment(copy(row.getTasksByDepartment()));
+    }
+
+    private static void add(Supplier<Long> getter, Consumer<Long> setter, Long delta) {
+        setter.accept((getter.get() != null ? getter.get() : 0L) + (delta != null ? delta : 0L));
+    }
+
+    private static Map<String, Long> copy(Map<String, Long> source) {
+        return source != null ? new HashMap<>(source) : new HashMap<>();
+    }
+
+    private static long longValue(Document row, String field) {
+        Object value = row.get(field);
+        return value instanceof Number number ? number.longValue() : 0L;
+    }
+}
@@ -0,0 +1,94 @@
+package org.example.analyticsservice.unit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.analyticsservice.config.AnalyticsCacheProperties;
+import org.example.analyticsservice.dto.TaskSummaryDto;
+import org.example.analyticsservice.service.AnalyticsDataChangedEvent;
+import org.example.analyticsservice.service.AnalyticsDataChangedEvent.Dataset;
+import org.example.analyticsservice.service.AnalyticsQueryCache;
+import org.example.analyticsservice.service.AnalyticsService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class AnalyticsQueryCacheTests {
+
+    private static final LocalDate START = LocalDate.of(2024, 3, 1);
+    private static final LocalDate END = LocalDate.of(2024, 3, 31);
+
+    private AnalyticsService analyticsService;
+    private AnalyticsQueryCache cache;
+    private TaskSummaryDto before;
+    private TaskSummaryDto after;
+
+    @BeforeEach
+    void setUp() {
+        analyticsService = mock(AnalyticsService.class);
+        cache = new AnalyticsQueryCache(analyticsService, new AnalyticsCacheProperties(), new SimpleMeterRegistry());
+        before = mock(TaskSummaryDto.class);
+        after = mock(TaskSummaryDto.class);
+    }
+
+    @Test
+    void get_ChangeInRange_ServesCachedOnceThenRecomputed() {
+        when(analyticsService.getTaskSummary(START, END)).thenReturn(before, after);
+        cache.getTaskSummary(START, END);
+
+        cache.onDataChanged(changed(Dataset.TASKS, LocalDate.of(2024, 3, 15)));
+
+        assertSame(before, cache.getTaskSummary(START, END));
+        assertSame(after, awaitRefreshed());
+        verify(analyticsService, times(2)).getTaskSummary(START, END);
+    }
+
+    @Test
+    void get_ChangeOutsideRangeOrOtherDataset_KeepsCachedResponse() {
+        when(analyticsService.getTaskSummary(START, END)).thenReturn(before, after);
+        cache.getTaskSummary(START, END);
+
+        cache.onDataChanged(changed(Dataset.TASKS, LocalDate.of(2024, 4, 1)));
+        cache.onDataChanged(changed(Dataset.LOGINS, LocalDate.of(2024, 3, 15)));
+
+        assertSame(before, cache.getTaskSummary(START, END));
+        verify(analyticsService, after(100).times(1)).getTaskSummary(START, END);
+    }
+
+    @Test
+    void get_ChangeWhileFirstLoadInFlight_IsNotLost() {
+        // запись событий завершилась, пока шёл первый расчёт: ключа в кэше ещё нет
+        when(analyticsService.getTaskSummary(START, END)).thenAnswer(invocation -> {
+            cache.onDataChanged(changed(Dataset.TASKS, LocalDate.of(2024, 3, 15)));
+            return before;
+        }).thenReturn(after);
+
+        assertSame(before, cache.getTaskSummary(START, END));
+
+        assertSame(before, cache.getTaskSummary(START, END));
+        assertSame(after, awaitRefreshed());
+        verify(analyticsService, times(2)).getTaskSummary(START, END);
+    }
+
+    /** Пересчёт идёт в фоне: ждём, пока новый ответ окажется в кэше. */
+    private TaskSummaryDto awaitRefreshed() {
+        TaskSummaryDto value = cache.getTaskSummary(START, END);
+        for (int i = 0; i < 100 && value != after; i++) {
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            value = cache.getTaskSummary(START, END);
+        }
+        return value;
+    }
+
+    private static AnalyticsDataChangedEvent changed(Dataset dataset, LocalDate date) {
+        return new AnalyticsDataChangedEvent(dataset, date, Map.of());
+    }
+}
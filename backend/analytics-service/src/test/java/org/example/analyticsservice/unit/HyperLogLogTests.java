@@ -0,0 +1,63 @@
+package org.example.analyticsservice.unit;
+
+import org.example.analyticsservice.service.HyperLogLog;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HyperLogLogTests {
+
+    @Test
+    void estimate_SmallCardinality_IsNearlyExact() {
+        HyperLogLog sketch = new HyperLogLog();
+        for (int i = 0; i < 500; i++) {
+            sketch.add("user-" + i);
+            sketch.add("user-" + i);
+        }
+
+        assertEquals(500, sketch.estimate(), 5);
+    }
+
+    @Test
+    void estimate_LargeCardinality_WithinThreePercent() {
+        HyperLogLog sketch = new HyperLogLog();
+        for (int i = 0; i < 200_000; i++) {
+            sketch.add("user-" + i);
+        }
+
+        assertEquals(200_000, sketch.estimate(), 6_000);
+    }
+
+    @Test
+    void merge_OverlappingSketches_CountsUnion() {
+        HyperLogLog first = new HyperLogLog();
+        HyperLogLog second = new HyperLogLog();
+        for (int i = 0; i < 30_000; i++) {
+            first.add("user-" + i);
+            second.add("user-" + (i + 20_000));
+        }
+
+        first.merge(second);
+
+        assertEquals(50_000, first.estimate(), 1_500);
+    }
+
+    @Test
+    void merge_SameSketchTwice_IsIdempotent() {
+        HyperLogLog sketch = new HyperLogLog();
+        for (int i = 0; i < 1_000; i++) {
+            sketch.add("user-" + i);
+        }
+        HyperLogLog merged = sketch.copy();
+
+        merged.merge(sketch);
+        merged.merge(HyperLogLog.fromRegisters(sketch.toRegisters()));
+
+        assertEquals(sketch, merged);
+    }
+
+    @Test
+    void fromRegisters_WrongLength_Throws() {
+        assertThrows(IllegalArgumentException.class, () -> HyperLogLog.fromRegisters(new byte[16]));
+    }
+}
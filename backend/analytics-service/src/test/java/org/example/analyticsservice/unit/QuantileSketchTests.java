@@ -0,0 +1,48 @@
+package org.example.analyticsservice.unit;
+
+import org.example.analyticsservice.service.QuantileSketch;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QuantileSketchTests {
+
+    @Test
+    void quantile_UniformValues_WithinRelativeAccuracy() {
+        QuantileSketch sketch = new QuantileSketch();
+        for (int seconds = 1; seconds <= 100_000; seconds++) {
+            sketch.add(seconds);
+        }
+
+        assertEquals(50_000, sketch.quantile(0.5), 50_000 * QuantileSketch.RELATIVE_ACCURACY);
+        assertEquals(90_000, sketch.quantile(0.9), 90_000 * QuantileSketch.RELATIVE_ACCURACY);
+    }
+
+    @Test
+    void merge_DailyHistograms_EqualsSingleSketch() {
+        QuantileSketch whole = new QuantileSketch();
+        Map<String, Long> monday = new TreeMap<>();
+        Map<String, Long> tuesday = new TreeMap<>();
+        for (int hours = 1; hours <= 200; hours++) {
+            double seconds = hours * 3600.0;
+            whole.add(seconds);
+            (hours % 2 == 0 ? monday : tuesday).merge(String.valueOf(QuantileSketch.index(seconds)), 1L, Long::sum);
+        }
+
+        QuantileSketch merged = new QuantileSketch();
+        merged.merge(monday);
+        merged.merge(tuesday);
+
+        assertEquals(whole.count(), merged.count());
+        assertEquals(whole.quantile(0.5), merged.quantile(0.5));
+        assertEquals(whole.quantile(0.9), merged.quantile(0.9));
+    }
+
+    @Test
+    void quantile_Empty_IsZero() {
+        assertEquals(0.0, new QuantileSketch().quantile(0.5));
+    }
+}
@@ -0,0 +1,83 @@
+package org.example.analyticsservice.unit;
+
+import org.bson.Document;
+import org.example.analyticsservice.model.mongo.TaskCounter;
+import org.example.analyticsservice.model.mongo.TaskStatistics;
+import org.example.analyticsservice.service.MongoTransactions;
+import org.example.analyticsservice.service.TaskDistributionReconciler;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class TaskDistributionReconcilerTests {
+
+    private MongoTemplate mongoTemplate;
+    private TaskDistributionReconciler reconciler;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        mongoTemplate = mock(MongoTemplate.class);
+        reconciler = new TaskDistributionReconciler(mongoTemplate, new MongoTransactions(mock(ObjectProvider.class)));
+    }
+
+    @Test
+    void reconcile_Drifted_IncrementsByDifferenceInsteadOfOverwriting() {
+        // в task_documents: HIGH=3, LOW=1; в счётчике: HIGH=5, MEDIUM=2
+        countedTasks(new Document("tasks_by_priority", List.of(
+                new Document("_id", "HIGH").append("count", 3),
+                new Document("_id", "LOW").append("count", 1))));
+        when(mongoTemplate.findOne(any(Query.class), eq(TaskCounter.class))).thenReturn(TaskCounter.builder()
+                .tasksByPriority(Map.of("HIGH", 5L, "MEDIUM", 2L))
+                .build());
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(), eq(TaskCounter.class)))
+                .thenReturn(TaskCounter.builder().tasksByPriority(Map.of("HIGH", 3L, "MEDIUM", 0L, "LOW", 1L)).build());
+
+        reconciler.reconcile();
+
+        ArgumentCaptor<Update> counterUpdate = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).findAndModify(any(Query.class), counterUpdate.capture(), any(), eq(TaskCounter.class));
+        Document counter = counterUpdate.getValue().getUpdateObject();
+        assertNull(counter.get("$set", Document.class).get("tasks_by_priority"));
+        assertEquals(Map.of("tasks_by_priority.HIGH", -2L, "tasks_by_priority.MEDIUM", -2L, "tasks_by_priority.LOW", 1L),
+                new HashMap<>(counter.get("$inc", Document.class)));
+
+        ArgumentCaptor<Update> dailyUpdate = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateFirst(any(Query.class), dailyUpdate.capture(), eq(TaskStatistics.class));
+        assertEquals(Map.of("HIGH", 3L, "LOW", 1L),
+                dailyUpdate.getValue().getUpdateObject().get("$set", Document.class).get("tasks_by_priority"));
+    }
+
+    @Test
+    void reconcile_Consistent_WritesNothing() {
+        countedTasks(new Document("tasks_by_status", List.of(new Document("_id", "DONE").append("count", 2))));
+        when(mongoTemplate.findOne(any(Query.class), eq(TaskCounter.class))).thenReturn(TaskCounter.builder()
+                .tasksByStatus(Map.of("DONE", 2L, "TODO", 0L))
+                .build());
+
+        reconciler.reconcile();
+
+        verify(mongoTemplate, never()).findAndModify(any(Query.class), any(Update.class), any(), eq(TaskCounter.class));
+        verify(mongoTemplate, never()).updateFirst(any(Query.class), any(Update.class), eq(TaskStatistics.class));
+    }
+
+    private void countedTasks(Document facets) {
+        when(mongoTemplate.aggregate(any(Aggregation.class), eq("task_documents"), eq(Document.class)))
+                .thenReturn(new AggregationResults<>(List.of(facets), new Document()));
+    }
+}
@@ -0,0 +1,197 @@
+package org.example.analyticsservice.unit;
+
+import org.bson.Document;
+import org.example.analyticsservice.model.mongo.TaskCounter;
+import org.example.analyticsservice.model.mongo.TaskDocument;
+import org.example.analyticsservice.model.mongo.TaskStatistics;
+import org.example.analyticsservice.model.mongo.UserTaskCounter;
+import org.example.analyticsservice.model.mongo.UserTaskStatistics;
+import org.example.analyticsservice.repository.mongodb.TaskDocumentRepository;
+import org.example.analyticsservice.service.AnalyticsDataChangedEvent.Counter;
+import org.example.analyticsservice.service.QuantileSketch;
+import org.example.analyticsservice.service.TaskEventIngestionService;
+import org.example.events.enums.Department;
+import org.example.events.enums.TaskPriority;
+import org.example.events.enums.TaskStatus;
+import org.example.events.task.TaskCompletedEvent;
+import org.example.events.task.TaskCreatedEvent;
+import org.example.events.task.TaskStatusUpdatedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.mongodb.MongoTransactionManager;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class TaskEventIngestionServiceTests {
+
+    private static final String TASK_ID = "task-1";
+    private static final Instant CREATED_AT = Instant.parse("2024-03-04T09:00:00Z");
+
+    private MongoTemplate mongoTemplate;
+    private TaskDocumentRepository taskDocumentRepository;
+    private BulkOperations taskOps;
+    private BulkOperations statisticsOps;
+    private BulkOperations userOps;
+    private BulkOperations userCounterOps;
+    private TaskEventIngestionService service;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        mongoTemplate = mock(MongoTemplate.class);
+        taskDocumentRepository = mock(TaskDocumentRepository.class);
+        taskOps = mock(BulkOperations.class, RETURNS_SELF);
+        statisticsOps = mock(BulkOperations.class, RETURNS_SELF);
+        userOps = mock(BulkOperations.class, RETURNS_SELF);
+        userCounterOps = mock(BulkOperations.class, RETURNS_SELF);
+        when(mongoTemplate.bulkOps(any(BulkOperations.BulkMode.class), eq(TaskDocument.class))).thenReturn(taskOps);
+        when(mongoTemplate.bulkOps(any(BulkOperations.BulkMode.class), eq(TaskStatistics.class))).thenReturn(statisticsOps);
+        when(mongoTemplate.bulkOps(any(BulkOperations.BulkMode.class), eq(UserTaskStatistics.class), anyString())).thenReturn(userOps);
+        when(mongoTemplate.bulkOps(any(BulkOperations.BulkMode.class), eq(UserTaskCounter.class))).thenReturn(userCounterOps);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(), eq(TaskCounter.class)))
+                .thenReturn(new TaskCounter());
+
+        ObjectProvider<MongoTransactionManager> noTransactions = mock(ObjectProvider.class);
+        service = new TaskEventIngestionService(mongoTemplate, taskDocumentRepository, noTransactions);
+    }
+
+    @Test
+    void ingest_CreateStatusChangeComplete_FoldsIntoNetDeltas() {
+        when(taskDocumentRepository.findByTaskIdIn(any())).thenReturn(List.of());
+        // состояние счётчика bob после $inc этой пачки
+        when(mongoTemplate.find(any(Query.class), eq(UserTaskCounter.class))).thenReturn(List.of(UserTaskCounter.builder()
+                .id("bob")
+                .tasksByStatus(Map.of("COMPLETED", 1L, "AVAILABLE", 0L))
+                .tasksByPriority(Map.of("HIGH", 1L))
+                .build()));
+        Instant completedAt = CREATED_AT.plus(Duration.ofHours(2));
+
+        Map<Counter, Long> deltas = service.ingest(List.of(
+                new TaskCreatedEvent(TASK_ID, "Fix login bug", TaskPriority.HIGH, Set.of("bob"), "alice",
+                        Department.IT, CREATED_AT, null, CREATED_AT),
+                new TaskStatusUpdatedEvent(TASK_ID, "Fix login bug", "bob", TaskStatus.IN_PROGRESS,
+                        Department.IT, CREATED_AT.plusSeconds(60), CREATED_AT.plusSeconds(60)),
+                new TaskCompletedEvent(TASK_ID, "alice", "Fix login bug", Set.of("bob"),
+                        Department.IT, completedAt, completedAt)));
+
+        assertEquals(Map.of(Counter.CREATED_TASKS, 1L, Counter.COMPLETED_TASKS, 1L), deltas);
+
+        ArgumentCaptor<TaskDocument> task = ArgumentCaptor.forClass(TaskDocument.class);
+        verify(taskOps).replaceOne(any(Query.class), task.capture(), any(FindAndReplaceOptions.class));
+        assertEquals(TaskStatus.COMPLETED, task.getValue().getStatus());
+        assertTrue(task.getValue().getIsCompleted());
+        assertEquals(completedAt, task.getValue().getCompletedAt());
+
+        // промежуточные статусы взаимно сокращаются: pending и in_progress в $inc не попадают
+        ArgumentCaptor<Update> daily = ArgumentCaptor.forClass(Update.class);
+        verify(statisticsOps).upsert(any(Query.class), daily.capture());
+        assertEquals(Map.of(
+                "total_tasks", 1L,
+                "created_tasks_today", 1L,
+                "completed_tasks", 1L,
+                "completed_tasks_today", 1L,
+                "completion_time_seconds_sum", 7200L,
+                "completion_time_count", 1L,
+                "completion_time_histogram." + QuantileSketch.index(7200), 1L),
+                increments(daily.getValue()));
+
+        ArgumentCaptor<Update> counter = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).findAndModify(any(Query.class), counter.capture(), any(), eq(TaskCounter.class));
+        Map<String, Long> counterIncrements = increments(counter.getValue());
+        assertEquals(1L, counterIncrements.get("total_tasks"));
+        assertEquals(1L, counterIncrements.get("tasks_by_status.COMPLETED"));
+        assertFalse(counterIncrements.containsKey("tasks_by_status.AVAILABLE"));
+        assertFalse(counterIncrements.containsKey("tasks_by_status.IN_PROGRESS"));
+
+        ArgumentCaptor<Update> userCounter = ArgumentCaptor.forClass(Update.class);
+        verify(userCounterOps).upsert(any(Query.class), userCounter.capture());
+        Map<String, Long> userCounterIncrements = increments(userCounter.getValue());
+        assertEquals(1L, userCounterIncrements.get("tasks_by_status.COMPLETED"));
+        assertFalse(userCounterIncrements.containsKey("tasks_by_status.AVAILABLE"));
+
+        // в строках пользователя счётчики — дельты, распределения — снимок счётчика без нулей
+        Map<String, Update> users = userUpdates();
+        assertEquals(Map.of("total_tasks", 1L, "completed_tasks", 1L), increments(users.get("bob")));
+        assertEquals(Map.of("COMPLETED", 1L), sets(users.get("bob")).get("tasks_by_status"));
+        assertEquals(Map.of("HIGH", 1L), sets(users.get("bob")).get("tasks_by_priority"));
+        assertEquals(Map.of("total_tasks", 1L, "pending_tasks", 1L), increments(users.get("alice")));
+        assertEquals(Map.of(), sets(users.get("alice")).get("tasks_by_status"));
+    }
+
+    @Test
+    void ingest_RedeliveredEventsForAppliedTask_WritesNoCounters() {
+        TaskDocument applied = TaskDocument.builder()
+                .taskId(TASK_ID)
+                .title("Fix login bug")
+                .priority(TaskPriority.HIGH)
+                .department(Department.IT)
+                .creatorId("alice")
+                .assigneeIds(Set.of("bob"))
+                .status(TaskStatus.COMPLETED)
+                .isCompleted(true)
+                .isDeleted(false)
+                .createdAt(CREATED_AT)
+                .completedAt(CREATED_AT.plus(Duration.ofHours(2)))
+                .descriptionCategory("Исправление ошибок")
+                .build();
+        when(taskDocumentRepository.findByTaskIdIn(any())).thenReturn(List.of(applied));
+
+        Map<Counter, Long> deltas = service.ingest(List.of(
+                new TaskStatusUpdatedEvent(TASK_ID, "Fix login bug", "bob", TaskStatus.COMPLETED,
+                        Department.IT, CREATED_AT, CREATED_AT),
+                new TaskCompletedEvent(TASK_ID, "alice", "Fix login bug", Set.of("bob"),
+                        Department.IT, CREATED_AT, CREATED_AT)));
+
+        assertEquals(Map.of(Counter.CREATED_TASKS, 0L, Counter.COMPLETED_TASKS, 0L), deltas);
+        verifyNoInteractions(statisticsOps, userOps, userCounterOps);
+        verify(mongoTemplate, never()).findAndModify(any(Query.class), any(Update.class), any(), eq(TaskCounter.class));
+    }
+
+    private Map<String, Update> userUpdates() {
+        ArgumentCaptor<Query> queries = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+        // дневная, недельная и месячная строки получают одно и то же обновление
+        verify(userOps, times(6)).upsert(queries.capture(), updates.capture());
+        Map<String, Update> users = new HashMap<>();
+        for (int i = 0; i < queries.getAllValues().size(); i++) {
+            String userId = queries.getAllValues().get(i).getQueryObject().getString("user_id");
+            Update update = updates.getAllValues().get(i);
+            Update previous = users.putIfAbsent(userId, update);
+            if (previous != null) {
+                assertEquals(increments(previous), increments(update));
+            }
+        }
+        return users;
+    }
+
+    private static Map<String, Long> increments(Update update) {
+        Document inc = (Document) update.getUpdateObject().get("$inc");
+        Map<String, Long> increments = new HashMap<>();
+        if (inc != null) {
+            inc.forEach((field, value) -> increments.put(field, ((Number) value).longValue()));
+        }
+        return increments;
+    }
+
+    private static Document sets(Update update) {
+        return (Document) update.getUpdateObject().get("$set");
+    }
+}
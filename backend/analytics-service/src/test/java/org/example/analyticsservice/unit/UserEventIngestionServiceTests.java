@@ -0,0 +1,126 @@
+package org.example.analyticsservice.unit;
+
+import org.bson.Document;
+import org.example.analyticsservice.model.mongo.AppliedOffset;
+import org.example.analyticsservice.model.mongo.UserCounter;
+import org.example.analyticsservice.model.mongo.UserStatistics;
+import org.example.analyticsservice.service.ConsumedEvent;
+import org.example.analyticsservice.service.MongoTransactions;
+import org.example.analyticsservice.service.UserEventIngestionService;
+import org.example.events.user.LoginFailEvent;
+import org.example.events.user.UserCreatedEvent;
+import org.example.events.user.UserLoginEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class UserEventIngestionServiceTests {
+
+    private static final String LOGINS = "user-login-success";
+
+    private MongoTemplate mongoTemplate;
+    private BulkOperations offsetOps;
+    private UserEventIngestionService service;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        mongoTemplate = mock(MongoTemplate.class);
+        offsetOps = mock(BulkOperations.class, RETURNS_SELF);
+        when(mongoTemplate.bulkOps(any(BulkOperations.BulkMode.class), eq(AppliedOffset.class))).thenReturn(offsetOps);
+        service = new UserEventIngestionService(mongoTemplate, new MongoTransactions(mock(ObjectProvider.class)));
+    }
+
+    @Test
+    void ingest_Batch_WritesOneIncrementAndStoresOffsets() {
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(), eq(UserCounter.class)))
+                .thenReturn(UserCounter.builder().totalUsers(42L).build());
+
+        UserEventIngestionService.Applied applied = service.ingest(List.of(
+                consumed("user-registered", 7, registered("carol")),
+                consumed(LOGINS, 10, login("alice")),
+                consumed(LOGINS, 11, login("bob")),
+                consumed("user-login-failed", 3, loginFailed("bob"))));
+
+        assertEquals(2, applied.successfulLogins());
+        assertEquals(1, applied.failedLogins());
+        assertEquals(List.of("carol", "alice", "bob"), applied.activeUsers());
+
+        ArgumentCaptor<Update> daily = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).upsert(any(Query.class), daily.capture(), eq(UserStatistics.class));
+        Document update = daily.getValue().getUpdateObject();
+        assertEquals(new Document("new_users_today", 1L).append("successful_logins", 2L).append("failed_logins", 1L),
+                update.get("$inc", Document.class));
+        assertEquals(42L, update.get("$set", Document.class).get("total_users"));
+
+        ArgumentCaptor<Query> partition = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> offset = ArgumentCaptor.forClass(Update.class);
+        verify(offsetOps, times(3)).upsert(partition.capture(), offset.capture());
+        int logins = partition.getAllValues().indexOf(new Query(Criteria.where("_id").is(LOGINS + "-0")));
+        assertEquals(new Document("offset", 11L), offset.getAllValues().get(logins).getUpdateObject().get("$max"));
+        verify(offsetOps).execute();
+    }
+
+    @Test
+    void ingest_RedeliveredRecords_AreNotCountedTwice() {
+        when(mongoTemplate.find(any(Query.class), eq(AppliedOffset.class)))
+                .thenReturn(List.of(AppliedOffset.builder().id(LOGINS + "-0").offset(11L).build()));
+
+        UserEventIngestionService.Applied applied = service.ingest(List.of(
+                consumed(LOGINS, 10, login("alice")),
+                consumed(LOGINS, 11, login("bob")),
+                consumed(LOGINS, 12, login("dave"))));
+
+        assertEquals(1, applied.successfulLogins());
+        assertEquals(List.of("dave"), applied.activeUsers());
+        ArgumentCaptor<Update> daily = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).upsert(any(Query.class), daily.capture(), eq(UserStatistics.class));
+        assertEquals(new Document("successful_logins", 1L), daily.getValue().getUpdateObject().get("$inc", Document.class));
+        verify(mongoTemplate, never()).findAndModify(any(Query.class), any(Update.class), any(), eq(UserCounter.class));
+    }
+
+    @Test
+    void ingest_WholeBatchAlreadyApplied_WritesOnlyOffsets() {
+        when(mongoTemplate.find(any(Query.class), eq(AppliedOffset.class)))
+                .thenReturn(List.of(AppliedOffset.builder().id(LOGINS + "-0").offset(20L).build()));
+
+        UserEventIngestionService.Applied applied = service.ingest(List.of(consumed(LOGINS, 10, login("alice"))));
+
+        assertEquals(0, applied.successfulLogins());
+        assertTrue(applied.activeUsers().isEmpty());
+        verify(mongoTemplate, never()).upsert(any(Query.class), any(Update.class), eq(UserStatistics.class));
+    }
+
+    private static ConsumedEvent consumed(String topic, long offset, Object event) {
+        return new ConsumedEvent(topic, 0, offset, offset, event);
+    }
+
+    private static UserCreatedEvent registered(String username) {
+        return new UserCreatedEvent(UUID.randomUUID(), username, null, username + "@example.org",
+                null, null, Set.of(), Instant.now());
+    }
+
+    private static UserLoginEvent login(String username) {
+        return new UserLoginEvent(UUID.randomUUID(), username, username + "@example.org", Set.of(), "curl");
+    }
+
+    private static LoginFailEvent loginFailed(String username) {
+        return LoginFailEvent.builder().id(UUID.randomUUID().toString()).username(username).failureReason("bad password").build();
+    }
+}
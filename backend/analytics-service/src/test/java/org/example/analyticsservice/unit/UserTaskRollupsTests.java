@@ -0,0 +1,63 @@
+package org.example.analyticsservice.unit;
+
+import org.example.analyticsservice.service.UserTaskRollups;
+import org.example.analyticsservice.service.UserTaskRollups.Granularity;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserTaskRollupsTests {
+
+    @Test
+    void decompose_YearRange_UsesMonthsWeeksAndDays() {
+        // 2024-01-10 — среда, неделя с 29 января заходит в февраль, 2024-12-01 — воскресенье
+        Map<Granularity, List<LocalDate>> segments =
+                UserTaskRollups.decompose(LocalDate.of(2024, 1, 10), LocalDate.of(2024, 12, 20));
+
+        assertEquals(List.of(LocalDate.of(2024, 1, 10), LocalDate.of(2024, 1, 11), LocalDate.of(2024, 1, 12),
+                        LocalDate.of(2024, 1, 13), LocalDate.of(2024, 1, 14),
+                        LocalDate.of(2024, 1, 29), LocalDate.of(2024, 1, 30), LocalDate.of(2024, 1, 31),
+                        LocalDate.of(2024, 12, 1), LocalDate.of(2024, 12, 16), LocalDate.of(2024, 12, 17), LocalDate.of(2024, 12, 18),
+                        LocalDate.of(2024, 12, 19), LocalDate.of(2024, 12, 20)),
+                segments.get(Granularity.DAY));
+        assertEquals(List.of(LocalDate.of(2024, 1, 15), LocalDate.of(2024, 1, 22),
+                        LocalDate.of(2024, 12, 2), LocalDate.of(2024, 12, 9)),
+                segments.get(Granularity.WEEK));
+        assertEquals(10, segments.get(Granularity.MONTH).size());
+        assertEquals(LocalDate.of(2024, 2, 1), segments.get(Granularity.MONTH).get(0));
+    }
+
+    @Test
+    void decompose_AnyRange_CoversEveryDayExactlyOnce() {
+        LocalDate start = LocalDate.of(2023, 11, 27);
+        LocalDate end = LocalDate.of(2024, 3, 3);
+
+        List<LocalDate> covered = new ArrayList<>();
+        UserTaskRollups.decompose(start, end).forEach((granularity, periods) -> periods.forEach(periodStart -> {
+            LocalDate next = switch (granularity) {
+                case DAY -> periodStart.plusDays(1);
+                case WEEK -> periodStart.plusWeeks(1);
+                case MONTH -> periodStart.plusMonths(1);
+            };
+            periodStart.datesUntil(next).forEach(covered::add);
+        }));
+
+        assertEquals(start.datesUntil(end.plusDays(1)).toList(), covered.stream().sorted().toList());
+    }
+
+    @Test
+    void decompose_SingleDay_IsOneDaySegment() {
+        LocalDate day = LocalDate.of(2024, 5, 1);
+
+        Map<Granularity, List<LocalDate>> segments = UserTaskRollups.decompose(day, day);
+
+        assertEquals(List.of(day), segments.get(Granularity.DAY));
+        assertTrue(segments.get(Granularity.WEEK).isEmpty());
+        assertTrue(segments.get(Granularity.MONTH).isEmpty());
+    }
+}
@@ -0,0 +1,71 @@
+package org.example.gatewayservice.config;
+
+import org.reactivestreams.Publisher;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Тело ответа для кэша и single-flight копится в памяти, только пока укладывается в лимит.
+ * Content-Length у chunked-ответа нет, поэтому размер считается по мере чтения: если лимит
+ * превышен, накопленное и остаток уходят клиенту потоком, как без фильтра.
+ */
+final class BoundedBody {
+
+    private BoundedBody() {
+    }
+
+    /** Потоковый ответ (SSE, NDJSON) не кончается к моменту записи — его не копим, что бы ни было в Accept. */
+    static boolean isStreaming(HttpHeaders headers) {
+        MediaType contentType = headers.getContentType();
+        return contentType != null
+                && (MediaType.TEXT_EVENT_STREAM.isCompatibleWith(contentType)
+                || MediaType.APPLICATION_NDJSON.isCompatibleWith(contentType));
+    }
+
+    /**
+     * @param complete  получает всё тело, если оно не больше maxSize
+     * @param oversized получает тело целиком потоком, если оно оказалось больше maxSize
+     */
+    static Mono<Void> capture(Publisher<? extends DataBuffer> body, long maxSize,
+                              Function<byte[], Mono<Void>> complete,
+                              Function<Flux<DataBuffer>, Mono<Void>> oversized) {
+        AtomicLong size = new AtomicLong();
+        return Flux.from(body)
+                .<DataBuffer>map(Function.identity())
+                // первый список — либо всё тело в пределах лимита, либо начало тела до буфера, превысившего лимит
+                .bufferUntil(buffer -> size.addAndGet(buffer.readableByteCount()) > maxSize)
+                .switchOnFirst((first, chunks) -> {
+                    if (size.get() > maxSize) {
+                        return oversized.apply(chunks.flatMapIterable(Function.identity()));
+                    }
+                    if (first.isOnNext()) {
+                        return complete.apply(toBytes(first.get(), (int) size.get()));
+                    }
+                    if (first.isOnComplete()) {
+                        return complete.apply(new byte[0]);
+                    }
+                    return chunks.then();
+                })
+                .then();
+    }
+
+    private static byte[] toBytes(List<DataBuffer> buffers, int size) {
+        byte[] bytes = new byte[size];
+        int offset = 0;
+        for (DataBuffer buffer : buffers) {
+            int length = buffer.readableByteCount();
+            buffer.read(bytes, offset, length);
+            offset += length;
+            DataBufferUtils.release(buffer);
+        }
+        return bytes;
+    }
+}
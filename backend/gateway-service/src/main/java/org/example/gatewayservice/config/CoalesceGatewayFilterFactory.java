@@ -0,0 +1,147 @@
+package org.example.gatewayservice.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+/**
+ * Single-flight для GET: одинаковые одновременные запросы (маршрут, путь, query, токен) уходят
+ * в сервис одним вызовом, остальные получают копию ответа лидера. Кэшем это не является —
+ * запись живёт, только пока запрос лидера в полёте. Не-2xx, потоковые и большие ответы (размер
+ * chunked-тела считается по мере чтения) не раздаются: ожидающие в этом случае идут в сервис сами.
+ */
+@Component
+public class CoalesceGatewayFilterFactory extends AbstractGatewayFilterFactory<CoalesceGatewayFilterFactory.Config> {
+
+    private final Map<String, Mono<CapturedResponse>> inFlight = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+
+    public CoalesceGatewayFilterFactory(MeterRegistry meterRegistry) {
+        super(Config.class);
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        long maxBodySize = config.getMaxBodySize().toBytes();
+        return (exchange, chain) -> {
+            ServerHttpRequest request = exchange.getRequest();
+            // потоковые ответы без Accept: text/event-stream отсекает проверка Content-Type ответа в lead
+            if (request.getMethod() != HttpMethod.GET
+                    || request.getHeaders().getAccept().contains(MediaType.TEXT_EVENT_STREAM)) {
+                return chain.filter(exchange);
+            }
+
+            String key = key(exchange);
+            Sinks.One<CapturedResponse> sink = Sinks.one();
+            Mono<CapturedResponse> shared = sink.asMono();
+            Mono<CapturedResponse> leader = inFlight.putIfAbsent(key, shared);
+            if (leader != null) {
+                meterRegistry.counter("gateway.requests.coalesced", "route", routeId(exchange)).increment();
+                // replay завершается пусто, поэтому switchIfEmpty после него отправил бы запрос в сервис повторно
+                return leader.<Mono<Void>>map(captured -> replay(exchange, captured))
+                        .defaultIfEmpty(Mono.defer(() -> chain.filter(exchange)))
+                        .flatMap(write -> write);
+            }
+            return lead(exchange, chain, sink, maxBodySize)
+                    .doFinally(signal -> {
+                        inFlight.remove(key, shared);
+                        sink.tryEmitEmpty();
+                    });
+        };
+    }
+
+    private Mono<Void> lead(ServerWebExchange exchange, GatewayFilterChain chain,
+                            Sinks.One<CapturedResponse> sink, long maxBodySize) {
+        ServerHttpResponse original = exchange.getResponse();
+        ServerHttpResponseDecorator capturing = new ServerHttpResponseDecorator(original) {
+            @Override
+            public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+                HttpStatusCode status = getStatusCode();
+                if (status == null || !status.is2xxSuccessful()
+                        || BoundedBody.isStreaming(getHeaders())
+                        || getHeaders().getContentLength() > maxBodySize) {
+                    sink.tryEmitEmpty();
+                    return super.writeWith(body);
+                }
+                return BoundedBody.capture(body, maxBodySize, bytes -> {
+                    HttpHeaders headers = new HttpHeaders();
+                    headers.addAll(getHeaders());
+                    headers.remove(ResponseTimeFilter.RESPONSE_TIME_HEADER);
+                    sink.tryEmitValue(new CapturedResponse(status, headers, bytes));
+                    return super.writeWith(Mono.just(bufferFactory().wrap(bytes)));
+                }, rest -> {
+                    // ожидающие не ждут, пока лидер дочитает большое тело, и идут в сервис сами
+                    sink.tryEmitEmpty();
+                    return super.writeWith(rest);
+                });
+            }
+
+            /** Сюда шлюз пишет потоковые типы (SSE): такой ответ не кончается, ожидающих отпускаем сразу. */
+            @Override
+            public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+                sink.tryEmitEmpty();
+                return super.writeAndFlushWith(body);
+            }
+        };
+        return chain.filter(exchange.mutate().response(capturing).build());
+    }
+
+    private static Mono<Void> replay(ServerWebExchange exchange, CapturedResponse captured) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(captured.status());
+        response.getHeaders().putAll(captured.headers());
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(captured.body())));
+    }
+
+    /** Authorization входит в ключ: ответы разных пользователей не смешиваются. */
+    private static String key(ServerWebExchange exchange) {
+        ServerHttpRequest request = exchange.getRequest();
+        return routeId(exchange) + ' ' + request.getURI().getRawPath()
+                + '?' + Objects.toString(request.getURI().getRawQuery(), "")
+                + ' ' + Objects.toString(request.getHeaders().getFirst(HttpHeaders.AUTHORIZATION), "");
+    }
+
+    private static String routeId(ServerWebExchange exchange) {
+        Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+        return route != null ? route.getId() : "unmatched";
+    }
+
+    private record CapturedResponse(HttpStatusCode status, HttpHeaders headers, byte[] body) {
+    }
+
+    public static class Config {
+        // ответ копируется в память целиком для каждого ожидающего — крупные не раздаём
+        private DataSize maxBodySize = DataSize.ofMegabytes(1);
+
+        public DataSize getMaxBodySize() {
+            return maxBodySize;
+        }
+
+        public void setMaxBodySize(DataSize maxBodySize) {
+            this.maxBodySize = maxBodySize;
+        }
+    }
+}
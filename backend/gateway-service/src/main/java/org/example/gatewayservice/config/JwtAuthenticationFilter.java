@@ -1,11 +1,12 @@
 package org.example.gatewayservice.config;
 
-import org.example.gatewayservice.util.Role;
+import org.example.gatewayservice.util.JwtClaims;
+import org.example.gatewayservice.util.PublicPathMatcher;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.Authentication;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.ReactiveSecurityContextHolder;
 import org.springframework.stereotype.Component;
@@ -16,46 +17,40 @@ import reactor.core.publisher.Mono;
 import org.example.gatewayservice.util.JwtUtil;
 
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Optional;
 
 @Component
 public class JwtAuthenticationFilter implements WebFilter {
 
+    private static final String WEBSOCKET = "websocket";
+
     private final JwtUtil jwtUtil;
+    private final PublicPathMatcher publicPaths;
+    private final boolean permitOptions;
+    private final boolean permitWebsocketUpgrade;
 
-    private static final List<String> PUBLIC_PATHS = List.of(
-            "/api/auth/signUp",
-            "/api/auth/signIn",
-            "/api/auth/refresh",
-            "/api/auth/logout",
-            "/public/",
-            "/eureka/",
-            "/actuator",
-            "/actuator/",
-            "/favicon.ico"
-    );
-
-    public JwtAuthenticationFilter(JwtUtil jwtUtil) {
+    public JwtAuthenticationFilter(JwtUtil jwtUtil, PublicPathProperties properties) {
         this.jwtUtil = jwtUtil;
+        this.publicPaths = new PublicPathMatcher(properties.getPublicPaths());
+        this.permitOptions = properties.isPermitOptions();
+        this.permitWebsocketUpgrade = properties.isPermitWebsocketUpgrade();
     }
 
     @Override
     public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
 
         ServerHttpRequest request = exchange.getRequest();
-        String path = request.getPath().value();
-        String method = request.getMethod().name();
 
-        String upgrade = request.getHeaders().getUpgrade();
-        if (upgrade != null && upgrade.equalsIgnoreCase("websocket")) {
+        // HttpMethod.OPTIONS — константа, сравнение по ссылке без name()/equalsIgnoreCase
+        if (permitOptions && request.getMethod() == HttpMethod.OPTIONS) {
             return chain.filter(exchange);
         }
 
-        if ("OPTIONS".equalsIgnoreCase(method)) {
+        if (permitWebsocketUpgrade && WEBSOCKET.equalsIgnoreCase(request.getHeaders().getFirst(HttpHeaders.UPGRADE))) {
             return chain.filter(exchange);
         }
 
-        if (isPublicEndpoint(path)) {
+        if (publicPaths.matches(request.getPath().value())) {
             return chain.filter(exchange);
         }
 
@@ -66,37 +61,26 @@ public class JwtAuthenticationFilter implements WebFilter {
             return unauthorized(exchange, "Missing JWT token");
         }
 
-        if (!jwtUtil.validateJwtToken(token)) {
+        Optional<JwtClaims> parsed = jwtUtil.parseClaims(token);
+        if (parsed.isEmpty()) {
             return unauthorized(exchange, "Invalid JWT token");
         }
+        JwtClaims claims = parsed.get();
+        if (claims.username() == null || claims.username().isEmpty()) {
+            return unauthorized(exchange, "Invalid username in JWT");
+        }
 
-        try {
-            String username = jwtUtil.getUserNameFromJwtToken(token);
-            List<Role> roles = jwtUtil.getRoles(token);
-
-            if (username == null || username.isEmpty()) {
-                return unauthorized(exchange, "Invalid username in JWT");
-            }
-
-            List<SimpleGrantedAuthority> authorities = roles.stream()
-                    .map(role -> new SimpleGrantedAuthority(role.name()))
-                    .toList();
-
-            Authentication authentication =
-                    new UsernamePasswordAuthenticationToken(username, token, authorities);
-
-            return chain.filter(exchange)
-                    .contextWrite(ReactiveSecurityContextHolder.withAuthentication(authentication));
+        List<SimpleGrantedAuthority> authorities = claims.roles().stream()
+                .map(role -> new SimpleGrantedAuthority(role.name()))
+                .toList();
 
-        } catch (Exception e) {
-            return unauthorized(exchange, "JWT processing error: " + e.getMessage());
-        }
-    }
+        UsernamePasswordAuthenticationToken authentication =
+                new UsernamePasswordAuthenticationToken(claims.username(), token, authorities);
+        // JwtForwardFilter подписывает из них заголовок идентичности для сервисов
+        authentication.setDetails(claims);
 
-    private boolean isPublicEndpoint(String path) {
-        return PUBLIC_PATHS.stream()
-                .anyMatch(publicPath -> path.equals(publicPath) || path.startsWith(publicPath))
-                || path.startsWith("/actuator/");
+        return chain.filter(exchange)
+                .contextWrite(ReactiveSecurityContextHolder.withAuthentication(authentication));
     }
 
     private Mono<Void> unauthorized(ServerWebExchange exchange, String message) {
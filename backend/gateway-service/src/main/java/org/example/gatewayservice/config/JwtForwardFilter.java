@@ -1,5 +1,7 @@
 package org.example.gatewayservice.config;
 
+import org.example.gatewayservice.util.GatewayIdentity;
+import org.example.gatewayservice.util.JwtClaims;
 import org.springframework.cloud.gateway.filter.GatewayFilterChain;
 import org.springframework.cloud.gateway.filter.GlobalFilter;
 import org.springframework.core.Ordered;
@@ -11,25 +13,39 @@ import reactor.core.publisher.Mono;
 @Component
 public class JwtForwardFilter implements GlobalFilter, Ordered {
 
+    private final GatewayIdentity gatewayIdentity;
+
+    public JwtForwardFilter(GatewayIdentity gatewayIdentity) {
+        this.gatewayIdentity = gatewayIdentity;
+    }
+
     @Override
     public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
-        return exchange.getPrincipal()
+        // заголовок идентичности выставляет только gateway: пришедший от клиента отбрасываем всегда
+        ServerWebExchange stripped = exchange.getRequest().getHeaders().containsKey(GatewayIdentity.HEADER)
+                ? exchange.mutate().request(builder -> builder.headers(headers -> headers.remove(GatewayIdentity.HEADER))).build()
+                : exchange;
+
+        return stripped.getPrincipal()
                 .cast(org.springframework.security.core.Authentication.class)
                 .map(authentication -> {
                     // Получаем токен из authentication (мы его сохранили в credentials)
                     String token = (String) authentication.getCredentials();
                     
                     if (token != null) {
-                        // Создаем новый request с Authorization header
-                        return exchange.mutate()
-                                .request(builder -> builder
-                                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
-                                )
+                        // Authorization оставляем для сервисов, работающих без режима behind-gateway
+                        return stripped.mutate()
+                                .request(builder -> {
+                                    builder.header(HttpHeaders.AUTHORIZATION, "Bearer " + token);
+                                    if (authentication.getDetails() instanceof JwtClaims claims) {
+                                        builder.header(GatewayIdentity.HEADER, gatewayIdentity.sign(claims));
+                                    }
+                                })
                                 .build();
                     }
-                    return exchange;
+                    return stripped;
                 })
-                .defaultIfEmpty(exchange)
+                .defaultIfEmpty(stripped)
                 .flatMap(chain::filter);
     }
 
@@ -38,4 +54,4 @@ public class JwtForwardFilter implements GlobalFilter, Ordered {
         // Выполняется после аутентификации но до маршрутизации
         return Ordered.LOWEST_PRECEDENCE - 1;
     }
-}
\ No newline at end of file
+}
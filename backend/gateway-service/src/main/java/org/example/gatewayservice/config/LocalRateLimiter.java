@@ -0,0 +1,114 @@
+package org.example.gatewayservice.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.validation.constraints.Min;
+import org.springframework.cloud.gateway.filter.ratelimit.AbstractRateLimiter;
+import org.springframework.cloud.gateway.support.ConfigurationService;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.annotation.Validated;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+/**
+ * Token bucket в памяти инстанса, без Redis: корзина на пару (маршрут, ключ из KeyResolver).
+ * Каждая корзина блокируется отдельно, так что конкурируют только запросы одного пользователя к одному маршруту.
+ * Настройки маршрута — аргументы RequestRateLimiter с префиксом {@code local-rate-limiter.},
+ * без них действуют значения из gateway.rate-limit.
+ */
+@Component
+public class LocalRateLimiter extends AbstractRateLimiter<LocalRateLimiter.Config> {
+
+    public static final String CONFIGURATION_PROPERTY_NAME = "local-rate-limiter";
+
+    public static final String REMAINING_HEADER = "X-RateLimit-Remaining";
+    public static final String REPLENISH_RATE_HEADER = "X-RateLimit-Replenish-Rate";
+    public static final String BURST_CAPACITY_HEADER = "X-RateLimit-Burst-Capacity";
+
+    private final Config defaultConfig;
+    private final Cache<String, Bucket> buckets;
+
+    public LocalRateLimiter(ConfigurationService configurationService, RateLimitProperties properties) {
+        super(Config.class, CONFIGURATION_PROPERTY_NAME, configurationService);
+        this.defaultConfig = new Config()
+                .setReplenishRate(properties.getReplenishRate())
+                .setBurstCapacity(properties.getBurstCapacity());
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxBuckets())
+                .expireAfterAccess(properties.getIdleExpiry())
+                .build();
+    }
+
+    @Override
+    public Mono<Response> isAllowed(String routeId, String id) {
+        Config config = getConfig().getOrDefault(routeId, defaultConfig);
+        Bucket bucket = buckets.get(routeId + ':' + id, key -> new Bucket(config.getBurstCapacity()));
+        long remaining = bucket.tryConsume(config, System.nanoTime());
+        return Mono.just(new Response(remaining >= 0, Map.of(
+                REMAINING_HEADER, String.valueOf(Math.max(remaining, 0)),
+                REPLENISH_RATE_HEADER, String.valueOf(config.getReplenishRate()),
+                BURST_CAPACITY_HEADER, String.valueOf(config.getBurstCapacity()))));
+    }
+
+    static final class Bucket {
+        private double tokens;
+        private long refilledAt;
+
+        Bucket(int capacity) {
+            this.tokens = capacity;
+            this.refilledAt = System.nanoTime();
+        }
+
+        /** Остаток после списания или -1, если токенов не хватило. */
+        synchronized long tryConsume(Config config, long now) {
+            double refill = (now - refilledAt) / 1_000_000_000.0 * config.getReplenishRate();
+            tokens = Math.min(config.getBurstCapacity(), tokens + refill);
+            refilledAt = now;
+            if (tokens < config.getRequestedTokens()) {
+                return -1;
+            }
+            tokens -= config.getRequestedTokens();
+            return (long) tokens;
+        }
+    }
+
+    @Validated
+    public static class Config {
+        @Min(1)
+        private int replenishRate;
+
+        @Min(0)
+        private int burstCapacity = 1;
+
+        @Min(1)
+        private int requestedTokens = 1;
+
+        public int getReplenishRate() {
+            return replenishRate;
+        }
+
+        public Config setReplenishRate(int replenishRate) {
+            this.replenishRate = replenishRate;
+            return this;
+        }
+
+        public int getBurstCapacity() {
+            return burstCapacity;
+        }
+
+        public Config setBurstCapacity(int burstCapacity) {
+            this.burstCapacity = burstCapacity;
+            return this;
+        }
+
+        public int getRequestedTokens() {
+            return requestedTokens;
+        }
+
+        public Config setRequestedTokens(int requestedTokens) {
+            this.requestedTokens = requestedTokens;
+            return this;
+        }
+    }
+}
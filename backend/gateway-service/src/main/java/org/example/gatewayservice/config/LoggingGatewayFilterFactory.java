@@ -2,6 +2,7 @@ package org.example.gatewayservice.config;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.slf4j.event.Level;
 import org.springframework.cloud.gateway.filter.GatewayFilter;
 import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
 import org.springframework.stereotype.Component;
@@ -18,26 +19,31 @@ public class LoggingGatewayFilterFactory extends AbstractGatewayFilterFactory<Lo
 
     @Override
     public GatewayFilter apply(Config config) {
+        // уровень разбирается один раз на маршрут; на выключенном уровне фильтр ничего не форматирует
+        Level level = Level.valueOf(config.getLevel().toUpperCase());
         return (exchange, chain) -> {
+            if (!logger.isEnabledForLevel(level)) {
+                return chain.filter(exchange);
+            }
             if (config.isLogRequest()) {
-                logger.info("Incoming Request: {} {} from {}",
+                logger.atLevel(level).log("Incoming Request: {} {} from {}",
                         exchange.getRequest().getMethod(),
                         exchange.getRequest().getPath(),
                         exchange.getRequest().getRemoteAddress());
-                if (config.isShowHeaders()) {
-                    logger.info("Request Headers: {}", exchange.getRequest().getHeaders());
+                if (config.isShowHeaders() || config.isShowRequestHeaders()) {
+                    logger.atLevel(level).log("Request Headers: {}", exchange.getRequest().getHeaders());
                 }
             }
 
             return chain.filter(exchange).then(Mono.fromRunnable(() -> {
                 if (config.isLogResponse()) {
-                    logger.info("Outgoing Response: Status {} for {} {} to {}",
+                    logger.atLevel(level).log("Outgoing Response: Status {} for {} {} to {}",
                             exchange.getResponse().getStatusCode(),
                             exchange.getRequest().getMethod(),
                             exchange.getRequest().getPath(),
                             exchange.getRequest().getRemoteAddress());
                     if (config.isShowResponseHeaders()) {
-                        logger.info("Response Headers: {}", exchange.getResponse().getHeaders());
+                        logger.atLevel(level).log("Response Headers: {}", exchange.getResponse().getHeaders());
                     }
                 }
             }));
@@ -47,11 +53,12 @@ public class LoggingGatewayFilterFactory extends AbstractGatewayFilterFactory<Lo
     public static class Config {
         private boolean logRequest = true;
         private boolean logResponse = true;
-        private boolean showHeaders = true;
+        // заголовки и INFO только явно в конфиге маршрута: время ответа снимает ResponseTimeFilter
+        private boolean showHeaders = false;
         private boolean showBody = false;
-        private boolean showRequestHeaders = true;
-        private boolean showResponseHeaders = true;
-        private String level = "INFO";
+        private boolean showRequestHeaders = false;
+        private boolean showResponseHeaders = false;
+        private String level = "DEBUG";
 
         public boolean isLogRequest() {
             return logRequest;
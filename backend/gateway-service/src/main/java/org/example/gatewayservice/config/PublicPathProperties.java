@@ -0,0 +1,23 @@
+package org.example.gatewayservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "gateway.auth")
+public class PublicPathProperties {
+
+    /** Пути без проверки JWT: точные или с окончанием {@code /**} (весь подпуть). */
+    private List<String> publicPaths = new ArrayList<>();
+
+    /** Preflight-запросы CORS идут без токена. */
+    private boolean permitOptions = true;
+
+    /** Handshake websocket пропускается без проверки JWT, как и раньше. */
+    private boolean permitWebsocketUpgrade = true;
+}
@@ -0,0 +1,31 @@
+package org.example.gatewayservice.config;
+
+import org.example.gatewayservice.util.JwtClaims;
+import org.springframework.cloud.gateway.filter.ratelimit.KeyResolver;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.core.Authentication;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+
+@Configuration
+public class RateLimitConfig {
+
+    /**
+     * Ключ лимита — userId из проверенного JWT (JwtAuthenticationFilter кладёт claims в details),
+     * для анонимных запросов — адрес клиента. Маршрут к ключу добавляет сам LocalRateLimiter.
+     */
+    @Bean
+    public KeyResolver userKeyResolver() {
+        return exchange -> exchange.getPrincipal()
+                .map(principal -> principal instanceof Authentication authentication
+                        && authentication.getDetails() instanceof JwtClaims claims
+                        ? "user:" + claims.userId()
+                        : "user:" + principal.getName())
+                .switchIfEmpty(Mono.fromSupplier(() -> {
+                    InetSocketAddress address = exchange.getRequest().getRemoteAddress();
+                    return address != null ? "ip:" + address.getHostString() : "anonymous";
+                }));
+    }
+}
@@ -0,0 +1,25 @@
+package org.example.gatewayservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "gateway.rate-limit")
+public class RateLimitProperties {
+
+    /** Пополнение корзины в токенах в секунду для маршрутов без local-rate-limiter.* в аргументах. */
+    private int replenishRate = 50;
+
+    /** Ёмкость корзины — допустимый всплеск сверх среднего темпа. */
+    private int burstCapacity = 100;
+
+    /** Предел числа корзин (пользователь x маршрут); сверх него вытесняются давно не использованные. */
+    private long maxBuckets = 100_000;
+
+    /** Корзина без запросов дольше этого срока удаляется: к тому времени она всё равно полная. */
+    private Duration idleExpiry = Duration.ofMinutes(10);
+}
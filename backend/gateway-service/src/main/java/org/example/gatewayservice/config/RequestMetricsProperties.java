@@ -0,0 +1,22 @@
+package org.example.gatewayservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "gateway.metrics")
+public class RequestMetricsProperties {
+
+    /** Запросы дольше этого порога логируются всегда (WARN). */
+    private Duration slowThreshold = Duration.ofSeconds(1);
+
+    /** Доля остальных запросов, попадающих в INFO-лог; 0 — только медленные. */
+    private double logSampleRate = 0.0;
+
+    /** Публиковать бакеты гистограммы, чтобы Prometheus считал p95/p99 по всем инстансам. */
+    private boolean percentileHistogram = true;
+}
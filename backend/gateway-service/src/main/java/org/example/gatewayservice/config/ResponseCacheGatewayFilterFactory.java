@@ -0,0 +1,283 @@
+package org.example.gatewayservice.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.filter.ratelimit.KeyResolver;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+/**
+ * Кэш успешных GET-ответов по ключу (маршрут, пользователь, путь, query, Accept).
+ * Пользователь определяется тем же userKeyResolver, что и лимиты, поэтому ответы с
+ * {@code Cache-Control: private} тоже кэшируются — чужому пользователю они не достанутся.
+ * Срок жизни — меньшее из max-age сервиса и time-to-live маршрута; no-store/no-cache/max-age=0
+ * от сервиса запрещают кэширование. Потоковые ответы и тела больше max-body-size (в том числе
+ * chunked, без Content-Length) проходят мимо кэша. Если сервис не прислал ETag, он вычисляется по телу,
+ * и If-None-Match по записи из кэша отвечается 304 без обращения к сервису.
+ * Небезопасный запрос пользователя через маршрут сбрасывает его записи на этом маршруте.
+ */
+@Component
+public class ResponseCacheGatewayFilterFactory extends AbstractGatewayFilterFactory<ResponseCacheGatewayFilterFactory.Config> {
+
+    private static final String METRIC = "gateway.response.cache";
+    private static final Set<HttpMethod> SAFE_METHODS = Set.of(HttpMethod.GET, HttpMethod.HEAD, HttpMethod.OPTIONS, HttpMethod.TRACE);
+
+    private final Cache<String, CachedResponse> cache;
+    private final KeyResolver userKeyResolver;
+    private final MeterRegistry meterRegistry;
+
+    public ResponseCacheGatewayFilterFactory(ResponseCacheProperties properties, KeyResolver userKeyResolver,
+                                             MeterRegistry meterRegistry) {
+        super(Config.class);
+        this.userKeyResolver = userKeyResolver;
+        this.meterRegistry = meterRegistry;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(properties.getMaxSize().toBytes())
+                .weigher((String key, CachedResponse response) -> key.length() + response.weight())
+                .expireAfter(Expiry.creating((String key, CachedResponse response) -> response.timeToLive()))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "gatewayResponseCache");
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        return (exchange, chain) -> {
+            ServerHttpRequest request = exchange.getRequest();
+            if (!SAFE_METHODS.contains(request.getMethod())) {
+                return evictingAfterWrite(exchange, chain);
+            }
+            // потоковые ответы без Accept: text/event-stream отсекает проверка Content-Type ответа в capturing
+            if (request.getMethod() != HttpMethod.GET
+                    || request.getHeaders().getAccept().contains(MediaType.TEXT_EVENT_STREAM)) {
+                return chain.filter(exchange);
+            }
+            String requestCacheControl = request.getHeaders().getCacheControl();
+            boolean noStore = hasDirective(requestCacheControl, "no-store");
+            boolean bypass = noStore || hasDirective(requestCacheControl, "no-cache");
+            String routeId = routeId(exchange);
+
+            return userKeyResolver.resolve(exchange).defaultIfEmpty("anonymous").flatMap(user -> {
+                String key = key(routeId, user, request);
+                CachedResponse cached = bypass ? null : cache.getIfPresent(key);
+                if (cached != null) {
+                    if (matches(request.getHeaders().getIfNoneMatch(), cached.etag())) {
+                        count(routeId, "not_modified");
+                        return notModified(exchange, cached);
+                    }
+                    count(routeId, "hit");
+                    return replay(exchange, cached);
+                }
+                count(routeId, "miss");
+                if (noStore) {
+                    return chain.filter(exchange);
+                }
+                return chain.filter(exchange.mutate().response(capturing(exchange, key, config)).build());
+            });
+        };
+    }
+
+    /**
+     * Запись через маршрут сбрасывает закэшированные ответы этого пользователя на маршруте: иначе
+     * список, запрошенный сразу после своего POST/PUT/DELETE, пришёл бы из кэша без новой задачи.
+     * Сброс — после ответа сервиса, чтобы параллельный GET не успел сохранить состояние до записи.
+     * Перебор ключей линейный, но записи на порядки реже чтений.
+     */
+    private Mono<Void> evictingAfterWrite(ServerWebExchange exchange, GatewayFilterChain chain) {
+        String routeId = routeId(exchange);
+        return userKeyResolver.resolve(exchange).defaultIfEmpty("anonymous").flatMap(user ->
+                chain.filter(exchange).doFinally(signal -> {
+                    String prefix = routeId + ' ' + user + ' ';
+                    cache.asMap().keySet().removeIf(key -> key.startsWith(prefix));
+                }));
+    }
+
+    private ServerHttpResponseDecorator capturing(ServerWebExchange exchange, String key, Config config) {
+        long maxBodySize = config.getMaxBodySize().toBytes();
+        return new ServerHttpResponseDecorator(exchange.getResponse()) {
+            @Override
+            public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+                HttpHeaders headers = getHeaders();
+                Duration timeToLive = timeToLive(headers.getCacheControl(), config.getTimeToLive());
+                if (getStatusCode() != HttpStatus.OK || timeToLive.isZero()
+                        || headers.containsKey(HttpHeaders.SET_COOKIE)
+                        || BoundedBody.isStreaming(headers)
+                        || headers.getContentLength() > maxBodySize) {
+                    return super.writeWith(body);
+                }
+                return BoundedBody.capture(body, maxBodySize, bytes -> {
+                    if (headers.getETag() == null) {
+                        headers.setETag('"' + DigestUtils.md5DigestAsHex(bytes) + '"');
+                    }
+                    HttpHeaders stored = new HttpHeaders();
+                    stored.addAll(headers);
+                    stored.remove(ResponseTimeFilter.RESPONSE_TIME_HEADER);
+                    cache.put(key, new CachedResponse(getStatusCode(), stored, bytes, headers.getETag(),
+                            timeToLive, System.nanoTime()));
+                    return super.writeWith(Mono.just(bufferFactory().wrap(bytes)));
+                }, super::writeWith);
+            }
+        };
+    }
+
+    private static Mono<Void> replay(ServerWebExchange exchange, CachedResponse cached) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(cached.status());
+        response.getHeaders().putAll(cached.headers());
+        response.getHeaders().set(HttpHeaders.AGE, String.valueOf(cached.ageSeconds()));
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(cached.body())));
+    }
+
+    private static Mono<Void> notModified(ServerWebExchange exchange, CachedResponse cached) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatus.NOT_MODIFIED);
+        response.getHeaders().setETag(cached.etag());
+        String cacheControl = cached.headers().getCacheControl();
+        if (cacheControl != null) {
+            response.getHeaders().setCacheControl(cacheControl);
+        }
+        response.getHeaders().set(HttpHeaders.AGE, String.valueOf(cached.ageSeconds()));
+        return response.setComplete();
+    }
+
+    /** max-age (s-maxage, если есть) ограничивает time-to-live маршрута; запрет кэширования даёт ноль. */
+    private static Duration timeToLive(String cacheControl, Duration routeTimeToLive) {
+        if (cacheControl == null) {
+            return routeTimeToLive;
+        }
+        long maxAge = -1;
+        long sharedMaxAge = -1;
+        for (String directive : cacheControl.toLowerCase(Locale.ROOT).split(",")) {
+            String value = directive.trim();
+            if (value.equals("no-store") || value.equals("no-cache")) {
+                return Duration.ZERO;
+            }
+            if (value.startsWith("max-age=")) {
+                maxAge = parseSeconds(value.substring("max-age=".length()));
+            } else if (value.startsWith("s-maxage=")) {
+                sharedMaxAge = parseSeconds(value.substring("s-maxage=".length()));
+            }
+        }
+        long seconds = sharedMaxAge >= 0 ? sharedMaxAge : maxAge;
+        if (seconds < 0) {
+            return routeTimeToLive;
+        }
+        Duration fromHeader = Duration.ofSeconds(seconds);
+        return fromHeader.compareTo(routeTimeToLive) < 0 ? fromHeader : routeTimeToLive;
+    }
+
+    private static long parseSeconds(String value) {
+        try {
+            return Long.parseLong(value.replace("\"", ""));
+        } catch (NumberFormatException ex) {
+            return 0;
+        }
+    }
+
+    private static boolean hasDirective(String cacheControl, String directive) {
+        return cacheControl != null && cacheControl.toLowerCase(Locale.ROOT).contains(directive);
+    }
+
+    /** Слабое сравнение, как требует RFC 9110 для If-None-Match. */
+    private static boolean matches(List<String> ifNoneMatch, String etag) {
+        if (etag == null || ifNoneMatch.isEmpty()) {
+            return false;
+        }
+        String opaque = stripWeak(etag);
+        for (String candidate : ifNoneMatch) {
+            if (candidate.equals("*") || stripWeak(candidate).equals(opaque)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String stripWeak(String etag) {
+        return etag.startsWith("W/") ? etag.substring(2) : etag;
+    }
+
+    private static String key(String routeId, String user, ServerHttpRequest request) {
+        return routeId + ' ' + user + ' ' + request.getURI().getRawPath()
+                + '?' + Objects.toString(request.getURI().getRawQuery(), "")
+                + ' ' + Objects.toString(request.getHeaders().getFirst(HttpHeaders.ACCEPT), "");
+    }
+
+    private static String routeId(ServerWebExchange exchange) {
+        Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+        return route != null ? route.getId() : "unmatched";
+    }
+
+    private void count(String routeId, String result) {
+        meterRegistry.counter(METRIC, "route", routeId, "result", result).increment();
+    }
+
+    private record CachedResponse(HttpStatusCode status, HttpHeaders headers, byte[] body, String etag,
+                                  Duration timeToLive, long createdAt) {
+
+        /** Тело плюс грубая оценка заголовков — для вытеснения по объёму. */
+        int weight() {
+            int size = body.length;
+            for (Map.Entry<String, List<String>> header : headers.headerSet()) {
+                size += header.getKey().length();
+                for (String value : header.getValue()) {
+                    size += value.length();
+                }
+            }
+            return size;
+        }
+
+        long ageSeconds() {
+            return Duration.ofNanos(System.nanoTime() - createdAt).toSeconds();
+        }
+    }
+
+    public static class Config {
+        private Duration timeToLive = Duration.ofSeconds(30);
+        private DataSize maxBodySize = DataSize.ofMegabytes(1);
+
+        public Duration getTimeToLive() {
+            return timeToLive;
+        }
+
+        public void setTimeToLive(Duration timeToLive) {
+            this.timeToLive = timeToLive;
+        }
+
+        public DataSize getMaxBodySize() {
+            return maxBodySize;
+        }
+
+        public void setMaxBodySize(DataSize maxBodySize) {
+            this.maxBodySize = maxBodySize;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package org.example.gatewayservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "gateway.response-cache")
+public class ResponseCacheProperties {
+
+    /** Общий объём кэша ответов на все маршруты; сверх него вытесняются редко читаемые записи. */
+    private DataSize maxSize = DataSize.ofMegabytes(64);
+}
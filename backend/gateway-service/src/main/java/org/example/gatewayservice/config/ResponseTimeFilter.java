@@ -1,38 +1,93 @@
 package org.example.gatewayservice.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.reactivestreams.Publisher;
 import org.springframework.cloud.gateway.filter.GatewayFilterChain;
 import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
 import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpStatusCode;
 import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
 import org.springframework.stereotype.Component;
 import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
 
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Время ответа по маршруту, методу и статусу пишется в таймер gateway.requests (System.nanoTime),
+ * доступный через /actuator/prometheus. В лог попадают только медленные запросы и сэмпл остальных.
+ */
 @Slf4j
 @Component
+@RequiredArgsConstructor
 public class ResponseTimeFilter implements GlobalFilter, Ordered {
 
+    public static final String RESPONSE_TIME_HEADER = "X-Response-Time";
+
+    private static final String METRIC = "gateway.requests";
+    private static final String UNMATCHED_ROUTE = "unmatched";
+
+    private final MeterRegistry meterRegistry;
+    private final RequestMetricsProperties properties;
+
     @Override
     public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
-        long startTime = System.currentTimeMillis();
-        ServerHttpRequest request = exchange.getRequest();
+        long startTime = System.nanoTime();
         
         ServerHttpResponseDecorator decoratedResponse = new ServerHttpResponseDecorator(exchange.getResponse()) {
             @Override
-            public Mono<Void> writeWith(org.reactivestreams.Publisher<? extends org.springframework.core.io.buffer.DataBuffer> body) {
-                long duration = System.currentTimeMillis() - startTime;
-                log.info("⏱️  [{}] {} - Response time: {}ms", 
-                        request.getMethod(),
-                        request.getURI().getPath(),
-                        duration);
-                this.getDelegate().getHeaders().add("X-Response-Time", duration + "ms");
+            public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+                long durationMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+                this.getDelegate().getHeaders().add(RESPONSE_TIME_HEADER, durationMs + "ms");
                 return super.writeWith(body);
             }
         };
 
-        return chain.filter(exchange.mutate().response(decoratedResponse).build());
+        return chain.filter(exchange.mutate().response(decoratedResponse).build())
+                .doFinally(signal -> record(exchange, System.nanoTime() - startTime, signal));
+    }
+
+    private void record(ServerWebExchange exchange, long durationNanos, SignalType signal) {
+        ServerHttpRequest request = exchange.getRequest();
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        String routeId = route != null ? route.getId() : UNMATCHED_ROUTE;
+        String status = status(exchange.getResponse().getStatusCode(), signal);
+
+        Timer.builder(METRIC)
+                .tag("route", routeId)
+                .tag("method", request.getMethod().name())
+                .tag("status", status)
+                .publishPercentileHistogram(properties.isPercentileHistogram())
+                .register(meterRegistry)
+                .record(durationNanos, TimeUnit.NANOSECONDS);
+
+        if (durationNanos >= properties.getSlowThreshold().toNanos()) {
+            log.warn("Slow request [{}] {} route={} status={} took {}ms",
+                    request.getMethod(), request.getURI().getPath(), routeId, status,
+                    TimeUnit.NANOSECONDS.toMillis(durationNanos));
+        } else if (properties.getLogSampleRate() > 0
+                && ThreadLocalRandom.current().nextDouble() < properties.getLogSampleRate()) {
+            log.info("[{}] {} route={} status={} took {}ms",
+                    request.getMethod(), request.getURI().getPath(), routeId, status,
+                    TimeUnit.NANOSECONDS.toMillis(durationNanos));
+        }
+    }
+
+    private static String status(HttpStatusCode statusCode, SignalType signal) {
+        if (signal == SignalType.CANCEL) {
+            // клиент закрыл соединение раньше ответа
+            return "CANCELLED";
+        }
+        return statusCode != null ? String.valueOf(statusCode.value()) : "UNKNOWN";
     }
 
     @Override
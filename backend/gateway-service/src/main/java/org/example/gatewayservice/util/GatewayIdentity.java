@@ -0,0 +1,52 @@
+package org.example.gatewayservice.util;
+
+import io.jsonwebtoken.io.Decoders;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.Base64;
+import java.util.stream.Collectors;
+
+/**
+ * Подписывает идентичность, проверенную gateway, для передачи сервисам в заголовке {@value #HEADER}.
+ * Формат: {@code base64url(userId \n username \n roles через запятую \n exp в секундах) . base64url(HMAC-SHA256)}.
+ * Сервисы в режиме jwt.behind-gateway проверяют только этот HMAC вместо подписи и JSON всего JWT.
+ */
+@Component
+public class GatewayIdentity {
+
+    public static final String HEADER = "X-Auth-Identity";
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final Base64.Encoder BASE64 = Base64.getUrlEncoder().withoutPadding();
+
+    private final ThreadLocal<Mac> mac;
+
+    public GatewayIdentity(@Value("${jwt.identity.secret:${jwt.secret}}") String secret) {
+        SecretKeySpec key = new SecretKeySpec(Decoders.BASE64.decode(secret), ALGORITHM);
+        // Mac не потокобезопасен, а создавать его на каждый запрос дороже самой подписи
+        this.mac = ThreadLocal.withInitial(() -> {
+            try {
+                Mac instance = Mac.getInstance(ALGORITHM);
+                instance.init(key);
+                return instance;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("Cannot initialize " + ALGORITHM, e);
+            }
+        });
+    }
+
+    public String sign(JwtClaims claims) {
+        String payload = claims.userId() + "\n"
+                + claims.username() + "\n"
+                + claims.roles().stream().map(Role::name).collect(Collectors.joining(",")) + "\n"
+                + claims.expiresAt().getEpochSecond();
+        String encoded = BASE64.encodeToString(payload.getBytes(StandardCharsets.UTF_8));
+        byte[] signature = mac.get().doFinal(encoded.getBytes(StandardCharsets.US_ASCII));
+        return encoded + "." + BASE64.encodeToString(signature);
+    }
+}
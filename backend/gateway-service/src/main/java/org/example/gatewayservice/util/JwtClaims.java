@@ -0,0 +1,13 @@
+package org.example.gatewayservice.util;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/** Claims токена после единственной проверки подписи; из них же строится заголовок идентичности. */
+public record JwtClaims(UUID userId, String username, List<Role> roles, Instant expiresAt) {
+
+    public JwtClaims {
+        roles = List.copyOf(roles);
+    }
+}
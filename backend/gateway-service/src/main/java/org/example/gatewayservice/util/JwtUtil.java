@@ -9,7 +9,10 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.example.gatewayservice.util.Role;
+import java.util.Collections;
+import java.util.Date;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 import javax.crypto.SecretKey;
@@ -44,6 +47,31 @@ public class JwtUtil {
 
     
 
+    /** Одна проверка подписи и один разбор JSON на запрос; пустой результат — токен невалиден. */
+    public Optional<JwtClaims> parseClaims(String token) {
+        try {
+            Claims claims = jwtParser.parseSignedClaims(token).getPayload();
+            Date expiration = claims.getExpiration();
+            if (expiration == null) {
+                logger.error("JWT token has no expiration");
+                return Optional.empty();
+            }
+            List<String> roles = claims.get("roles", List.class);
+            return Optional.of(new JwtClaims(
+                    UUID.fromString(claims.get("userId", String.class)),
+                    claims.getSubject(),
+                    roles == null ? Collections.emptyList() : roles.stream().map(Role::valueOf).toList(),
+                    expiration.toInstant()));
+        } catch (ExpiredJwtException e) {
+            logger.error("JWT token is expired: {}", e.getMessage());
+        } catch (JwtException e) {
+            logger.error("JWT validation failed: {}", e.getMessage());
+        } catch (IllegalArgumentException | NullPointerException e) {
+            logger.error("Invalid JWT claims: {}", e.getMessage());
+        }
+        return Optional.empty();
+    }
+
     public String getUserNameFromJwtToken(String token) {
         return jwtParser
                 .parseSignedClaims(token)
@@ -0,0 +1,68 @@
+package org.example.gatewayservice.util;
+
+import java.util.Collection;
+
+/**
+ * Префиксное дерево публичных путей, собирается один раз при старте.
+ * Правило {@code /x/**} открывает {@code /x} и всё под {@code /x/}, остальные правила — точное совпадение.
+ * {@link #matches} проходит путь посимвольно по массивам и ничего не аллоцирует.
+ */
+public final class PublicPathMatcher {
+
+    private static final String ANY_SUFFIX = "/**";
+
+    private final Node root = new Node();
+
+    public PublicPathMatcher(Collection<String> patterns) {
+        for (String pattern : patterns) {
+            if (pattern.endsWith(ANY_SUFFIX)) {
+                String base = pattern.substring(0, pattern.length() - ANY_SUFFIX.length());
+                node(base).exact = true;
+                node(base + "/").prefix = true;
+            } else {
+                node(pattern).exact = true;
+            }
+        }
+    }
+
+    public boolean matches(String path) {
+        Node node = root;
+        for (int i = 0, length = path.length(); i < length; i++) {
+            if (node.prefix) {
+                return true;
+            }
+            char c = path.charAt(i);
+            if (c >= Node.WIDTH) {
+                return false;
+            }
+            node = node.next[c];
+            if (node == null) {
+                return false;
+            }
+        }
+        return node.exact || node.prefix;
+    }
+
+    private Node node(String path) {
+        Node node = root;
+        for (int i = 0; i < path.length(); i++) {
+            char c = path.charAt(i);
+            if (c >= Node.WIDTH) {
+                throw new IllegalArgumentException("Public path must be ASCII: " + path);
+            }
+            if (node.next[c] == null) {
+                node.next[c] = new Node();
+            }
+            node = node.next[c];
+        }
+        return node;
+    }
+
+    private static final class Node {
+        private static final int WIDTH = 128;
+
+        private final Node[] next = new Node[WIDTH];
+        private boolean exact;
+        private boolean prefix;
+    }
+}
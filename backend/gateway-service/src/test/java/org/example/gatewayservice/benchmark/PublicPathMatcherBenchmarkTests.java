@@ -0,0 +1,82 @@
+package org.example.gatewayservice.benchmark;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.gatewayservice.util.PublicPathMatcher;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.List;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Проверка публичного пути на каждом запросе gateway: прежний stream().anyMatch по списку префиксов
+ * против префиксного дерева. Запуск: {@code mvn test -Dtest=PublicPathMatcherBenchmarkTests -Dbenchmark=true}.
+ */
+@Slf4j
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class PublicPathMatcherBenchmarkTests {
+
+    private static final int WARMUP = 3;
+    private static final int ITERATIONS = 5;
+
+    private static final List<String> LEGACY_PUBLIC_PATHS = List.of(
+            "/api/auth/signUp", "/api/auth/signIn", "/api/auth/refresh", "/api/auth/logout",
+            "/public/", "/eureka/", "/actuator", "/actuator/", "/favicon.ico");
+
+    private static final PublicPathMatcher MATCHER = new PublicPathMatcher(List.of(
+            "/api/auth/signUp", "/api/auth/signIn", "/api/auth/refresh", "/api/auth/logout",
+            "/public/**", "/eureka/**", "/actuator/**", "/favicon.ico"));
+
+    // в основном защищённые пути — это типичная нагрузка, на них anyMatch проходит весь список
+    private static final String[] PATHS = {
+            "/api/tasks", "/api/tasks/66f1c0de4b1a2c0012345678", "/api/me/tasks/scroll",
+            "/api/comments/task/66f1c0de4b1a2c0012345678", "/api/analytics/summary", "/api/users/me",
+            "/api/attachments/task/66f1c0de4b1a2c0012345678", "/api/auth/signIn", "/actuator/health",
+            "/public/logo.svg"
+    };
+
+    @Test
+    void compareListScanWithTrie() {
+        for (String path : PATHS) {
+            assertEquals(legacyMatches(path), MATCHER.matches(path), path);
+        }
+        int requests = Integer.getInteger("benchmark.requests", 5_000_000);
+
+        double legacy = measure(requests, PublicPathMatcherBenchmarkTests::legacyMatches);
+        double trie = measure(requests, MATCHER::matches);
+
+        log.info("Public path check per request: anyMatch = {} ns, trie = {} ns, speedup x{}",
+                String.format("%.1f", legacy), String.format("%.1f", trie), String.format("%.1f", legacy / trie));
+        assertTrue(trie < legacy, "trie lookup must be cheaper than scanning the prefix list");
+    }
+
+    private static boolean legacyMatches(String path) {
+        return LEGACY_PUBLIC_PATHS.stream()
+                .anyMatch(publicPath -> path.equals(publicPath) || path.startsWith(publicPath))
+                || path.startsWith("/actuator/");
+    }
+
+    /** Среднее время проверки одного пути в наносекундах, лучший из ITERATIONS прогонов после прогрева. */
+    private static double measure(int requests, Predicate<String> matcher) {
+        double best = Double.MAX_VALUE;
+        int matched = 0;
+        for (int run = 0; run < WARMUP + ITERATIONS; run++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < requests; i++) {
+                if (matcher.test(PATHS[i % PATHS.length])) {
+                    matched++;
+                }
+            }
+            double perRequest = (double) (System.nanoTime() - start) / requests;
+            if (run >= WARMUP) {
+                best = Math.min(best, perRequest);
+            }
+        }
+        // результат используется, чтобы JIT не выбросил цикл
+        assertTrue(matched > 0);
+        return best;
+    }
+}
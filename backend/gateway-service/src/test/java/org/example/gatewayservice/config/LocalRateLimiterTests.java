@@ -0,0 +1,91 @@
+package org.example.gatewayservice.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.cloud.gateway.filter.ratelimit.RateLimiter;
+import org.springframework.cloud.gateway.support.ConfigurationService;
+import org.springframework.core.convert.support.DefaultConversionService;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// в пакете config: Bucket package-private, а время в tryConsume передаётся явно
+class LocalRateLimiterTests {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    private final LocalRateLimiter.Config config = new LocalRateLimiter.Config()
+            .setReplenishRate(2)
+            .setBurstCapacity(3);
+
+    @Test
+    void tryConsume_Burst_AllowsCapacityThenRejects() {
+        LocalRateLimiter.Bucket bucket = new LocalRateLimiter.Bucket(3);
+        long now = System.nanoTime();
+
+        assertEquals(2, bucket.tryConsume(config, now));
+        assertEquals(1, bucket.tryConsume(config, now));
+        assertEquals(0, bucket.tryConsume(config, now));
+        assertEquals(-1, bucket.tryConsume(config, now));
+    }
+
+    @Test
+    void tryConsume_AfterPause_RefillsAtReplenishRate() {
+        LocalRateLimiter.Bucket bucket = new LocalRateLimiter.Bucket(3);
+        long now = System.nanoTime();
+        for (int i = 0; i < 3; i++) {
+            bucket.tryConsume(config, now);
+        }
+
+        // полсекунды при 2 токенах/с — ровно один токен
+        assertEquals(0, bucket.tryConsume(config, now + SECOND / 2));
+        assertEquals(-1, bucket.tryConsume(config, now + SECOND / 2));
+        // дробные токены копятся между запросами
+        assertEquals(-1, bucket.tryConsume(config, now + SECOND / 2 + SECOND / 4));
+        assertEquals(0, bucket.tryConsume(config, now + SECOND));
+    }
+
+    @Test
+    void tryConsume_LongIdle_RefillCappedAtBurstCapacity() {
+        LocalRateLimiter.Bucket bucket = new LocalRateLimiter.Bucket(3);
+        long now = System.nanoTime();
+        bucket.tryConsume(config, now);
+
+        long later = now + 60 * SECOND;
+        assertEquals(2, bucket.tryConsume(config, later));
+        assertEquals(1, bucket.tryConsume(config, later));
+        assertEquals(0, bucket.tryConsume(config, later));
+        assertEquals(-1, bucket.tryConsume(config, later));
+    }
+
+    @Test
+    void tryConsume_RequestedTokens_ChargedPerRequest() {
+        LocalRateLimiter.Config expensive = new LocalRateLimiter.Config()
+                .setReplenishRate(1)
+                .setBurstCapacity(5)
+                .setRequestedTokens(2);
+        LocalRateLimiter.Bucket bucket = new LocalRateLimiter.Bucket(5);
+        long now = System.nanoTime();
+
+        assertEquals(3, bucket.tryConsume(expensive, now));
+        assertEquals(1, bucket.tryConsume(expensive, now));
+        assertEquals(-1, bucket.tryConsume(expensive, now));
+    }
+
+    @Test
+    void isAllowed_BucketsSeparatedByRouteAndKey() {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setReplenishRate(1);
+        properties.setBurstCapacity(1);
+        LocalRateLimiter limiter = new LocalRateLimiter(new ConfigurationService(new DefaultListableBeanFactory(),
+                DefaultConversionService::new, () -> null), properties);
+
+        assertTrue(limiter.isAllowed("tasks", "user:alice").block().isAllowed());
+        RateLimiter.Response rejected = limiter.isAllowed("tasks", "user:alice").block();
+        assertFalse(rejected.isAllowed());
+        assertEquals("0", rejected.getHeaders().get(LocalRateLimiter.REMAINING_HEADER));
+        assertEquals("1", rejected.getHeaders().get(LocalRateLimiter.BURST_CAPACITY_HEADER));
+
+        assertTrue(limiter.isAllowed("tasks", "user:bob").block().isAllowed());
+        assertTrue(limiter.isAllowed("analytics", "user:alice").block().isAllowed());
+    }
+}
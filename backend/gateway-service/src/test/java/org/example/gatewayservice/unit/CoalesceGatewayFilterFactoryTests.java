@@ -0,0 +1,113 @@
+package org.example.gatewayservice.unit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.gatewayservice.config.CoalesceGatewayFilterFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+class CoalesceGatewayFilterFactoryTests {
+
+    private static final Route ROUTE = Route.async().id("analytics").uri("http://analytics-service").predicate(exchange -> true).build();
+
+    private GatewayFilter filter;
+    private final AtomicInteger serviceCalls = new AtomicInteger();
+    // лидер отвечает только после того, как ожидающий встал в очередь
+    private final Sinks.Empty<Void> release = Sinks.empty();
+
+    @BeforeEach
+    void setUp() {
+        CoalesceGatewayFilterFactory.Config config = new CoalesceGatewayFilterFactory.Config();
+        config.setMaxBodySize(DataSize.ofBytes(16));
+        filter = new CoalesceGatewayFilterFactory(new SimpleMeterRegistry()).apply(config);
+    }
+
+    @Test
+    void get_ConcurrentIdentical_ServedByOneServiceCall() {
+        GatewayFilterChain service = respond(MediaType.APPLICATION_JSON, "{\"a\":1}");
+
+        MockServerWebExchange waiter = get();
+        String[] bodies = runLeaderAndWaiter(service, waiter);
+
+        assertEquals(1, serviceCalls.get());
+        assertEquals("{\"a\":1}", bodies[0]);
+        assertEquals("{\"a\":1}", bodies[1]);
+    }
+
+    @Test
+    void get_ChunkedBodyOverLimit_WaiterCallsServiceItself() {
+        GatewayFilterChain service = respond(MediaType.APPLICATION_JSON, "[\"0123456789\",", "\"0123456789\"]");
+
+        String[] bodies = runLeaderAndWaiter(service, get());
+
+        assertEquals(2, serviceCalls.get());
+        assertEquals("[\"0123456789\",\"0123456789\"]", bodies[0]);
+        assertEquals("[\"0123456789\",\"0123456789\"]", bodies[1]);
+    }
+
+    @Test
+    void get_EventStreamWithoutSseAccept_WaiterCallsServiceItself() {
+        GatewayFilterChain service = respond(MediaType.TEXT_EVENT_STREAM, "data: 1\n\n");
+
+        String[] bodies = runLeaderAndWaiter(service, get());
+
+        assertEquals(2, serviceCalls.get());
+        assertEquals("data: 1\n\n", bodies[0]);
+        assertEquals("data: 1\n\n", bodies[1]);
+    }
+
+    private String[] runLeaderAndWaiter(GatewayFilterChain service, MockServerWebExchange waiter) {
+        MockServerWebExchange leader = get();
+        CompletableFuture<Void> leading = filter.filter(leader, service).toFuture();
+        CompletableFuture<Void> waiting = filter.filter(waiter, service).toFuture();
+        release.tryEmitEmpty();
+        leading.join();
+        waiting.join();
+        return new String[]{body(leader), body(waiter)};
+    }
+
+    private static MockServerWebExchange get() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/analytics/summary")
+                .header("Authorization", "Bearer token"));
+        exchange.getAttributes().put(GATEWAY_ROUTE_ATTR, ROUTE);
+        return exchange;
+    }
+
+    private GatewayFilterChain respond(MediaType contentType, String... chunks) {
+        return exchange -> release.asMono().then(Mono.defer(() -> {
+            serviceCalls.incrementAndGet();
+            ServerHttpResponse response = exchange.getResponse();
+            response.setStatusCode(HttpStatus.OK);
+            response.getHeaders().setContentType(contentType);
+            return response.writeWith(Flux.just(chunks).map(CoalesceGatewayFilterFactoryTests::buffer));
+        }));
+    }
+
+    private static DataBuffer buffer(String value) {
+        return DefaultDataBufferFactory.sharedInstance.wrap(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String body(MockServerWebExchange exchange) {
+        return exchange.getResponse().getBodyAsString().block();
+    }
+}
@@ -0,0 +1,65 @@
+package org.example.gatewayservice.unit;
+
+import org.example.gatewayservice.util.PublicPathMatcher;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PublicPathMatcherTests {
+
+    private final PublicPathMatcher matcher = new PublicPathMatcher(List.of(
+            "/api/auth/signIn", "/favicon.ico", "/public/**", "/actuator/**"));
+
+    @Test
+    void matches_AnySuffixRule_CoversBaseAndEverythingUnderIt() {
+        assertTrue(matcher.matches("/public"));
+        assertTrue(matcher.matches("/public/"));
+        assertTrue(matcher.matches("/public/logo.svg"));
+        assertTrue(matcher.matches("/public/img/a/b.png"));
+        assertTrue(matcher.matches("/actuator/health"));
+    }
+
+    @Test
+    void matches_AnySuffixRule_DoesNotCoverSiblingWithSamePrefix() {
+        assertFalse(matcher.matches("/publicity"));
+        assertFalse(matcher.matches("/publi"));
+        assertFalse(matcher.matches("/actuators"));
+        assertFalse(matcher.matches("/api/public/x"));
+    }
+
+    @Test
+    void matches_ExactRule_OnlyWholePath() {
+        assertTrue(matcher.matches("/api/auth/signIn"));
+        assertTrue(matcher.matches("/favicon.ico"));
+
+        assertFalse(matcher.matches("/api/auth/signIn/"));
+        assertFalse(matcher.matches("/api/auth/signInX"));
+        assertFalse(matcher.matches("/api/auth/sign"));
+        assertFalse(matcher.matches("/api/auth"));
+        assertFalse(matcher.matches("/favicon.ico/x"));
+        // регистр значим, как и в маршрутах gateway
+        assertFalse(matcher.matches("/api/auth/signin"));
+    }
+
+    @Test
+    void matches_EmptyAndRootPaths_NotPublic() {
+        assertFalse(matcher.matches(""));
+        assertFalse(matcher.matches("/"));
+        assertFalse(new PublicPathMatcher(List.of()).matches("/public/x"));
+    }
+
+    @Test
+    void matches_NonAsciiPath_PublicOnlyUnderAnySuffixRule() {
+        assertTrue(matcher.matches("/public/отчёт.pdf"));
+        assertFalse(matcher.matches("/api/auth/вход"));
+        assertFalse(matcher.matches("/публичное/x"));
+        assertFalse(matcher.matches("/favicon.icoé"));
+    }
+
+    @Test
+    void constructor_NonAsciiPattern_Rejected() {
+        assertThrows(IllegalArgumentException.class, () -> new PublicPathMatcher(List.of("/публичное/**")));
+    }
+}
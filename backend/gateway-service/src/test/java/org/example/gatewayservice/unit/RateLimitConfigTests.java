@@ -0,0 +1,60 @@
+package org.example.gatewayservice.unit;
+
+import org.example.gatewayservice.config.RateLimitConfig;
+import org.example.gatewayservice.util.JwtClaims;
+import org.example.gatewayservice.util.Role;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.ratelimit.KeyResolver;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+
+import java.net.InetSocketAddress;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RateLimitConfigTests {
+
+    private final KeyResolver resolver = new RateLimitConfig().userKeyResolver();
+
+    @Test
+    void resolve_AuthenticatedWithClaims_KeyedByUserId() {
+        UUID userId = UUID.randomUUID();
+        UsernamePasswordAuthenticationToken authentication =
+                new UsernamePasswordAuthenticationToken("alice", null, List.of());
+        authentication.setDetails(new JwtClaims(userId, "alice", List.of(Role.ROLE_USER), Instant.now().plusSeconds(60)));
+        MockServerWebExchange exchange = MockServerWebExchange.builder(MockServerHttpRequest.get("/api/tasks")
+                        .remoteAddress(new InetSocketAddress("10.0.0.7", 50000)))
+                .principal(authentication)
+                .build();
+
+        assertEquals("user:" + userId, resolver.resolve(exchange).block());
+    }
+
+    @Test
+    void resolve_PrincipalWithoutClaims_KeyedByName() {
+        MockServerWebExchange exchange = MockServerWebExchange.builder(MockServerHttpRequest.get("/api/tasks"))
+                .principal(() -> "service-account")
+                .build();
+
+        assertEquals("user:service-account", resolver.resolve(exchange).block());
+    }
+
+    @Test
+    void resolve_Anonymous_KeyedByClientAddress() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/auth/signIn")
+                .remoteAddress(new InetSocketAddress("10.0.0.7", 50000)));
+
+        assertEquals("ip:10.0.0.7", resolver.resolve(exchange).block());
+    }
+
+    @Test
+    void resolve_AnonymousWithoutAddress_SharedAnonymousKey() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/auth/signIn"));
+
+        assertEquals("anonymous", resolver.resolve(exchange).block());
+    }
+}
@@ -0,0 +1,212 @@
+package org.example.gatewayservice.unit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.gatewayservice.config.ResponseCacheGatewayFilterFactory;
+import org.example.gatewayservice.config.ResponseCacheProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+class ResponseCacheGatewayFilterFactoryTests {
+
+    private static final String USER_HEADER = "X-Test-User";
+    private static final Route ROUTE = Route.async().id("tasks").uri("http://task-service").predicate(exchange -> true).build();
+
+    private GatewayFilter filter;
+    private final AtomicInteger serviceCalls = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        ResponseCacheGatewayFilterFactory factory = new ResponseCacheGatewayFilterFactory(new ResponseCacheProperties(),
+                exchange -> Mono.justOrEmpty(exchange.getRequest().getHeaders().getFirst(USER_HEADER)),
+                new SimpleMeterRegistry());
+        ResponseCacheGatewayFilterFactory.Config config = new ResponseCacheGatewayFilterFactory.Config();
+        config.setMaxBodySize(DataSize.ofBytes(16));
+        filter = factory.apply(config);
+    }
+
+    @Test
+    void get_RepeatedWithinTimeToLive_ServedFromCache() {
+        GatewayFilterChain service = respond("[1,2]", headers -> { });
+
+        MockServerWebExchange first = get("/tasks", "alice");
+        MockServerWebExchange second = get("/tasks", "alice");
+        filter.filter(first, service).block();
+        filter.filter(second, service).block();
+
+        assertEquals(1, serviceCalls.get());
+        assertEquals("[1,2]", body(second));
+        assertEquals(first.getResponse().getHeaders().getETag(), second.getResponse().getHeaders().getETag());
+        assertNotNull(second.getResponse().getHeaders().getFirst(HttpHeaders.AGE));
+    }
+
+    @Test
+    void get_SameUrlForAnotherUser_NotSharedBetweenUsers() {
+        GatewayFilterChain service = respond("[1,2]", headers -> headers.setCacheControl("private, max-age=5"));
+
+        filter.filter(get("/tasks", "alice"), service).block();
+        filter.filter(get("/tasks", "bob"), service).block();
+
+        assertEquals(2, serviceCalls.get());
+    }
+
+    @Test
+    void get_SharedMaxAgeOverridesZeroMaxAge_Cached() {
+        GatewayFilterChain service = respond("[1,2]", headers -> headers.setCacheControl("max-age=0, private, s-maxage=5"));
+
+        filter.filter(get("/tasks", "alice"), service).block();
+        filter.filter(get("/tasks", "alice"), service).block();
+
+        assertEquals(1, serviceCalls.get());
+    }
+
+    @Test
+    void get_NoStoreOrZeroMaxAge_NotCached() {
+        String[] forbidding = {"no-store", "No-Cache", "max-age=0", "s-maxage=0, max-age=60"};
+        for (int i = 0; i < forbidding.length; i++) {
+            String cacheControl = forbidding[i];
+            serviceCalls.set(0);
+            GatewayFilterChain service = respond("[1,2]", headers -> headers.setCacheControl(cacheControl));
+
+            filter.filter(get("/tasks?page=" + i, "alice"), service).block();
+            filter.filter(get("/tasks?page=" + i, "alice"), service).block();
+
+            assertEquals(2, serviceCalls.get(), cacheControl);
+        }
+    }
+
+    @Test
+    void get_IfNoneMatchWeakOrWildcard_AnswersNotModified() {
+        GatewayFilterChain service = respond("[1,2]", headers -> headers.setETag("\"v1\""));
+        filter.filter(get("/tasks", "alice"), service).block();
+
+        for (String ifNoneMatch : new String[]{"W/\"v1\"", "\"v0\", \"v1\"", "*"}) {
+            MockServerWebExchange conditional = MockServerWebExchange.from(MockServerHttpRequest.get("/tasks")
+                    .header(USER_HEADER, "alice")
+                    .header(HttpHeaders.IF_NONE_MATCH, ifNoneMatch));
+            conditional.getAttributes().put(GATEWAY_ROUTE_ATTR, ROUTE);
+
+            filter.filter(conditional, service).block();
+
+            assertEquals(HttpStatus.NOT_MODIFIED, conditional.getResponse().getStatusCode(), ifNoneMatch);
+            assertEquals("\"v1\"", conditional.getResponse().getHeaders().getETag());
+        }
+        assertEquals(1, serviceCalls.get());
+    }
+
+    @Test
+    void get_IfNoneMatchOtherEtag_ReplaysBody() {
+        GatewayFilterChain service = respond("[1,2]", headers -> headers.setETag("W/\"v1\""));
+        filter.filter(get("/tasks", "alice"), service).block();
+
+        MockServerWebExchange conditional = MockServerWebExchange.from(MockServerHttpRequest.get("/tasks")
+                .header(USER_HEADER, "alice")
+                .header(HttpHeaders.IF_NONE_MATCH, "\"v2\""));
+        conditional.getAttributes().put(GATEWAY_ROUTE_ATTR, ROUTE);
+        filter.filter(conditional, service).block();
+
+        assertEquals(HttpStatus.OK, conditional.getResponse().getStatusCode());
+        assertEquals("[1,2]", body(conditional));
+    }
+
+    @Test
+    void write_EvictsOnlyWritingUsersEntriesOnRoute() {
+        GatewayFilterChain service = respond("[1,2]", headers -> { });
+        filter.filter(get("/tasks", "alice"), service).block();
+        filter.filter(get("/tasks", "bob"), service).block();
+        assertEquals(2, serviceCalls.get());
+
+        MockServerWebExchange post = MockServerWebExchange.from(MockServerHttpRequest.post("/tasks").header(USER_HEADER, "alice"));
+        post.getAttributes().put(GATEWAY_ROUTE_ATTR, ROUTE);
+        filter.filter(post, service).block();
+        assertEquals(3, serviceCalls.get());
+
+        filter.filter(get("/tasks", "alice"), service).block();
+        filter.filter(get("/tasks", "bob"), service).block();
+        assertEquals(4, serviceCalls.get(), "only alice's list must be fetched again");
+    }
+
+    @Test
+    void get_ChunkedBodyOverLimit_PassedThroughUncached() {
+        String json = "[\"0123456789\",\"0123456789\"]";
+        GatewayFilterChain service = exchange -> {
+            serviceCalls.incrementAndGet();
+            ServerHttpResponse response = exchange.getResponse();
+            response.setStatusCode(HttpStatus.OK);
+            response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+            // без Content-Length, несколькими буферами
+            return response.writeWith(Flux.just(json.substring(0, 10), json.substring(10, 20), json.substring(20)).map(this::buffer));
+        };
+
+        MockServerWebExchange first = get("/tasks", "alice");
+        filter.filter(first, service).block();
+        filter.filter(get("/tasks", "alice"), service).block();
+
+        assertEquals(json, body(first));
+        assertEquals(2, serviceCalls.get());
+    }
+
+    @Test
+    void get_EventStreamWithoutSseAccept_PassedThroughUncached() {
+        GatewayFilterChain service = exchange -> {
+            serviceCalls.incrementAndGet();
+            ServerHttpResponse response = exchange.getResponse();
+            response.setStatusCode(HttpStatus.OK);
+            response.getHeaders().setContentType(MediaType.TEXT_EVENT_STREAM);
+            return response.writeWith(Flux.just("data: 1\n\n", "data: 2\n\n").map(this::buffer));
+        };
+
+        MockServerWebExchange first = get("/analytics/stream", "alice");
+        filter.filter(first, service).block();
+        filter.filter(get("/analytics/stream", "alice"), service).block();
+
+        assertEquals("data: 1\n\ndata: 2\n\n", body(first));
+        assertNull(first.getResponse().getHeaders().getETag());
+        assertEquals(2, serviceCalls.get());
+    }
+
+    private MockServerWebExchange get(String uri, String user) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get(uri).header(USER_HEADER, user));
+        exchange.getAttributes().put(GATEWAY_ROUTE_ATTR, ROUTE);
+        return exchange;
+    }
+
+    private GatewayFilterChain respond(String body, Consumer<HttpHeaders> headers) {
+        return exchange -> {
+            serviceCalls.incrementAndGet();
+            ServerHttpResponse response = exchange.getResponse();
+            response.setStatusCode(HttpStatus.OK);
+            response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+            headers.accept(response.getHeaders());
+            return response.writeWith(Mono.just(buffer(body)));
+        };
+    }
+
+    private DataBuffer buffer(String value) {
+        return DefaultDataBufferFactory.sharedInstance.wrap(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String body(MockServerWebExchange exchange) {
+        return exchange.getResponse().getBodyAsString().block();
+    }
+}
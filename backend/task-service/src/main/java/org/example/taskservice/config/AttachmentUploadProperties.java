@@ -0,0 +1,24 @@
+package org.example.taskservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "attachments.upload")
+public class AttachmentUploadProperties {
+
+    /** Сколько файлов одновременно загружается в MinIO (на все запросы сервиса). */
+    private int concurrency = 4;
+
+    /** Очередь загрузок сверх concurrency; при переполнении загрузку выполняет поток запроса. */
+    private int queueCapacity = 64;
+
+    /**
+     * Размер части multipart-загрузки. MinIO-клиент буферизует одну часть на файл,
+     * так что память на загрузки ограничена concurrency * partSize независимо от размера файлов.
+     */
+    private DataSize partSize = DataSize.ofMegabytes(10);
+}
@@ -0,0 +1,17 @@
+package org.example.taskservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "tasks.bulk")
+public class BulkImportProperties {
+
+    /** Сколько задач уходит в Mongo одним bulkWrite. */
+    private int chunkSize = 500;
+
+    /** ordered=true останавливает чанк на первой ошибке, остальные элементы не вставляются. */
+    private boolean ordered = false;
+}
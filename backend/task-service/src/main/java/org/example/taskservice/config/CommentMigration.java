@@ -0,0 +1,110 @@
+package org.example.taskservice.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.example.taskservice.model.Comment;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Переносит комментарии, встроенные в документы tasks (поле {@code comments}), в коллекцию comments.
+ * Идемпотентна: комментарии upsert-ятся по id, после переноса поле снимается через $unset,
+ * поэтому повторный или параллельный запуск на нескольких инстансах безопасен.
+ * Поиск {@code comments exists} идёт без индекса полным просмотром tasks, поэтому после успешного
+ * переноса в коллекцию migrations пишется отметка, и следующие старты читают только её по _id.
+ */
+@Slf4j
+@Component
+@Order(0)
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "comments.migration", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class CommentMigration implements ApplicationRunner {
+
+    private static final String TASKS_COLLECTION = "tasks";
+    private static final String EMBEDDED_FIELD = "comments";
+    private static final String MIGRATIONS_COLLECTION = "migrations";
+    private static final String MIGRATION_ID = "embedded-comments-to-collection";
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        Query marker = new Query(Criteria.where("_id").is(MIGRATION_ID));
+        if (mongoTemplate.exists(marker, MIGRATIONS_COLLECTION)) {
+            return;
+        }
+
+        Query query = new Query(Criteria.where(EMBEDDED_FIELD).exists(true));
+        query.fields().include("_id").include(EMBEDDED_FIELD);
+
+        int tasks = 0;
+        int comments = 0;
+        // курсор вместо find: старых задач может быть много, в память их не собираем
+        try (Stream<Document> stream = mongoTemplate.stream(query, Document.class, TASKS_COLLECTION)) {
+            for (Document task : (Iterable<Document>) stream::iterator) {
+                comments += migrateTask(task);
+                tasks++;
+            }
+        }
+        if (tasks > 0) {
+            log.info("Task-service: перенесено {} комментариев из {} задач в коллекцию comments", comments, tasks);
+        }
+        // отметка только после полного прохода: если старт упал посреди переноса, следующий продолжит
+        mongoTemplate.upsert(marker, new Update().setOnInsert("completedAt", Instant.now()), MIGRATIONS_COLLECTION);
+    }
+
+    private int migrateTask(Document task) {
+        String taskId = task.get("_id").toString();
+        List<Document> embedded = task.getList(EMBEDDED_FIELD, Document.class, List.of());
+
+        if (!embedded.isEmpty()) {
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Comment.class);
+            for (Document source : embedded) {
+                Comment comment = toComment(source, taskId);
+                bulk.upsert(new Query(Criteria.where("id").is(comment.getId())), new Update()
+                        .set("taskId", comment.getTaskId())
+                        .set("content", comment.getContent())
+                        .set("authorId", comment.getAuthorId())
+                        .set("createdAt", comment.getCreatedAt())
+                        .set("updatedAt", comment.getUpdatedAt()));
+            }
+            bulk.execute();
+        }
+
+        mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(task.get("_id"))),
+                new Update().unset(EMBEDDED_FIELD), TASKS_COLLECTION);
+        return embedded.size();
+    }
+
+    private Comment toComment(Document source, String taskId) {
+        Comment comment = new Comment();
+        // вложенный id маппился Spring Data в _id, но у старых записей мог остаться и id
+        Object id = source.get("_id") != null ? source.get("_id") : source.get("id");
+        comment.setId(id != null ? id.toString() : UUID.randomUUID().toString());
+        comment.setTaskId(taskId);
+        comment.setContent(source.getString("content"));
+        comment.setAuthorId(source.getString("authorId"));
+        comment.setCreatedAt(toInstant(source.get("createdAt")));
+        comment.setUpdatedAt(toInstant(source.get("updatedAt")));
+        return comment;
+    }
+
+    private static Instant toInstant(Object value) {
+        return value instanceof Date date ? date.toInstant() : null;
+    }
+}
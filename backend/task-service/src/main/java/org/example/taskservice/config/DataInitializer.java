@@ -7,6 +7,7 @@ import org.example.events.enums.TaskPriority;
 import org.example.events.enums.TaskStatus;
 import org.example.taskservice.model.Comment;
 import org.example.taskservice.model.Task;
+import org.example.taskservice.repository.CommentRepository;
 import org.example.taskservice.repository.TaskRepository;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.context.annotation.Bean;
@@ -38,11 +39,11 @@ public class DataInitializer {
     private static final String USER4_ID = "66666666-6666-6666-6666-666666666666";
 
     @Bean
-    public CommandLineRunner seedTasks(TaskRepository taskRepository) {
-        return args -> seedIfEmpty(taskRepository);
+    public CommandLineRunner seedTasks(TaskRepository taskRepository, CommentRepository commentRepository) {
+        return args -> seedIfEmpty(taskRepository, commentRepository);
     }
 
-    void seedIfEmpty(TaskRepository taskRepository) {
+    void seedIfEmpty(TaskRepository taskRepository, CommentRepository commentRepository) {
         if (taskRepository.count() > 0) {
             log.info("Task-service: коллекция tasks уже заполнена, наполнение пропущено");
             return;
@@ -201,8 +202,15 @@ public class DataInitializer {
                 .map(this::toTask)
                 .toList();
 
-        taskRepository.saveAll(tasks);
-        log.info("Task-service: создано {} задач по умолчанию", tasks.size());
+        List<Task> savedTasks = taskRepository.saveAll(tasks);
+
+        List<Comment> comments = new ArrayList<>();
+        for (int i = 0; i < seeds.size(); i++) {
+            String taskId = savedTasks.get(i).getId();
+            seeds.get(i).comments().forEach(c -> comments.add(toComment(c, taskId)));
+        }
+        commentRepository.saveAll(comments);
+        log.info("Task-service: создано {} задач и {} комментариев по умолчанию", savedTasks.size(), comments.size());
     }
 
     private Task toTask(TaskSeed seed) {
@@ -218,16 +226,13 @@ public class DataInitializer {
         task.setUpdatedAt(seed.updatedAt());
         task.setDueDate(seed.dueDate());
         task.setTags(seed.tags());
-
-        List<Comment> comments = new ArrayList<>();
-        seed.comments().forEach(c -> comments.add(toComment(c)));
-        task.setComments(comments);
         return task;
     }
 
-    private Comment toComment(SeedComment c) {
+    private Comment toComment(SeedComment c, String taskId) {
         Comment comment = new Comment();
         comment.setId(c.id());
+        comment.setTaskId(taskId);
         comment.setAuthorId(c.authorId());
         comment.setContent(c.content());
         comment.setCreatedAt(c.createdAt());
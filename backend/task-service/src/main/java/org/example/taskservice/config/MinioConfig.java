@@ -3,9 +3,14 @@ package org.example.taskservice.config;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import io.minio.MinioClient;
 
+import java.util.concurrent.ThreadPoolExecutor;
+
 @Configuration
 public class MinioConfig {
 
@@ -24,4 +29,26 @@ public class MinioConfig {
                 .build();
     }
 
+    @Bean
+    public ThreadPoolTaskExecutor attachmentUploadExecutor(AttachmentUploadProperties properties) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(properties.getConcurrency());
+        executor.setMaxPoolSize(properties.getConcurrency());
+        executor.setQueueCapacity(properties.getQueueCapacity());
+        executor.setThreadNamePrefix("attachment-upload-");
+        // переполнение — обратное давление на запрос, а не отказ
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        return executor;
+    }
+
+    /** objectName -> подписанная ссылка; TTL короче срока подписи на refreshMargin. */
+    @Bean
+    public Cache<String, String> presignedUrlCache(PresignedUrlProperties properties) {
+        return Caffeine.newBuilder()
+                .maximumSize(properties.getMaxSize())
+                .expireAfterWrite(properties.getExpiry().minus(properties.getRefreshMargin()))
+                .build();
+    }
+
 }
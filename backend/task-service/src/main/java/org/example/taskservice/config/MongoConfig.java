@@ -1,11 +1,24 @@
 package org.example.taskservice.config;
 
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.MongoTransactionManager;
 import org.springframework.data.mongodb.config.EnableMongoAuditing;
 
 @Configuration
 @EnableMongoAuditing
 public class MongoConfig {
 
+    /**
+     * С менеджером {@link org.example.taskservice.service.MongoTransactions} пишет задачу и её события
+     * в outbox атомарно, повторяя транзакцию при конфликте записи. Отключается через
+     * outbox.transactional=false для standalone Mongo.
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "outbox", name = "transactional", havingValue = "true", matchIfMissing = true)
+    public MongoTransactionManager transactionManager(MongoDatabaseFactory databaseFactory) {
+        return new MongoTransactionManager(databaseFactory);
+    }
 }
-    
\ No newline at end of file
@@ -0,0 +1,28 @@
+package org.example.taskservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "outbox")
+public class OutboxProperties {
+
+    /** Mongo-транзакции для записи вместе с outbox; требуют replica set (в docker-compose — одноузловой rs0). */
+    private boolean transactional = true;
+
+    /** Сколько событий релей забирает из outbox за один проход. */
+    private int batchSize = 500;
+
+    /** После стольких неудачных отправок событие уходит в outbox_dead_letter и перестаёт держать свой ключ. */
+    private int maxAttempts = 10;
+
+    /**
+     * Аренда релея: публикует только один инстанс, чтобы сохранить порядок событий по ключу.
+     * Должна быть больше delivery.timeout.ms продюсера, иначе аренду заберут посреди отправки.
+     */
+    private Duration leaseTime = Duration.ofSeconds(90);
+}
@@ -0,0 +1,22 @@
+package org.example.taskservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "attachments.presigned-url")
+public class PresignedUrlProperties {
+
+    /** Срок жизни подписанной ссылки, который указывается MinIO при подписи. */
+    private Duration expiry = Duration.ofHours(1);
+
+    /** Ссылка уходит из кэша раньше истечения, чтобы клиент успел ею воспользоваться. */
+    private Duration refreshMargin = Duration.ofMinutes(5);
+
+    /** Предел числа закэшированных ссылок; сверх него вытесняются редко запрашиваемые. */
+    private long maxSize = 10_000;
+}
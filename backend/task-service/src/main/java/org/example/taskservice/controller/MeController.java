@@ -4,7 +4,9 @@ package org.example.taskservice.controller;
 import jakarta.validation.constraints.Min;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.example.taskservice.dto.response.CursorPageResponse;
 import org.example.taskservice.dto.response.task.TaskResponse;
+import org.example.taskservice.dto.response.task.TaskSummaryResponse;
 import org.example.taskservice.model.UserDetailsImpl;
 import org.example.taskservice.service.TaskService;
 import org.springframework.data.domain.Page;
@@ -51,7 +53,7 @@ public class MeController {
 
     @GetMapping("")
     @PreAuthorize("hasRole('USER')")
-    public ResponseEntity<Page<TaskResponse>> getMyTasks(
+    public ResponseEntity<Page<TaskSummaryResponse>> getMyTasks(
             @RequestParam(defaultValue = "0") @Min(0) int page,
             @RequestParam(defaultValue = "10") @Min(1) int size,
             @RequestParam(required = false) String status,
@@ -65,9 +67,28 @@ public class MeController {
                 department));
     }
 
+    @GetMapping("/scroll")
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<CursorPageResponse<TaskSummaryResponse>> scrollMyTasks(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") @Min(1) int size,
+            @RequestParam(defaultValue = "false") boolean includeTotal,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String department,
+            @AuthenticationPrincipal UserDetailsImpl principal) {
+        log.info("scrollMyTasks userId={}, username={}, size={}, includeTotal={}, status={}, department={}",
+                principal.getId(), principal.getUsername(), size, includeTotal, status, department);
+        return ResponseEntity.ok(taskService.scrollMyTasks(principal.getId(),
+                cursor,
+                size,
+                includeTotal,
+                status,
+                department));
+    }
+
     @GetMapping("/history")
     @PreAuthorize("hasRole('USER')")
-    public ResponseEntity<Page<TaskResponse>> getMyTaskHistory(
+    public ResponseEntity<Page<TaskSummaryResponse>> getMyTaskHistory(
             @RequestParam(defaultValue = "0") @Min(0) int page,
             @RequestParam(defaultValue = "10") @Min(1) int size,
             @AuthenticationPrincipal UserDetailsImpl principal
@@ -78,7 +99,7 @@ public class MeController {
 
     @GetMapping("/available-tasks")
     @PreAuthorize("hasRole('USER')")
-    public ResponseEntity<Page<TaskResponse>> getAvailableTasks(
+    public ResponseEntity<Page<TaskSummaryResponse>> getAvailableTasks(
             @RequestParam(defaultValue = "0") @Min(0) int page,
             @RequestParam(defaultValue = "10") @Min(1) int size,
             @RequestParam(required = false) String department) {
@@ -5,22 +5,34 @@ import jakarta.validation.constraints.Min;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.example.taskservice.dto.request.task.CreateTaskRequest;
+import org.example.taskservice.dto.request.task.ExportFormat;
 import org.example.taskservice.dto.request.task.UpdateAssigneesRequest;
 import org.example.taskservice.dto.request.task.UpdateStatusRequest;
 import org.example.taskservice.dto.request.task.UpdateTaskRequest;
+import org.example.taskservice.dto.response.CursorPageResponse;
+import org.example.taskservice.dto.response.task.BulkCreateTasksResponse;
 import org.example.taskservice.dto.response.task.TaskResponse;
+import org.example.taskservice.dto.response.task.TaskSummaryResponse;
 import org.example.taskservice.model.UserDetailsImpl;
+import org.example.taskservice.service.TaskBulkImportService;
 import org.example.taskservice.service.TaskService;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import io.swagger.v3.oas.annotations.tags.Tag;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
 import java.util.List;
 
 @RestController
@@ -29,11 +41,17 @@ import java.util.List;
 @Slf4j
 @Tag(name = "Tasks", description = "Task management operations")
 public class TaskController {
+    // список пользовательский (private): браузер перепроверяет его каждый раз (max-age=0), шлюз кэширует
+    // по пользователю на s-maxage, отвечает 304 по ETag и сбрасывает запись при записи через тот же маршрут
+    private static final CacheControl LIST_CACHE_CONTROL = CacheControl.maxAge(Duration.ZERO).cachePrivate()
+            .sMaxAge(Duration.ofSeconds(5));
+
     private final TaskService taskService;
+    private final TaskBulkImportService taskBulkImportService;
 
     @GetMapping
     @PreAuthorize("hasRole('USER')")
-    public ResponseEntity<Page<TaskResponse>> getTasks(
+    public ResponseEntity<Page<TaskSummaryResponse>> getTasks(
             @RequestParam(defaultValue = "0") @Min(0) int page,
             @RequestParam(defaultValue = "20") @Min(1) int size,
             @RequestParam(defaultValue = "createdAt,desc") String sort,
@@ -45,7 +63,7 @@ public class TaskController {
             @RequestParam(required = false) String department) {
         log.info("Retrieving tasks: page={}, size={}, sort={}, search={}, status={}, priority={}, assigneeId={}, creatorId={}, department={}",
                 page, size, sort, search, status, priority, assigneeId, creatorId, department);
-        return ResponseEntity.ok(
+        return ResponseEntity.ok().cacheControl(LIST_CACHE_CONTROL).body(
                 taskService.getTasks(
                         page,
                         size,
@@ -59,11 +77,61 @@ public class TaskController {
                 ));
     }
 
-    @GetMapping("/all")
+    @GetMapping("/scroll")
     @PreAuthorize("hasRole('USER')")
-    public ResponseEntity<List<TaskResponse>> getAllTasks() {
-        log.info("Retrieving all tasks for");
-        return ResponseEntity.ok(taskService.getAllTasks());
+    public ResponseEntity<CursorPageResponse<TaskSummaryResponse>> scrollTasks(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") @Min(1) int size,
+            @RequestParam(defaultValue = "createdAt,desc") String sort,
+            @RequestParam(defaultValue = "false") boolean includeTotal,
+            @RequestParam(required = false) String search,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String priority,
+            @RequestParam(required = false) String assigneeId,
+            @RequestParam(required = false) String creatorId,
+            @RequestParam(required = false) String department) {
+        log.info("Scrolling tasks: size={}, sort={}, includeTotal={}, search={}, status={}, priority={}, assigneeId={}, creatorId={}, department={}",
+                size, sort, includeTotal, search, status, priority, assigneeId, creatorId, department);
+        return ResponseEntity.ok(
+                taskService.scrollTasks(
+                        cursor,
+                        size,
+                        sort,
+                        includeTotal,
+                        search,
+                        status,
+                        priority,
+                        assigneeId,
+                        creatorId,
+                        department
+                ));
+    }
+
+    @GetMapping(value = "/all", produces = MediaType.APPLICATION_JSON_VALUE)
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<StreamingResponseBody> getAllTasks() {
+        log.info("Streaming all tasks");
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(taskService::writeAllTasks);
+    }
+
+    @GetMapping("/export")
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<StreamingResponseBody> exportTasks(
+            @RequestParam(defaultValue = "NDJSON") ExportFormat format,
+            @RequestParam(required = false) String search,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String priority,
+            @RequestParam(required = false) String assigneeId,
+            @RequestParam(required = false) String creatorId,
+            @RequestParam(required = false) String department) {
+        log.info("Exporting tasks: format={}, search={}, status={}, priority={}, assigneeId={}, creatorId={}, department={}",
+                format, search, status, priority, assigneeId, creatorId, department);
+        return ResponseEntity.ok()
+                .contentType(format.mediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"tasks." + format.extension() + "\"")
+                .body(out -> taskService.exportTasks(out, format, search, status, priority, assigneeId, creatorId, department));
     }
 
     @GetMapping("/{id}")
@@ -127,7 +195,7 @@ public class TaskController {
 
     @GetMapping("/assignee/{userId}")
     @PreAuthorize("hasRole('USER')")
-    public ResponseEntity<Page<TaskResponse>> getTasksByAssignee(
+    public ResponseEntity<Page<TaskSummaryResponse>> getTasksByAssignee(
             @PathVariable String userId,
             @RequestParam(defaultValue = "0") @Min(0) int page,
             @RequestParam(defaultValue = "10") @Min(1) int size,
@@ -148,20 +216,20 @@ public class TaskController {
         return ResponseEntity.ok(taskService.updateAssignees(id, request));
     }
 
-    @PostMapping("/bulk")
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
     @PreAuthorize("hasRole('ADMIN')")
     @ResponseStatus(HttpStatus.CREATED)
-    public ResponseEntity<List<TaskResponse>> createBulkTasks(
-            @Valid @RequestBody List<CreateTaskRequest> requests,
-            @AuthenticationPrincipal UserDetailsImpl userDetails) {
-        log.info("Creating {} tasks in bulk, user={}", requests.size(), userDetails.getUsername());
+    public ResponseEntity<BulkCreateTasksResponse> createBulkTasks(
+            InputStream body,
+            @AuthenticationPrincipal UserDetailsImpl userDetails) throws IOException {
+        log.info("Creating tasks in bulk, user={}", userDetails.getUsername());
         return ResponseEntity.status(HttpStatus.CREATED)
-                .body(taskService.createBulkTasks(requests, userDetails.getId()));
+                .body(taskBulkImportService.importTasks(body, userDetails.getId()));
     }
 
     @GetMapping("/{id}/history")
     @PreAuthorize("hasRole('USER')")
-    public ResponseEntity<Page<TaskResponse>> getTaskHistory(
+    public ResponseEntity<Page<TaskSummaryResponse>> getTaskHistory(
             @PathVariable String id,
             @RequestParam(defaultValue = "0") @Min(0) int page,
             @RequestParam(defaultValue = "10") @Min(1) int size) {
@@ -171,7 +239,7 @@ public class TaskController {
 
     @GetMapping("/due-soon")
     @PreAuthorize("hasRole('USER')")
-    public ResponseEntity<Page<TaskResponse>> getDueSoonTasks(
+    public ResponseEntity<Page<TaskSummaryResponse>> getDueSoonTasks(
             @RequestParam(defaultValue = "24") @Min(1) long hours,
             @RequestParam(defaultValue = "0") @Min(0) int page,
             @RequestParam(defaultValue = "10") @Min(1) int size,
@@ -0,0 +1,16 @@
+package org.example.taskservice.dto.response;
+
+import java.util.List;
+
+/**
+ * Страница keyset-пагинации. {@code nextCursor} передаётся обратно как {@code cursor},
+ * {@code totalElements} заполняется только по запросу клиента.
+ */
+public record CursorPageResponse<T>(
+        List<T> content,
+        int size,
+        String nextCursor,
+        boolean hasNext,
+        Long totalElements
+) {
+}
@@ -0,0 +1,16 @@
+package org.example.taskservice.dto.response.task;
+
+import java.util.List;
+
+/**
+ * Итог импорта. {@code error} заполняется, если разбор тела оборвался на середине массива:
+ * всё, что было прочитано до этого места, уже обработано и есть в {@code results}.
+ */
+public record BulkCreateTasksResponse(
+        int received,
+        int created,
+        int failed,
+        String error,
+        List<BulkTaskResult> results
+) {
+}
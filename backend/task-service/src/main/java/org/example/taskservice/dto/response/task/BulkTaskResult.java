@@ -0,0 +1,21 @@
+package org.example.taskservice.dto.response.task;
+
+public record BulkTaskResult(
+        int index,
+        String id,
+        Status status,
+        String error
+) {
+    public enum Status {
+        CREATED,
+        FAILED
+    }
+
+    public static BulkTaskResult created(int index, String id) {
+        return new BulkTaskResult(index, id, Status.CREATED, null);
+    }
+
+    public static BulkTaskResult failed(int index, String error) {
+        return new BulkTaskResult(index, null, Status.FAILED, error);
+    }
+}
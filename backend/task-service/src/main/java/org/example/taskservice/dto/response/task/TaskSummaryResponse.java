@@ -0,0 +1,26 @@
+package org.example.taskservice.dto.response.task;
+
+import org.example.events.enums.Department;
+import org.example.events.enums.TaskPriority;
+import org.example.events.enums.TaskStatus;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Строка списка задач: без описания и комментариев, полная карточка — GET /tasks/{id}.
+ */
+public record TaskSummaryResponse(
+        String id,
+        String title,
+        TaskStatus status,
+        TaskPriority priority,
+        Set<String> assigneeIds,
+        String creatorId,
+        Department department,
+        Instant createdAt,
+        Instant dueDate,
+        List<String> tags
+) {
+}
@@ -18,94 +18,111 @@ import org.example.events.task.TaskSubscribedEvent;
 import org.example.events.task.TaskUnsubscribedEvent;
 import org.example.events.task.TaskUpdatedEvent;
 import org.example.taskservice.kafka.KafkaTopicsProperties;
-import org.springframework.kafka.core.KafkaTemplate;
+import org.example.taskservice.model.OutboxEvent;
+import org.example.taskservice.repository.OutboxRepository;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
 
+
+/**
+ * Публикует события через outbox: sendEvent только пишет документ в коллекцию outbox (в транзакции
+ * вызывающего метода), а в Kafka их доставляет {@link OutboxRelay}. Поэтому ответ API не ждёт брокер.
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class KafkaProducerService {
-    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final OutboxRepository outboxRepository;
     private final KafkaTopicsProperties topics;
 
     public <T> void sendEvent(String topic, String key, T event) {
-        log.info("Sending event to topic {}: {}", topic, event);
-        kafkaTemplate.send(topic,key, event)
-                .whenComplete((result, ex) -> {
-                    if (ex != null) {
-                        log.error("Ошибка при отправке события {} в топик {}: {}", event, topic, ex.getMessage(), ex);
-                    } else {
-                        log.info("Событие {} отправлено в топик {} partition={} offset={}",
-                                event, topic,
-                                result.getRecordMetadata().partition(),
-                                result.getRecordMetadata().offset());
-                    }
-                });
+        log.debug("Enqueueing event to topic {}: {}", topic, event);
+        outboxRepository.insert(OutboxEvent.of(topic, key, event));
+    }
+
+    /** Одним insertMany — для массовых операций, где события набираются пачкой. */
+    public void sendEvents(List<OutboxEvent> events) {
+        if (!events.isEmpty()) {
+            log.debug("Enqueueing {} events", events.size());
+            outboxRepository.insert(events);
+        }
+    }
+
+    public OutboxEvent taskCreatedEvent(String key, TaskCreatedEvent event) {
+        return OutboxEvent.of(topics.getTaskCreated(), key, event);
+    }
+
+    public OutboxEvent taskSubscribedEvent(String key, TaskSubscribedEvent event) {
+        return OutboxEvent.of(topics.getTaskSubscribed(), key, event);
+    }
+
+    public OutboxEvent attachmentAddedEvent(String key, AttachmentAddedEvent event) {
+        return OutboxEvent.of(topics.getAttachmentAdded(), key, event);
     }
 
     public void sendTaskCreatedEvent(String key, TaskCreatedEvent event) {
-        log.info("Sending TaskCreatedEvent with key {}: {}", key, event);
+        log.debug("Sending TaskCreatedEvent with key {}: {}", key, event);
         sendEvent(topics.getTaskCreated(), key, event);
     }
 
     public void sendTaskUpdatedEvent(String id, TaskUpdatedEvent taskUpdatedEvent) {
-        log.info("Sending TaskUpdatedEvent with key {}: {}", id, taskUpdatedEvent);
+        log.debug("Sending TaskUpdatedEvent with key {}: {}", id, taskUpdatedEvent);
         sendEvent(topics.getTaskUpdated(), id, taskUpdatedEvent);
     }
 
     public void sendTaskSubscribedEvent(String id, TaskSubscribedEvent taskSubscribedEvent) {
-        log.info("Sending TaskSubscribedEvent with key {}: {}", id, taskSubscribedEvent);
+        log.debug("Sending TaskSubscribedEvent with key {}: {}", id, taskSubscribedEvent);
         sendEvent(topics.getTaskSubscribed(), id, taskSubscribedEvent);
     }
 
     public void sendTaskUnsubscribedEvent(String id, TaskUnsubscribedEvent taskUnsubscribedEvent) {
-        log.info("Sending TaskUnsubscribedEvent with key {}: {}", id, taskUnsubscribedEvent);
+        log.debug("Sending TaskUnsubscribedEvent with key {}: {}", id, taskUnsubscribedEvent);
         sendEvent(topics.getTaskUnsubscribed(), id, taskUnsubscribedEvent);
     }
 
     public void sendTaskCompletedEvent(String id, TaskCompletedEvent taskCompletedEvent) {
-        log.info("Sending TaskCompletedEvent with key {}: {}", id, taskCompletedEvent);
+        log.debug("Sending TaskCompletedEvent with key {}: {}", id, taskCompletedEvent);
         sendEvent(topics.getTaskCompleted(), id, taskCompletedEvent);
     }
 
     public void sendTaskDeletedEvent(String id, TaskDeletedEvent taskDeletedEvent) {
-        log.info("Sending TaskDeletedEvent with key {}: {}", id, taskDeletedEvent);
+        log.debug("Sending TaskDeletedEvent with key {}: {}", id, taskDeletedEvent);
         sendEvent(topics.getTaskDeleted(), id, taskDeletedEvent);
     }
 
     public void sendTaskStatusUpdatedEvent(String id, TaskStatusUpdatedEvent taskStatusUpdatedEvent) {
-        log.info("Sending TaskStatusUpdatedEvent with key {}: {}", id, taskStatusUpdatedEvent);
+        log.debug("Sending TaskStatusUpdatedEvent with key {}: {}", id, taskStatusUpdatedEvent);
         sendEvent(topics.getTaskStatusUpdated(), id, taskStatusUpdatedEvent);
     }
 
     public void sendTaskAssigneesUpdatedEvent(String id, TaskAssigneesUpdatedEvent taskAssigneesUpdatedEvent) {
-        log.info("Sending TaskAssigneesUpdatedEvent with key {}: {}", id, taskAssigneesUpdatedEvent);
+        log.debug("Sending TaskAssigneesUpdatedEvent with key {}: {}", id, taskAssigneesUpdatedEvent);
         sendEvent(topics.getTaskAssigneesUpdated(), id, taskAssigneesUpdatedEvent);
     }
 
     public void sendAttachmentAddedEvent(String id, AttachmentAddedEvent attachmentAddedEvent) {
-        log.info("Sending AttachmentAddedEvent with key {}: {}", id, attachmentAddedEvent);
+        log.debug("Sending AttachmentAddedEvent with key {}: {}", id, attachmentAddedEvent);
         sendEvent(topics.getAttachmentAdded(), id, attachmentAddedEvent);
     }
 
     public void sendAttachmentDeletedEvent(String attachmentId, AttachmentDeletedEvent attachmentDeletedEvent) {
-        log.info("Sending AttachmentDeletedEvent with key {}: {}", attachmentId, attachmentDeletedEvent);
+        log.debug("Sending AttachmentDeletedEvent with key {}: {}", attachmentId, attachmentDeletedEvent);
         sendEvent(topics.getAttachmentDeleted(), attachmentId, attachmentDeletedEvent);
     }
 
     public void sendCommentCreatedEvent(String id, CommentCreatedEvent commentCreatedEvent) {
-        log.info("Sending CommentCreatedEvent with key {}: {}", id, commentCreatedEvent);
+        log.debug("Sending CommentCreatedEvent with key {}: {}", id, commentCreatedEvent);
         sendEvent(topics.getCommentCreated(), id, commentCreatedEvent);
     }
 
     public void sendCommentUpdatedEvent(String id, CommentUpdatedEvent commentUpdatedEvent) {
-        log.info("Sending CommentUpdatedEvent with key {}: {}", id, commentUpdatedEvent);
+        log.debug("Sending CommentUpdatedEvent with key {}: {}", id, commentUpdatedEvent);
         sendEvent(topics.getCommentUpdated(), id, commentUpdatedEvent);
     }
 
     public void sendCommentDeletedEvent(String id, CommentDeletedEvent commentDeletedEvent) {
-        log.info("Sending CommentDeletedEvent with key {}: {}", id, commentDeletedEvent);
+        log.debug("Sending CommentDeletedEvent with key {}: {}", id, commentDeletedEvent);
         sendEvent(topics.getCommentDeleted(), id, commentDeletedEvent);
     }
 
@@ -0,0 +1,157 @@
+package org.example.taskservice.kafka.producer;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.example.taskservice.config.OutboxProperties;
+import org.example.taskservice.model.OutboxEvent;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Переносит события из коллекции outbox в Kafka пачками. Отправки пачки идут конвейером
+ * (идемпотентный продюсер сохраняет порядок внутри партиции), подтверждённые удаляются одним deleteMany.
+ * После первой неудачной отправки по ключу остальные события этого ключа остаются в outbox до повтора.
+ * Доставка at-least-once: при падении между ack брокера и удалением событие уйдёт повторно,
+ * для дедупликации в заголовке {@value #OUTBOX_ID_HEADER} передаётся id записи outbox.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "outbox.relay", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxRelay {
+
+    public static final String OUTBOX_ID_HEADER = "outbox-id";
+
+    private static final String LOCK_COLLECTION = "outbox_lock";
+    private static final String LOCK_ID = "relay";
+    private static final String DEAD_LETTER_COLLECTION = "outbox_dead_letter";
+
+    private final MongoTemplate mongoTemplate;
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final OutboxProperties properties;
+
+    private final String instanceId = UUID.randomUUID().toString();
+
+    @Scheduled(fixedDelayString = "${outbox.relay.interval-ms:200}")
+    public void relay() {
+        // полная пачка — за ней, скорее всего, есть ещё; догоняем, не дожидаясь следующего тика
+        while (acquireLease() && publishBatch() == properties.getBatchSize()) {
+            log.debug("Outbox batch is full, continuing");
+        }
+    }
+
+    private int publishBatch() {
+        Query query = new Query().with(Sort.by("id")).limit(properties.getBatchSize());
+        List<OutboxEvent> batch = mongoTemplate.find(query, OutboxEvent.class);
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        List<CompletableFuture<SendResult<String, Object>>> sends = new ArrayList<>(batch.size());
+        for (OutboxEvent event : batch) {
+            sends.add(send(event));
+        }
+
+        List<String> sent = new ArrayList<>(batch.size());
+        // ключи, по которым событие не ушло: более поздние события этих ключей придерживаются до следующего тика,
+        // даже если брокер их уже принял, — повторная отправка восстановит порядок ценой дубля
+        Set<String> blockedKeys = new HashSet<>();
+        int held = 0;
+        boolean interrupted = false;
+        for (int i = 0; i < batch.size(); i++) {
+            OutboxEvent event = batch.get(i);
+            if (blockedKeys.contains(event.getKey())) {
+                held++;
+                continue;
+            }
+            try {
+                sends.get(i).get();
+                sent.add(event.getId());
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                interrupted = true;
+                break;
+            } catch (ExecutionException ex) {
+                blockedKeys.add(event.getKey());
+                String error = ex.getCause().getMessage();
+                log.error("Ошибка при отправке события {} в топик {}: {}", event.getId(), event.getTopic(), error, ex.getCause());
+                recordFailure(event, error);
+            }
+        }
+
+        if (!sent.isEmpty()) {
+            mongoTemplate.remove(new Query(Criteria.where("id").in(sent)), OutboxEvent.class);
+        }
+        log.debug("Outbox batch relayed: sent={}, failed={}, held={}", sent.size(), blockedKeys.size(), held);
+        // с ошибками не догоняем: следующий тик повторит неотправленное
+        return blockedKeys.isEmpty() && !interrupted ? batch.size() : 0;
+    }
+
+    /**
+     * Событие, не ушедшее max-attempts раз подряд, переносится в outbox_dead_letter: иначе оно держало бы
+     * свой ключ, а набравшись в голове очереди по _id, — и весь релей.
+     */
+    private void recordFailure(OutboxEvent event, String error) {
+        event.setAttempts(event.getAttempts() + 1);
+        event.setLastError(error);
+        if (event.getAttempts() < properties.getMaxAttempts()) {
+            mongoTemplate.updateFirst(new Query(Criteria.where("id").is(event.getId())),
+                    new Update().inc("attempts", 1).set("lastError", error), OutboxEvent.class);
+            return;
+        }
+        log.error("Событие {} для топика {} не отправлено после {} попыток, перенесено в {}",
+                event.getId(), event.getTopic(), event.getAttempts(), DEAD_LETTER_COLLECTION);
+        mongoTemplate.save(event, DEAD_LETTER_COLLECTION);
+        mongoTemplate.remove(new Query(Criteria.where("id").is(event.getId())), OutboxEvent.class);
+    }
+
+    private CompletableFuture<SendResult<String, Object>> send(OutboxEvent event) {
+        ProducerRecord<String, Object> record = new ProducerRecord<>(event.getTopic(), event.getKey(), event.getPayload());
+        record.headers().add(OUTBOX_ID_HEADER, event.getId().getBytes(StandardCharsets.UTF_8));
+        try {
+            return kafkaTemplate.send(record);
+        } catch (RuntimeException ex) {
+            // ошибка сериализации или метаданных бросается синхронно — учитываем её как неудачную отправку
+            return CompletableFuture.failedFuture(ex);
+        }
+    }
+
+    /**
+     * Аренда в коллекции outbox_lock: продлевается своим инстансом или забирается после истечения.
+     * Если документ держит другой инстанс, upsert пытается вставить второй _id=relay и получает duplicate key.
+     */
+    private boolean acquireLease() {
+        Instant now = Instant.now();
+        Query query = new Query(Criteria.where("_id").is(LOCK_ID)
+                .orOperator(Criteria.where("owner").is(instanceId), Criteria.where("lockedUntil").lt(now)));
+        Update update = new Update()
+                .set("owner", instanceId)
+                .set("lockedUntil", now.plus(properties.getLeaseTime()));
+        try {
+            mongoTemplate.upsert(query, update, LOCK_COLLECTION);
+            return true;
+        } catch (DuplicateKeyException ex) {
+            return false;
+        }
+    }
+}
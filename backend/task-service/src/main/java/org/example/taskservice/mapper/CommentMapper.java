@@ -18,15 +18,17 @@ public interface CommentMapper {
 
     @Mappings({
             @Mapping(target = "id", expression = "java(java.util.UUID.randomUUID().toString())"),
+            @Mapping(target = "taskId", source = "taskId"),
             @Mapping(target = "authorId", source = "authorId"),
             @Mapping(target = "content", source = "createCommentRequest.content"),
             @Mapping(target = "createdAt", expression = "java(java.time.Instant.now())"),
             @Mapping(target = "updatedAt", expression = "java(java.time.Instant.now())")
     })
-    Comment toComment(CreateCommentRequest createCommentRequest, String authorId);
+    Comment toComment(CreateCommentRequest createCommentRequest, String authorId, String taskId);
 
     @Mappings({
             @Mapping(target = "id", ignore = true),
+            @Mapping(target = "taskId", ignore = true),
             @Mapping(target = "authorId", ignore = true),
             @Mapping(target = "content", source = "content"),
             @Mapping(target = "createdAt", ignore = true),
@@ -9,13 +9,15 @@ import org.example.events.task.TaskSubscribedEvent;
 import org.example.events.task.TaskUnsubscribedEvent;
 import org.example.events.task.TaskUpdatedEvent;
 import org.example.taskservice.dto.request.task.CreateTaskRequest;
-import org.example.taskservice.dto.request.task.UpdateAssigneesRequest;
-import org.example.taskservice.dto.request.task.UpdateStatusRequest;
 import org.example.taskservice.dto.request.task.UpdateTaskRequest;
 import org.example.taskservice.dto.response.task.TaskResponse;
+import org.example.taskservice.dto.response.task.TaskSummaryResponse;
+import org.example.taskservice.model.Comment;
 import org.example.taskservice.model.Task;
 import org.mapstruct.*;
 
+import java.util.List;
+
 @Mapper(componentModel = "spring", nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
 public interface TaskMapper {
 
@@ -25,20 +27,20 @@ public interface TaskMapper {
             @Mapping(target = "status", expression = "java(TaskStatus.AVAILABLE)"),
             @Mapping(target = "createdAt", ignore = true),
             @Mapping(target = "updatedAt", ignore = true),
-            @Mapping(target = "comments", ignore = true)
+            @Mapping(target = "score", ignore = true)
     })
     Task toTask(CreateTaskRequest createTaskRequest, String creatorId);
 
-    @Mapping(target = "comments", expression = "java(task.getComments().stream().map(commentMapper::toCommentResponse).toList())")
-    TaskResponse toResponse(Task task, CommentMapper commentMapper);
-
+    @Mapping(target = "comments", expression = "java(java.util.List.of())")
+    TaskResponse toResponse(Task task);
 
-    void updateTask(UpdateTaskRequest updateTaskRequest, @MappingTarget Task task);
+    TaskSummaryResponse toSummaryResponse(Task task);
 
-    
-    void updateStatus(UpdateStatusRequest updateStatusRequest, @MappingTarget Task task);
+    @Mapping(target = "comments", expression = "java(comments.stream().map(commentMapper::toCommentResponse).toList())")
+    TaskResponse toResponse(Task task, List<Comment> comments, CommentMapper commentMapper);
 
-    void updateAssignees(UpdateAssigneesRequest updateAssigneesRequest, @MappingTarget Task task);
+    @Mapping(target = "score", ignore = true)
+    void updateTask(UpdateTaskRequest updateTaskRequest, @MappingTarget Task task);
 
     @Mapping(target = "timestamp", expression = "java(java.time.Instant.now())")
     @Mapping(target = "createdAt", source = "task.createdAt")
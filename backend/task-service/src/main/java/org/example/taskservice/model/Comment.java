@@ -2,13 +2,22 @@ package org.example.taskservice.model;
 
 import jakarta.validation.constraints.NotNull;
 import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.Instant;
 
+@Document(collection = "comments")
+@CompoundIndex(name = "task_created_at_idx", def = "{'taskId': 1, 'createdAt': 1}")
 @Data
 public class Comment {
+    @Id
     private String id;
 
+    @NotNull
+    private String taskId;
+
     @NotNull
     private String content;
 
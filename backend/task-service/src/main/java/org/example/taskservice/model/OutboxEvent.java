@@ -0,0 +1,40 @@
+package org.example.taskservice.model;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * Событие, ожидающее публикации в Kafka. Пишется в той же транзакции, что и изменение задачи,
+ * и удаляется релеем после подтверждения брокера. Порядок публикации — по _id (ObjectId растёт со временем).
+ */
+@Document(collection = "outbox")
+@Data
+public class OutboxEvent {
+    @Id
+    private String id;
+
+    private String topic;
+
+    private String key;
+
+    /** Сам record события; _class сохраняется, поэтому при чтении восстанавливается исходный тип. */
+    private Object payload;
+
+    private Instant createdAt;
+
+    private int attempts;
+
+    private String lastError;
+
+    public static OutboxEvent of(String topic, String key, Object payload) {
+        OutboxEvent event = new OutboxEvent();
+        event.setTopic(topic);
+        event.setKey(key);
+        event.setPayload(payload);
+        event.setCreatedAt(Instant.now());
+        return event;
+    }
+}
@@ -14,16 +14,18 @@ import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.mongodb.core.index.*;
 import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.TextScore;
 
 import java.time.Instant;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
 
-@Document(collection = "tasks")
+// language = "none": заголовки смешанные ru/en, стемминг одного языка портит поиск по другому
+@Document(collection = "tasks", language = "none")
 @CompoundIndexes({
         @CompoundIndex(name = "status_department_idx", def = "{'status': 1, 'department': 1}", partialFilter = "{status : 'AVAILABLE'}"),
-        @CompoundIndex(name = "assignee_status_idx", def = "{'assigneeIds': 1, 'status': 1}")
+        @CompoundIndex(name = "assignee_status_idx", def = "{'assigneeIds': 1, 'status': 1}"),
+        @CompoundIndex(name = "created_at_id_idx", def = "{'createdAt': -1, '_id': -1}")
         }
 )
 @Data
@@ -33,8 +35,10 @@ public class Task {
     private String id;
 
     @NotNull
+    @TextIndexed(weight = 3)
     private String title;
 
+    @TextIndexed
     private String description;
 
     @NotNull
@@ -65,10 +69,12 @@ public class Task {
     @Indexed(direction = IndexDirection.DESCENDING)
     private Instant dueDate;
 
+    @TextIndexed(weight = 2)
     private List<String> tags;
 
-    private List<Comment> comments = new ArrayList<>();
-
     @Version
     private Long version;
+
+    @TextScore
+    private Float score;
 }
@@ -0,0 +1,17 @@
+package org.example.taskservice.repository;
+
+import org.example.taskservice.model.Comment;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface CommentRepository extends MongoRepository<Comment, String> {
+    Page<Comment> findByTaskId(String taskId, Pageable pageable);
+    List<Comment> findByTaskIdOrderByCreatedAtAsc(String taskId, Pageable pageable);
+    Optional<Comment> findByIdAndTaskId(String id, String taskId);
+}
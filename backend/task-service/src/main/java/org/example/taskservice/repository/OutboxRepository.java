@@ -0,0 +1,9 @@
+package org.example.taskservice.repository;
+
+import org.example.taskservice.model.OutboxEvent;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface OutboxRepository extends MongoRepository<OutboxEvent, String> {
+}
@@ -0,0 +1,71 @@
+package org.example.taskservice.repository;
+
+import org.example.taskservice.exception.InvalidCursorException;
+import org.example.taskservice.model.Task;
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Позиция keyset-пагинации: значение ключа сортировки и {@code _id} последней отданной задачи.
+ * Клиенту уходит в виде непрозрачного base64url-токена.
+ */
+public record TaskCursor(String property, Sort.Direction direction, Object value, String id) {
+
+    private static final String SEPARATOR = "|";
+
+    public static TaskCursor after(Task task, Sort.Order order) {
+        return new TaskCursor(order.getProperty(), order.getDirection(), sortValue(task, order.getProperty()), task.getId());
+    }
+
+    public Sort.Order order() {
+        return new Sort.Order(direction, property);
+    }
+
+    public String encode() {
+        String raw = String.join(SEPARATOR, direction.name(), property, id, encodeValue(value));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static TaskCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            // значение идёт последним: в заголовке задачи может встретиться разделитель
+            String[] parts = raw.split("\\" + SEPARATOR, 4);
+            if (parts.length != 4) {
+                throw new InvalidCursorException("Malformed cursor");
+            }
+            return new TaskCursor(parts[1], Sort.Direction.valueOf(parts[0]), decodeValue(parts[3]), parts[2]);
+        } catch (IllegalArgumentException | DateTimeParseException ex) {
+            throw new InvalidCursorException("Malformed cursor");
+        }
+    }
+
+    private static Object sortValue(Task task, String property) {
+        return switch (property) {
+            case "createdAt" -> task.getCreatedAt();
+            case "updatedAt" -> task.getUpdatedAt();
+            case "dueDate" -> task.getDueDate();
+            case "priority" -> task.getPriority() != null ? task.getPriority().name() : null;
+            case "status" -> task.getStatus() != null ? task.getStatus().name() : null;
+            case "title" -> task.getTitle();
+            default -> throw new InvalidCursorException("Unsupported cursor sort property: " + property);
+        };
+    }
+
+    private static String encodeValue(Object value) {
+        if (value == null) return "n:";
+        if (value instanceof Instant instant) return "t:" + instant;
+        return "s:" + value;
+    }
+
+    private static Object decodeValue(String encoded) {
+        if (encoded.startsWith("n:")) return null;
+        if (encoded.startsWith("t:")) return Instant.parse(encoded.substring(2));
+        if (encoded.startsWith("s:")) return encoded.substring(2);
+        throw new InvalidCursorException("Malformed cursor");
+    }
+}
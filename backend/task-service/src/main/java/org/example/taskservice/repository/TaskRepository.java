@@ -6,6 +6,7 @@ import org.example.taskservice.model.Task;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.time.Instant;
@@ -14,15 +15,30 @@ import java.util.List;
 @Repository
 public interface TaskRepository extends MongoRepository<Task, String>, TaskRepositoryCustom {
 
+    /**
+     * Поля, которые читают списки (TaskSummaryResponse + ключи сортировки для курсора).
+     * description в выборку не попадает.
+     */
+    String SUMMARY_FIELDS = "{ 'title': 1, 'status': 1, 'priority': 1, 'assigneeIds': 1, 'creatorId': 1, "
+            + "'department': 1, 'createdAt': 1, 'updatedAt': 1, 'dueDate': 1, 'tags': 1 }";
+
+    @Query(fields = SUMMARY_FIELDS)
     Page<Task> findByStatusAndDepartment(TaskStatus status, Department department, Pageable pageable);
+    @Query(fields = SUMMARY_FIELDS)
     Page<Task> findByAssigneeIdsContains(String userId, Pageable pageable);
+    @Query(fields = SUMMARY_FIELDS)
     Page<Task> findByAssigneeIdsContainsAndStatus(String userId, TaskStatus status, Pageable pageable);
+    @Query(fields = SUMMARY_FIELDS)
     Page<Task> findByAssigneeIdsContainsAndStatusIn(String userId, List<TaskStatus> statuses, Pageable pageable);
 
     // Due soon queries
+    @Query(fields = SUMMARY_FIELDS)
     Page<Task> findByDueDateBetween(Instant from, Instant to, Pageable pageable);
+    @Query(fields = SUMMARY_FIELDS)
     Page<Task> findByDueDateBetweenAndStatus(Instant from, Instant to, TaskStatus status, Pageable pageable);
+    @Query(fields = SUMMARY_FIELDS)
     Page<Task> findByDueDateBetweenAndAssigneeIds(Instant from, Instant to, String assigneeId, Pageable pageable);
+    @Query(fields = SUMMARY_FIELDS)
     Page<Task> findByDueDateBetweenAndStatusAndAssigneeIds(Instant from, Instant to, TaskStatus status, String assigneeId, Pageable pageable);
 
     // Custom filter search is implemented in TaskRepositoryImpl via MongoTemplate
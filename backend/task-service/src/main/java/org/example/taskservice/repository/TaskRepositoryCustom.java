@@ -6,6 +6,13 @@ import org.example.events.enums.TaskPriority;
 import org.example.taskservice.model.Task;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 public interface TaskRepositoryCustom {
     Page<Task> findTasksByFilters(TaskStatus status,
@@ -16,6 +23,57 @@ public interface TaskRepositoryCustom {
                                   String search,
                                   Pageable pageable);
     Page<Task> findTasksByAssigneeWithFilters(String assigneeId, TaskStatus status, String creatorId, Department department, Pageable pageable);
-}
 
+    /**
+     * Keyset-выборка: задачи строго после {@code after} в порядке {@code order} (+ {@code _id}),
+     * без skip и без подсчёта общего количества. {@code after == null} — первая страница.
+     */
+    List<Task> findTasksByFiltersAfter(TaskStatus status,
+                                       TaskPriority priority,
+                                       String assigneeId,
+                                       String creatorId,
+                                       Department department,
+                                       String search,
+                                       Sort.Order order,
+                                       TaskCursor after,
+                                       int limit);
+
+    /**
+     * Курсор Mongo по тем же фильтрам, что и {@link #findTasksByFilters}, без сортировки и пагинации.
+     * Stream держит серверный курсор — вызывающий обязан его закрыть.
+     */
+    Stream<Task> streamTasksByFilters(TaskStatus status,
+                                      TaskPriority priority,
+                                      String assigneeId,
+                                      String creatorId,
+                                      Department department,
+                                      String search);
+
+    long countTasksByFilters(TaskStatus status,
+                             TaskPriority priority,
+                             String assigneeId,
+                             String creatorId,
+                             Department department,
+                             String search);
+
+    /**
+     * Один bulkWrite на весь список. Возвращает ошибки по индексу в {@code tasks};
+     * в ordered-режиме элементы после первой ошибки тоже попадают в результат как невставленные.
+     */
+    Map<Integer, String> bulkInsert(List<Task> tasks, boolean ordered);
 
+    /*
+     * Атомарные переходы состояния: один findAndModify вместо findById + save всего документа.
+     * Возвращают post-image; пустой Optional — под условие не попал ни один документ.
+     */
+
+    /** $addToSet исполнителя и перевод в IN_PROGRESS, если задача не BLOCKED. */
+    Optional<Task> subscribeAssignee(String id, String userId);
+
+    /** $pull исполнителя; задача без исполнителей возвращается в AVAILABLE. */
+    Optional<Task> unsubscribeAssignee(String id, String userId);
+
+    Optional<Task> updateStatus(String id, TaskStatus status);
+
+    Optional<Task> updateAssignees(String id, Set<String> assigneeIds);
+}
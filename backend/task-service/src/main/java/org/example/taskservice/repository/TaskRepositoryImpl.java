@@ -1,24 +1,50 @@
 package org.example.taskservice.repository;
 
+import org.bson.Document;
 import org.example.events.enums.Department;
 import org.example.events.enums.TaskStatus;
 import org.example.events.enums.TaskPriority;
 import org.example.taskservice.model.Task;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
 import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.ArithmeticOperators;
+import org.springframework.data.mongodb.core.aggregation.ArrayOperators;
+import org.springframework.data.mongodb.core.aggregation.ComparisonOperators;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.aggregation.LiteralOperators;
+import org.springframework.data.mongodb.core.aggregation.SetOperators;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.TextCriteria;
+import org.springframework.data.mongodb.core.query.TextQuery;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
-import java.util.regex.Pattern;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 @Repository
 public class TaskRepositoryImpl implements TaskRepositoryCustom {
 
+    private static final Set<String> SUMMARY_FIELDS = Document.parse(TaskRepository.SUMMARY_FIELDS).keySet();
+
+    private static final int EXPORT_BATCH_SIZE = 500;
+    private static final FindAndModifyOptions RETURN_NEW = FindAndModifyOptions.options().returnNew(true);
+
     private final MongoTemplate mongoTemplate;
 
     public TaskRepositoryImpl(MongoTemplate mongoTemplate) {
@@ -33,29 +59,17 @@ public class TaskRepositoryImpl implements TaskRepositoryCustom {
                                          Department department,
                                          String search,
                                          Pageable pageable) {
-        List<Criteria> filters = new ArrayList<>();
-        if (status != null) filters.add(Criteria.where("status").is(status));
-        if (priority != null) filters.add(Criteria.where("priority").is(priority));
-        if (assigneeId != null && !assigneeId.isBlank()) filters.add(Criteria.where("assigneeIds").in(assigneeId));
-        if (creatorId != null && !creatorId.isBlank()) filters.add(Criteria.where("creatorId").is(creatorId));
-        if (department != null) filters.add(Criteria.where("department").is(department));
-        if (search != null && !search.isBlank()) {
-            Pattern regex = Pattern.compile(Pattern.quote(search.trim()), Pattern.CASE_INSENSITIVE);
-            filters.add(new Criteria().orOperator(
-                    Criteria.where("title").regex(regex),
-                    Criteria.where("description").regex(regex)
-            ));
-        }
-
-        Query query = new Query();
-        if (!filters.isEmpty()) {
-            query.addCriteria(new Criteria().andOperator(filters.toArray(Criteria[]::new)));
+        Query query = filterQuery(status, priority, assigneeId, creatorId, department, search);
+        if (query instanceof TextQuery textQuery) {
+            // при поиске сначала релевантность, запрошенная сортировка — вторичный ключ
+            textQuery.sortByScore();
         }
         query.with(pageable);
 
         List<Task> content = mongoTemplate.find(query, Task.class);
-        long total = mongoTemplate.count(Query.of(query).limit(-1).skip(-1), Task.class);
-        return new PageImpl<>(content, pageable, total);
+        // count выполняется только если размер выборки не позволяет вычислить total
+        return PageableExecutionUtils.getPage(content, pageable,
+                () -> mongoTemplate.count(Query.of(query).limit(-1).skip(-1), Task.class));
     }
 
     @Override
@@ -69,11 +83,187 @@ public class TaskRepositoryImpl implements TaskRepositoryCustom {
 
         Criteria criteria = new Criteria().andOperator(filters.toArray(Criteria[]::new));
         Query query = new Query(criteria).with(pageable);
+        SUMMARY_FIELDS.forEach(query.fields()::include);
 
         List<Task> content = mongoTemplate.find(query, Task.class);
-        long total = mongoTemplate.count(Query.of(query).limit(-1).skip(-1), Task.class);
-        return new PageImpl<>(content, pageable, total);
+        return PageableExecutionUtils.getPage(content, pageable,
+                () -> mongoTemplate.count(Query.of(query).limit(-1).skip(-1), Task.class));
     }
-}
 
+    @Override
+    public List<Task> findTasksByFiltersAfter(TaskStatus status,
+                                              TaskPriority priority,
+                                              String assigneeId,
+                                              String creatorId,
+                                              Department department,
+                                              String search,
+                                              Sort.Order order,
+                                              TaskCursor after,
+                                              int limit) {
+        Query query = after != null
+                ? filterQuery(status, priority, assigneeId, creatorId, department, search, keysetCriteria(order, after))
+                : filterQuery(status, priority, assigneeId, creatorId, department, search);
+        // _id — тай-брейкер, без него позиция неоднозначна при равных ключах сортировки
+        query.with(Sort.by(order, new Sort.Order(order.getDirection(), "id")));
+        query.limit(limit);
+
+        return mongoTemplate.find(query, Task.class);
+    }
+
+    @Override
+    public Stream<Task> streamTasksByFilters(TaskStatus status,
+                                             TaskPriority priority,
+                                             String assigneeId,
+                                             String creatorId,
+                                             Department department,
+                                             String search) {
+        Query query = filterQuery(status, priority, assigneeId, creatorId, department, search);
+        query.cursorBatchSize(EXPORT_BATCH_SIZE);
+        return mongoTemplate.stream(query, Task.class);
+    }
+
+    @Override
+    public long countTasksByFilters(TaskStatus status,
+                                    TaskPriority priority,
+                                    String assigneeId,
+                                    String creatorId,
+                                    Department department,
+                                    String search) {
+        return mongoTemplate.count(filterQuery(status, priority, assigneeId, creatorId, department, search), Task.class);
+    }
+
+    @Override
+    public Map<Integer, String> bulkInsert(List<Task> tasks, boolean ordered) {
+        if (tasks.isEmpty()) {
+            return Map.of();
+        }
+        // bulkOps не выставляет @Version: без него следующий save() счёл бы задачу новой и сделал insert
+        for (Task task : tasks) {
+            if (task.getVersion() == null) {
+                task.setVersion(0L);
+            }
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(ordered ? BulkMode.ORDERED : BulkMode.UNORDERED, Task.class);
+        bulk.insert(tasks);
+        try {
+            bulk.execute();
+            return Map.of();
+        } catch (BulkOperationException ex) {
+            Map<Integer, String> failures = new HashMap<>();
+            ex.getErrors().forEach(error -> failures.put(error.getIndex(), error.getMessage()));
+            if (ordered && !failures.isEmpty()) {
+                int firstFailed = failures.keySet().stream().min(Integer::compare).orElseThrow();
+                for (int i = firstFailed + 1; i < tasks.size(); i++) {
+                    failures.putIfAbsent(i, "Not inserted: ordered bulk stopped at item " + firstFailed);
+                }
+            }
+            return failures;
+        }
+    }
+
+    @Override
+    public Optional<Task> subscribeAssignee(String id, String userId) {
+        Query query = new Query(Criteria.where("id").is(id).and("status").ne(TaskStatus.BLOCKED));
+        Update update = touch(new Update()
+                .addToSet("assigneeIds", userId)
+                .set("status", TaskStatus.IN_PROGRESS));
+        return Optional.ofNullable(mongoTemplate.findAndModify(query, update, RETURN_NEW, Task.class));
+    }
 
+    @Override
+    public Optional<Task> unsubscribeAssignee(String id, String userId) {
+        // pipeline-update: статус зависит от состава исполнителей после удаления, а его знает только сервер
+        AggregationUpdate update = AggregationUpdate.update()
+                .set("assigneeIds").toValue(SetOperators.SetDifference
+                        .arrayAsSet(ConditionalOperators.ifNull("assigneeIds").then(List.of()))
+                        .differenceTo(LiteralOperators.Literal.asLiteral(List.of(userId))))
+                .set("status").toValue(ConditionalOperators
+                        .when(ComparisonOperators.Eq.valueOf(ArrayOperators.Size.lengthOfArray("assigneeIds")).equalToValue(0))
+                        .then(TaskStatus.AVAILABLE.name())
+                        .otherwiseValueOf("status"))
+                .set("updatedAt").toValue(Instant.now())
+                .set("version").toValue(ArithmeticOperators.Add.valueOf(
+                        ConditionalOperators.ifNull("version").then(0)).add(1));
+        return Optional.ofNullable(mongoTemplate.findAndModify(new Query(Criteria.where("id").is(id)), update, RETURN_NEW, Task.class));
+    }
+
+    @Override
+    public Optional<Task> updateStatus(String id, TaskStatus status) {
+        Update update = touch(new Update().set("status", status));
+        return Optional.ofNullable(mongoTemplate.findAndModify(new Query(Criteria.where("id").is(id)), update, RETURN_NEW, Task.class));
+    }
+
+    @Override
+    public Optional<Task> updateAssignees(String id, Set<String> assigneeIds) {
+        Update update = new Update();
+        if (assigneeIds != null) {
+            update.set("assigneeIds", assigneeIds);
+        }
+        return Optional.ofNullable(mongoTemplate.findAndModify(new Query(Criteria.where("id").is(id)), touch(update), RETURN_NEW, Task.class));
+    }
+
+    /**
+     * findAndModify обходит аудит и @Version, поэтому updatedAt и version выставляются вручную —
+     * иначе updateTask (save с проверкой версии) не увидел бы атомарных изменений.
+     */
+    private static Update touch(Update update) {
+        return update.set("updatedAt", Instant.now()).inc("version", 1);
+    }
+
+    private Query filterQuery(TaskStatus status,
+                              TaskPriority priority,
+                              String assigneeId,
+                              String creatorId,
+                              Department department,
+                              String search,
+                              Criteria... extra) {
+        List<Criteria> filters = filterCriteria(status, priority, assigneeId, creatorId, department);
+        filters.addAll(List.of(extra));
+        // $text обслуживается текстовым индексом по title/description/tags (см. Task). Ищутся целые слова,
+        // а не подстроки, как прежним regex: при language "none" без стемминга "prog" не находит "programming"
+        Query query = search != null && !search.isBlank()
+                ? TextQuery.queryText(TextCriteria.forDefaultLanguage().matching(search.trim()))
+                : new Query();
+        if (!filters.isEmpty()) {
+            query.addCriteria(new Criteria().andOperator(filters.toArray(Criteria[]::new)));
+        }
+        SUMMARY_FIELDS.forEach(query.fields()::include);
+        return query;
+    }
+
+    private List<Criteria> filterCriteria(TaskStatus status,
+                                          TaskPriority priority,
+                                          String assigneeId,
+                                          String creatorId,
+                                          Department department) {
+        List<Criteria> filters = new ArrayList<>();
+        if (status != null) filters.add(Criteria.where("status").is(status));
+        if (priority != null) filters.add(Criteria.where("priority").is(priority));
+        if (assigneeId != null && !assigneeId.isBlank()) filters.add(Criteria.where("assigneeIds").in(assigneeId));
+        if (creatorId != null && !creatorId.isBlank()) filters.add(Criteria.where("creatorId").is(creatorId));
+        if (department != null) filters.add(Criteria.where("department").is(department));
+        return filters;
+    }
+
+    /**
+     * (key, _id) строго после курсора. Mongo сортирует null первым по возрастанию и последним
+     * по убыванию, а $gt/$lt не сравнивают null с датами и строками — поэтому null-ветки явные.
+     */
+    private Criteria keysetCriteria(Sort.Order order, TaskCursor after) {
+        String field = order.getProperty();
+        Object value = after.value();
+        boolean ascending = order.isAscending();
+
+        Criteria tieBreak = ascending ? Criteria.where("id").gt(after.id()) : Criteria.where("id").lt(after.id());
+        if (value == null) {
+            Criteria sameKey = new Criteria().andOperator(Criteria.where(field).is(null), tieBreak);
+            return ascending ? new Criteria().orOperator(sameKey, Criteria.where(field).ne(null)) : sameKey;
+        }
+
+        Criteria beyondKey = ascending ? Criteria.where(field).gt(value) : Criteria.where(field).lt(value);
+        Criteria sameKey = new Criteria().andOperator(Criteria.where(field).is(value), tieBreak);
+        return ascending
+                ? new Criteria().orOperator(beyondKey, sameKey)
+                : new Criteria().orOperator(beyondKey, sameKey, Criteria.where(field).is(null));
+    }
+}
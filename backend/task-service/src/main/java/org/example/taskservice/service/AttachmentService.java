@@ -1,25 +1,34 @@
 package org.example.taskservice.service;
 
+import java.io.InputStream;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
+import org.example.taskservice.config.AttachmentUploadProperties;
+import org.example.taskservice.config.PresignedUrlProperties;
 import org.example.taskservice.dto.response.attachment.AttachmentResponse;
 import org.example.taskservice.mapper.AttachmentMapper;
 import org.example.taskservice.model.Attachment;
 import org.example.taskservice.model.UserDetailsImpl;
 import org.example.taskservice.repository.AttachmentRepository;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
+import com.github.benmanes.caffeine.cache.Cache;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import io.minio.GetPresignedObjectUrlArgs;
 import io.minio.MinioClient;
+import io.minio.ObjectWriteArgs;
 import io.minio.PutObjectArgs;
 import io.minio.http.Method;
 import org.example.taskservice.kafka.producer.KafkaProducerService;
@@ -36,52 +45,130 @@ public class AttachmentService {
     private final AttachmentMapper attachmentMapper;
     private final AttachmentRepository attachmentRepository;
     private final KafkaProducerService kafkaProducerService;
+    private final ThreadPoolTaskExecutor attachmentUploadExecutor;
+    private final AttachmentUploadProperties uploadProperties;
+    private final Cache<String, String> presignedUrlCache;
+    private final PresignedUrlProperties presignedUrlProperties;
+    private final MongoTransactions transactions;
 
-    @Transactional
+    /** Бакет проверяется один раз: при старте или, если MinIO тогда был недоступен, при первом обращении. */
+    private volatile boolean bucketReady;
+
+    /**
+     * Файлы грузятся в MinIO вне транзакции: загрузка больших частей может длиться дольше лимита
+     * жизни транзакции Mongo. Метаданные и события outbox пишутся после неё одной короткой
+     * транзакцией; если она не удалась, загруженные объекты удаляются.
+     */
     public List<AttachmentResponse> addAttachments(String taskId, List<MultipartFile> files) {
-        List<AttachmentResponse> attachmentResponses = new ArrayList<>();
         log.info("Adding attachments to task: {}", taskId);
+        String uploadedBy = getCurrentUserId();
+        List<Attachment> uploaded = uploadAttachments(taskId, files);
+
+        List<Attachment> savedAttachments;
         try {
-            ensureBucketExists();
-            for (MultipartFile file : files) {
-                String objectName = UUID.randomUUID().toString() + "-" + file.getOriginalFilename();
-                minioClient.putObject(PutObjectArgs.builder()
+            savedAttachments = transactions.execute(() -> saveAttachments(uploaded, uploadedBy));
+        } catch (RuntimeException e) {
+            removeObjects(uploaded);
+            throw e;
+        }
+        return savedAttachments.stream().map(attachmentMapper::toResponse).toList();
+    }
+
+    /**
+     * Файлы грузятся в MinIO параллельно на ограниченном пуле. Если хоть одна загрузка не удалась,
+     * уже загруженные объекты удаляются.
+     */
+    public List<Attachment> uploadAttachments(String taskId, List<MultipartFile> files) {
+        ensureBucketExists();
+        List<CompletableFuture<Attachment>> uploads = files.stream()
+                .map(file -> CompletableFuture.supplyAsync(() -> upload(taskId, file), attachmentUploadExecutor))
+                .toList();
+        List<Attachment> attachments = new ArrayList<>(files.size());
+        Throwable failure = null;
+        for (CompletableFuture<Attachment> upload : uploads) {
+            try {
+                attachments.add(upload.join());
+            } catch (CompletionException e) {
+                // дожидаемся остальных, чтобы удалить всё, что успело загрузиться
+                failure = failure == null ? e.getCause() : failure;
+            }
+        }
+        if (failure != null) {
+            removeObjects(attachments);
+            throw new RuntimeException("Failed to add attachments", failure);
+        }
+        return attachments;
+    }
+
+    /** Метаданные одним insertMany и события outbox; вызывается в транзакции вызывающего. */
+    public List<Attachment> saveAttachments(List<Attachment> attachments, String uploadedBy) {
+        if (attachments.isEmpty()) {
+            return List.of();
+        }
+        List<Attachment> savedAttachments = attachmentRepository.insert(attachments);
+        kafkaProducerService.sendEvents(savedAttachments.stream()
+                .map(attachment -> kafkaProducerService.attachmentAddedEvent(
+                        attachment.getId(), attachmentMapper.toAttachmentAddedEvent(attachment, uploadedBy)))
+                .toList());
+        return savedAttachments;
+    }
+
+    /**
+     * Поток части читается с диска (multipart пишется во временный файл), MinIO-клиент отправляет его
+     * multipart-загрузкой частями по partSize — файл целиком в памяти не держится.
+     */
+    private Attachment upload(String taskId, MultipartFile file) {
+        String objectName = UUID.randomUUID() + "-" + file.getOriginalFilename();
+        long partSize = Math.max(uploadProperties.getPartSize().toBytes(), ObjectWriteArgs.MIN_MULTIPART_SIZE);
+        try (InputStream stream = file.getInputStream()) {
+            minioClient.putObject(PutObjectArgs.builder()
+                    .bucket(bucketName)
+                    .object(objectName)
+                    .stream(stream, file.getSize(), partSize)
+                    .contentType(file.getContentType())
+                    .build());
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to upload file " + file.getOriginalFilename(), e);
+        }
+        log.debug("Uploaded {} ({} bytes) as {}", file.getOriginalFilename(), file.getSize(), objectName);
+
+        Attachment attachment = new Attachment();
+        attachment.setTaskId(taskId);
+        attachment.setFileName(file.getOriginalFilename());
+        attachment.setObjectName(objectName);
+        attachment.setUrl(genereateUrl(objectName));
+        attachment.setSize(file.getSize());
+        attachment.setFileType(file.getContentType());
+        attachment.setCreatedAt(Instant.now());
+        return attachment;
+    }
+
+    public void removeObjects(List<Attachment> attachments) {
+        for (Attachment attachment : attachments) {
+            presignedUrlCache.invalidate(attachment.getObjectName());
+            try {
+                minioClient.removeObject(io.minio.RemoveObjectArgs.builder()
                         .bucket(bucketName)
-                        .object(objectName)
-                        .stream(file.getInputStream(), file.getSize(), -1)
-                        .contentType(file.getContentType())
+                        .object(attachment.getObjectName())
                         .build());
-                Attachment attachment = new Attachment();
-                attachment.setTaskId(taskId);
-                attachment.setFileName(file.getOriginalFilename());
-                attachment.setObjectName(objectName);
-                attachment.setUrl(genereateUrl(objectName));
-                attachment.setSize(file.getSize());
-                attachment.setFileType(file.getContentType());
-                attachment.setCreatedAt(Instant.now());
-
-                Attachment savedAttachment = attachmentRepository.save(attachment);
-
-                attachmentResponses.add(attachmentMapper.toResponse(savedAttachment));
-                kafkaProducerService.sendAttachmentAddedEvent(
-                        savedAttachment.getId(),
-                        attachmentMapper.toAttachmentAddedEvent(savedAttachment, getCurrentUserId())
-                );
+            } catch (Exception e) {
+                log.warn("Failed to remove orphaned object {}: {}", attachment.getObjectName(), e.getMessage());
             }
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to add attachments", e);
         }
-        return attachmentResponses;
     }
 
+    /** Ссылка берётся из кэша; MinIO подписывает заново только после истечения записи или вытеснения. */
     public String genereateUrl(String objectName) {
+        return presignedUrlCache.get(objectName, this::presign);
+    }
+
+    private String presign(String objectName) {
         try {
-            ensureBucketExists();
             return minioClient.getPresignedObjectUrl(GetPresignedObjectUrlArgs.builder()
                     .bucket(bucketName)
                     .object(objectName)
                     .method(Method.GET)
-                    .expiry(60 * 60)
+                    .expiry((int) presignedUrlProperties.getExpiry().toSeconds())
                     .build());
         } catch (Exception e) {
             throw new RuntimeException("Failed to generate url", e);
@@ -99,9 +186,9 @@ public class AttachmentService {
                 .toList();
     }
 
-    @Transactional
     public void deleteAttachment(String taskId, List<String> attachmentIds) {
         log.info("Deleting attachments for task: {}", taskId);
+        String deletedBy = getCurrentUserId();
         for (String attachmentId : attachmentIds) {
             Attachment attachment = getAttachment(attachmentId);
             if (!attachment.getTaskId().equals(taskId)) {
@@ -116,10 +203,14 @@ public class AttachmentService {
             } catch (Exception e) {
                 throw new RuntimeException("Failed to delete file from storage", e);
             }
-            attachmentRepository.deleteById(attachmentId);
-            kafkaProducerService.sendAttachmentDeletedEvent(attachmentId, attachmentMapper.toAttachmentDeletedEvent(attachment, getCurrentUserId()));
+            presignedUrlCache.invalidate(attachment.getObjectName());
+            // объект уже удалён, в транзакции — только метаданные и событие
+            transactions.run(() -> {
+                attachmentRepository.deleteById(attachmentId);
+                kafkaProducerService.sendAttachmentDeletedEvent(attachmentId, attachmentMapper.toAttachmentDeletedEvent(attachment, deletedBy));
+            });
         }
-    }   
+    }
 
     public Attachment getAttachment(String attachmentId) {
         return attachmentRepository.findById(attachmentId)
@@ -132,7 +223,20 @@ public class AttachmentService {
         return details.getId();
     }
 
+    @EventListener(ApplicationReadyEvent.class)
+    public void initBucket() {
+        try {
+            ensureBucketExists();
+        } catch (RuntimeException e) {
+            // старт не блокируем: проверка повторится при первой загрузке
+            log.warn("MinIO bucket '{}' check failed at startup: {}", bucketName, e.getMessage());
+        }
+    }
+
     private void ensureBucketExists() {
+        if (bucketReady) {
+            return;
+        }
         try {
             boolean exists = minioClient.bucketExists(
                     BucketExistsArgs.builder().bucket(bucketName).build()
@@ -143,6 +247,7 @@ public class AttachmentService {
                 minioClient.makeBucket(MakeBucketArgs.builder().bucket(bucketName).build());
                 log.info("MinIO bucket '{}' created successfully", bucketName);
             }
+            bucketReady = true;
         } catch (Exception e) {
             throw new RuntimeException("Failed to ensure MinIO bucket existence", e);
         }
@@ -0,0 +1,169 @@
+package org.example.taskservice.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.taskservice.config.BulkImportProperties;
+import org.example.taskservice.dto.request.task.CreateTaskRequest;
+import org.example.taskservice.dto.response.task.BulkCreateTasksResponse;
+import org.example.taskservice.dto.response.task.BulkTaskResult;
+import org.example.taskservice.kafka.producer.KafkaProducerService;
+import org.example.taskservice.mapper.TaskMapper;
+import org.example.taskservice.model.OutboxEvent;
+import org.example.taskservice.model.Task;
+import org.example.taskservice.repository.TaskRepository;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Импорт задач из JSON-массива произвольного размера. Тело читается потоково по одному элементу,
+ * в памяти живёт только текущий чанк; чанк пишется одним bulkWrite, события по нему — одним insertMany в outbox.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class TaskBulkImportService {
+    private final TaskRepository taskRepository;
+    private final TaskMapper taskMapper;
+    private final KafkaProducerService kafkaProducerService;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final BulkImportProperties properties;
+
+    public BulkCreateTasksResponse importTasks(InputStream body, String creatorId) throws IOException {
+        List<BulkTaskResult> results = new ArrayList<>();
+        Chunk chunk = new Chunk();
+        int received = 0;
+        String error = null;
+
+        try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                return new BulkCreateTasksResponse(0, 0, 0, "Request body must be a JSON array of tasks", List.of());
+            }
+            for (JsonToken token = parser.nextToken(); token != JsonToken.END_ARRAY; token = parser.nextToken()) {
+                int index = received++;
+                if (token != JsonToken.START_OBJECT) {
+                    // вложенный массив пропускается целиком, скаляр уже прочитан
+                    parser.skipChildren();
+                    results.add(BulkTaskResult.failed(index, "Item must be a JSON object, got " + describe(token)));
+                    continue;
+                }
+                // сначала дерево одного элемента: ошибка типов в нём не должна срывать разбор остального массива
+                JsonNode node = objectMapper.readTree(parser);
+                CreateTaskRequest request;
+                try {
+                    request = objectMapper.treeToValue(node, CreateTaskRequest.class);
+                } catch (JsonProcessingException ex) {
+                    results.add(BulkTaskResult.failed(index, ex.getOriginalMessage()));
+                    continue;
+                }
+                String violation = validate(request);
+                if (violation != null) {
+                    results.add(BulkTaskResult.failed(index, violation));
+                    continue;
+                }
+                chunk.add(index, taskMapper.toTask(request, creatorId));
+                if (chunk.size() >= properties.getChunkSize()) {
+                    flush(chunk, results);
+                }
+            }
+            if (parser.nextToken() != null) {
+                log.warn("Bulk import body has content after the array of {} items", received);
+                error = "Unexpected content after the JSON array of " + received + " items";
+            }
+        } catch (JsonProcessingException ex) {
+            // уже прочитанное не откатываем: вставляем хвост и сообщаем, где оборвался разбор
+            log.warn("Bulk import body is malformed after {} items: {}", received, ex.getOriginalMessage());
+            error = "Malformed JSON after item " + received + ": " + ex.getOriginalMessage();
+        }
+        flush(chunk, results);
+
+        int created = (int) results.stream().filter(r -> r.status() == BulkTaskResult.Status.CREATED).count();
+        log.info("Bulk import finished: received={}, created={}, failed={}", received, created, results.size() - created);
+        results.sort((a, b) -> Integer.compare(a.index(), b.index()));
+        return new BulkCreateTasksResponse(received, created, results.size() - created, error, results);
+    }
+
+    private void flush(Chunk chunk, List<BulkTaskResult> results) {
+        if (chunk.size() == 0) {
+            return;
+        }
+        Map<Integer, String> failures = taskRepository.bulkInsert(chunk.tasks, properties.isOrdered());
+        // не в транзакции: ошибка любого элемента прервала бы её целиком, а частичный успех здесь штатный
+        List<OutboxEvent> events = new ArrayList<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            Task task = chunk.tasks.get(i);
+            int index = chunk.indexes.get(i);
+            String failure = failures.get(i);
+            if (failure != null) {
+                results.add(BulkTaskResult.failed(index, failure));
+                continue;
+            }
+            results.add(BulkTaskResult.created(index, task.getId()));
+            events.add(kafkaProducerService.taskCreatedEvent(task.getId(), taskMapper.toTaskCreatedEvent(task)));
+            Set<String> assigneeIds = task.getAssigneeIds();
+            if (assigneeIds != null) {
+                for (String assigneeId : assigneeIds) {
+                    events.add(kafkaProducerService.taskSubscribedEvent(task.getId(), taskMapper.toTaskSubscribedEvent(task, assigneeId)));
+                }
+            }
+        }
+        kafkaProducerService.sendEvents(events);
+        log.debug("Bulk import chunk flushed: size={}, failed={}", chunk.size(), failures.size());
+        chunk.clear();
+    }
+
+    private static String describe(JsonToken token) {
+        return switch (token) {
+            case VALUE_NULL -> "null";
+            case VALUE_STRING -> "string";
+            case VALUE_NUMBER_INT, VALUE_NUMBER_FLOAT -> "number";
+            case VALUE_TRUE, VALUE_FALSE -> "boolean";
+            case START_ARRAY -> "array";
+            default -> token.name();
+        };
+    }
+
+    private String validate(CreateTaskRequest request) {
+        Set<ConstraintViolation<CreateTaskRequest>> violations = validator.validate(request);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    private static final class Chunk {
+        private final List<Task> tasks = new ArrayList<>();
+        private final List<Integer> indexes = new ArrayList<>();
+
+        void add(int index, Task task) {
+            indexes.add(index);
+            tasks.add(task);
+        }
+
+        int size() {
+            return tasks.size();
+        }
+
+        void clear() {
+            tasks.clear();
+            indexes.clear();
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package org.example.taskservice.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.example.taskservice.dto.response.task.TaskSummaryResponse;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Пишет задачи в ответ по одной, не собирая выборку в памяти. Запись в сокет блокируется,
+ * пока медленный клиент не вычитает буфер, а следующая пачка из курсора Mongo запрашивается
+ * только после этого — так память остаётся постоянной, а клиент сам задаёт темп.
+ */
+@Component
+@RequiredArgsConstructor
+public class TaskExportWriter {
+    private static final int FLUSH_EVERY = 500;
+    private static final String CSV_HEADER = "id,title,status,priority,department,creatorId,assigneeIds,createdAt,dueDate,tags";
+
+    private final ObjectMapper objectMapper;
+
+    public void writeJsonArray(Stream<TaskSummaryResponse> tasks, OutputStream out) throws IOException {
+        try (JsonGenerator generator = generator(out)) {
+            generator.writeStartArray();
+            int written = 0;
+            for (Iterator<TaskSummaryResponse> it = tasks.iterator(); it.hasNext(); ) {
+                objectMapper.writeValue(generator, it.next());
+                if (++written % FLUSH_EVERY == 0) generator.flush();
+            }
+            generator.writeEndArray();
+        }
+    }
+
+    public void writeNdjson(Stream<TaskSummaryResponse> tasks, OutputStream out) throws IOException {
+        try (JsonGenerator generator = generator(out)) {
+            int written = 0;
+            for (Iterator<TaskSummaryResponse> it = tasks.iterator(); it.hasNext(); ) {
+                objectMapper.writeValue(generator, it.next());
+                generator.writeRaw('\n');
+                if (++written % FLUSH_EVERY == 0) generator.flush();
+            }
+        }
+    }
+
+    public void writeCsv(Stream<TaskSummaryResponse> tasks, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+        int written = 0;
+        for (Iterator<TaskSummaryResponse> it = tasks.iterator(); it.hasNext(); ) {
+            TaskSummaryResponse task = it.next();
+            writer.write(String.join(",",
+                    csv(task.id()),
+                    csv(task.title()),
+                    csv(task.status()),
+                    csv(task.priority()),
+                    csv(task.department()),
+                    csv(task.creatorId()),
+                    csv(task.assigneeIds()),
+                    csv(task.createdAt()),
+                    csv(task.dueDate()),
+                    csv(task.tags())));
+            writer.write('\n');
+            if (++written % FLUSH_EVERY == 0) writer.flush();
+        }
+        // сам поток ответа закрывает контейнер
+        writer.flush();
+    }
+
+    private JsonGenerator generator(OutputStream out) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        return generator;
+    }
+
+    private static String csv(Object value) {
+        if (value == null) return "";
+        String text;
+        if (value instanceof Collection<?> values) {
+            text = String.join(";", values.stream().map(String::valueOf).toList());
+        } else if (value instanceof Instant instant) {
+            text = instant.toString();
+        } else {
+            text = value.toString();
+        }
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+}
@@ -9,27 +9,37 @@ import org.example.events.enums.TaskStatus;
 import org.example.events.enums.TaskPriority;
 import org.example.events.enums.Department;
 import org.example.taskservice.dto.request.task.CreateTaskRequest;
+import org.example.taskservice.dto.request.task.ExportFormat;
 import org.example.taskservice.dto.request.task.UpdateAssigneesRequest;
 import org.example.taskservice.dto.request.task.UpdateStatusRequest;
 import org.example.taskservice.dto.request.task.UpdateTaskRequest;
+import org.example.taskservice.dto.response.CursorPageResponse;
 import org.example.taskservice.dto.response.task.TaskResponse;
+import org.example.taskservice.dto.response.task.TaskSummaryResponse;
 import org.example.taskservice.exception.TaskNotFoundException;
 import org.example.taskservice.exception.AccessDeniedException;
+import org.example.taskservice.exception.InvalidCursorException;
 import org.example.taskservice.kafka.producer.KafkaProducerService;
+import org.example.taskservice.model.Attachment;
+import org.example.taskservice.model.Comment;
 import org.example.taskservice.model.Task;
 import org.example.taskservice.model.UserDetailsImpl;
 import org.example.taskservice.mapper.CommentMapper;
 import org.example.taskservice.mapper.TaskMapper;
+import org.example.taskservice.repository.CommentRepository;
+import org.example.taskservice.repository.TaskCursor;
 import org.example.taskservice.repository.TaskRepository;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
 import java.util.Set;
+import java.util.stream.Stream;
 import java.time.Duration;
 import java.time.Instant;
 import org.springframework.web.multipart.MultipartFile;
@@ -39,133 +49,182 @@ import org.example.taskservice.service.AttachmentService;
 @Slf4j
 @RequiredArgsConstructor
 public class TaskService {
+    private static final int DETAIL_COMMENTS_LIMIT = 20;
+
     private final TaskRepository taskRepository;
+    private final CommentRepository commentRepository;
     private final TaskMapper taskMapper;
     private final CommentMapper commentMapper;
     private final KafkaProducerService kafkaProducerService;
     private final AttachmentService attachmentService;
+    private final TaskExportWriter taskExportWriter;
+    private final MongoTransactions transactions;
 
-    public List<TaskResponse> getAllTasks() {
-        log.info("getting all tasks");
-        List<Task> tasks = taskRepository.findAll();
-        return tasks.stream()
-                .map(task -> taskMapper.toResponse(task, commentMapper))
-                .toList();
+    public void writeAllTasks(OutputStream out) throws IOException {
+        log.info("streaming all tasks");
+        try (Stream<Task> tasks = taskRepository.streamTasksByFilters(null, null, null, null, null, null)) {
+            taskExportWriter.writeJsonArray(tasks.map(taskMapper::toSummaryResponse), out);
+        }
+    }
+
+    public void exportTasks(OutputStream out,
+                            ExportFormat format,
+                            String search,
+                            String status,
+                            String priority,
+                            String assigneeId,
+                            String creatorId,
+                            String department) throws IOException {
+        log.info("exporting tasks: format={}, search={}, status={}, priority={}, department={}", format, search, status, priority, department);
+        TaskStatus st = parseEnum(status, TaskStatus.class);
+        TaskPriority pr = parseEnum(priority, TaskPriority.class);
+        Department dep = parseEnum(department, Department.class);
+        try (Stream<Task> tasks = taskRepository.streamTasksByFilters(st, pr, assigneeId, creatorId, dep, search)) {
+            Stream<TaskSummaryResponse> rows = tasks.map(taskMapper::toSummaryResponse);
+            switch (format) {
+                case NDJSON -> taskExportWriter.writeNdjson(rows, out);
+                case CSV -> taskExportWriter.writeCsv(rows, out);
+            }
+        }
     }
 
     public TaskResponse getTaskById(String id) {
         log.info("getting task by id: {}", id);
-        Task task = findTaskById(id);
-        return taskMapper.toResponse(task, commentMapper);
+        return toDetailResponse(findTaskById(id));
+    }
+
+    /** Ответ той же формы, что GET /tasks/{id}: с первой страницей комментариев. */
+    private TaskResponse toDetailResponse(Task task) {
+        // остальные комментарии отдаются постранично через /comments/task/{taskId}
+        List<Comment> comments = commentRepository.findByTaskIdOrderByCreatedAtAsc(task.getId(), PageRequest.of(0, DETAIL_COMMENTS_LIMIT));
+        return taskMapper.toResponse(task, comments, commentMapper);
     }
 
     private Task findTaskById(String id) {
         return taskRepository.findById(id)
-                .orElseThrow(() -> new TaskNotFoundException("Task not found with id: " + id));
+                .orElseThrow(() -> taskNotFound(id));
+    }
+
+    private static TaskNotFoundException taskNotFound(String id) {
+        return new TaskNotFoundException("Task not found with id: " + id);
     }
 
-    @Transactional
+    /**
+     * Файлы загружаются в MinIO до транзакции: на больших вложениях загрузка дольше лимита жизни
+     * транзакции Mongo (60с). Задача, метаданные вложений и события outbox пишутся одной короткой
+     * транзакцией; если она не удалась, загруженные объекты удаляются.
+     */
     public TaskResponse createTask(@Valid CreateTaskRequest createTaskRequest, String id, List<MultipartFile> files) {
         log.info("creating task: {}", createTaskRequest);
+        // id задаёт маппер: он нужен вложениям до вставки задачи, а повтор транзакции вставляет задачу с тем же id
         Task task = taskMapper.toTask(createTaskRequest, id);
-        Task savedTask = taskRepository.save(task);
-        log.debug("Task created with ID: {}", savedTask.getId());
-        
+
+        List<Attachment> uploaded = List.of();
+        String uploadedBy = null;
         if (files != null && !files.isEmpty()) {
-            log.info("Adding {} files to task {}", files.size(), savedTask.getId());
-            attachmentService.addAttachments(savedTask.getId(), files);
+            log.info("Adding {} files to task {}", files.size(), task.getId());
+            uploadedBy = attachmentService.getCurrentUserId();
+            uploaded = attachmentService.uploadAttachments(task.getId(), files);
         }
-        
-        kafkaProducerService.sendTaskCreatedEvent(savedTask.getId(), taskMapper.toTaskCreatedEvent(savedTask));
-        
-        Set<String> assigneeIds = savedTask.getAssigneeIds();
-        if (assigneeIds != null && !assigneeIds.isEmpty()) {
-            log.info("Sending TaskSubscribedEvent for {} assignees", assigneeIds.size());
-            for (String assigneeId : assigneeIds) {
-                kafkaProducerService.sendTaskSubscribedEvent(
-                    savedTask.getId(), 
-                    taskMapper.toTaskSubscribedEvent(savedTask, assigneeId)
-                );
-            }
+
+        List<Attachment> attachments = uploaded;
+        String attachmentsUploadedBy = uploadedBy;
+        Task savedTask;
+        try {
+            savedTask = transactions.execute(() -> {
+                Task inserted = taskRepository.insert(task);
+                attachmentService.saveAttachments(attachments, attachmentsUploadedBy);
+                kafkaProducerService.sendTaskCreatedEvent(inserted.getId(), taskMapper.toTaskCreatedEvent(inserted));
+
+                Set<String> assigneeIds = inserted.getAssigneeIds();
+                if (assigneeIds != null && !assigneeIds.isEmpty()) {
+                    log.info("Sending TaskSubscribedEvent for {} assignees", assigneeIds.size());
+                    for (String assigneeId : assigneeIds) {
+                        kafkaProducerService.sendTaskSubscribedEvent(
+                            inserted.getId(),
+                            taskMapper.toTaskSubscribedEvent(inserted, assigneeId)
+                        );
+                    }
+                }
+                return inserted;
+            });
+        } catch (RuntimeException e) {
+            attachmentService.removeObjects(attachments);
+            throw e;
         }
-        
-        return taskMapper.toResponse(savedTask, commentMapper);
+        log.debug("Task created with ID: {}", savedTask.getId());
+
+        // у новой задачи комментариев ещё нет, читать их незачем
+        return taskMapper.toResponse(savedTask);
     }
 
-    @Transactional
     public TaskResponse updateTask(String id, @Valid UpdateTaskRequest updateTaskRequest) {
         log.info("updating task: {}", updateTaskRequest);
-        Task task = findTaskById(id);
-        taskMapper.updateTask(updateTaskRequest, task);
-        Task updatedTask = taskRepository.save(task);
+        Task updatedTask = transactions.execute(() -> {
+            Task task = findTaskById(id);
+            taskMapper.updateTask(updateTaskRequest, task);
+            Task saved = taskRepository.save(task);
+            kafkaProducerService.sendTaskUpdatedEvent(saved.getId(), taskMapper.toTaskUpdatedEvent(saved));
+            return saved;
+        });
         log.debug("Task updated with ID: {}", updatedTask.getId());
-        kafkaProducerService.sendTaskUpdatedEvent(updatedTask.getId(), taskMapper.toTaskUpdatedEvent(updatedTask));
-        return taskMapper.toResponse(updatedTask, commentMapper);
+        return toDetailResponse(updatedTask);
     }
 
-    @Transactional
     public TaskResponse subscribeToTask(String id, String userId) {
         log.info("subscribing to task: {}", id);
-        Task task = findTaskById(id);
-        if (task.getStatus() == TaskStatus.BLOCKED) {
-            throw new AccessDeniedException("Заблокированную задачу нельзя добавить в избранное");
-        }
-        if (task.getAssigneeIds() == null) {
-            task.setAssigneeIds(new java.util.HashSet<>());
-        }
-        task.getAssigneeIds().add(userId);
-        if (task.getStatus() != TaskStatus.IN_PROGRESS) {
-            task.setStatus(TaskStatus.IN_PROGRESS);
-        }
-        Task updatedTask = taskRepository.save(task);
+        Task updatedTask = transactions.execute(() -> {
+            Task task = taskRepository.subscribeAssignee(id, userId)
+                    .orElseThrow(() -> {
+                        // под условие не попали: либо задачи нет, либо она BLOCKED
+                        findTaskById(id);
+                        return new AccessDeniedException("Заблокированную задачу нельзя добавить в избранное");
+                    });
+            kafkaProducerService.sendTaskSubscribedEvent(task.getId(), taskMapper.toTaskSubscribedEvent(task, userId));
+            return task;
+        });
         log.debug("Task subscribed with ID: {}", updatedTask.getId());
-        kafkaProducerService.sendTaskSubscribedEvent(updatedTask.getId(), taskMapper.toTaskSubscribedEvent(updatedTask,userId));
-        return taskMapper.toResponse(updatedTask, commentMapper);
+        return toDetailResponse(updatedTask);
     }
 
-    @Transactional
     public TaskResponse unsubscribeFromTask(String id, String userId) {
         log.info("unsubscribing from task: {}", id);
-        Task task = findTaskById(id);
-        if (task.getAssigneeIds() != null) {
-            task.getAssigneeIds().remove(userId);
-            if (task.getAssigneeIds().isEmpty()) {
-                task.setStatus(TaskStatus.AVAILABLE);
-            }
-        } else {
-            task.setStatus(TaskStatus.AVAILABLE);
-        }
-        Task updatedTask = taskRepository.save(task);
+        Task updatedTask = transactions.execute(() -> {
+            Task task = taskRepository.unsubscribeAssignee(id, userId)
+                    .orElseThrow(() -> taskNotFound(id));
+            kafkaProducerService.sendTaskUnsubscribedEvent(task.getId(), taskMapper.toTaskUnsubscribedEvent(task, userId));
+            return task;
+        });
         log.debug("Task unsubscribed with ID: {}", updatedTask.getId());
-        kafkaProducerService.sendTaskUnsubscribedEvent(updatedTask.getId(), taskMapper.toTaskUnsubscribedEvent(updatedTask,userId));
-        return taskMapper.toResponse(updatedTask, commentMapper);
+        return toDetailResponse(updatedTask);
     }
 
-    @Transactional
     public TaskResponse completeTask(String id, String userId) {
         log.info("completing task: {}", id);
-        Task task = findTaskById(id);
-        task.setStatus(TaskStatus.COMPLETED);
-        Task updatedTask = taskRepository.save(task);
+        Task updatedTask = transactions.execute(() -> {
+            Task task = taskRepository.updateStatus(id, TaskStatus.COMPLETED)
+                    .orElseThrow(() -> taskNotFound(id));
+            kafkaProducerService.sendTaskCompletedEvent(task.getId(), taskMapper.toTaskCompletedEvent(task, userId));
+            return task;
+        });
         log.debug("Task completed with ID: {}", updatedTask.getId());
-        kafkaProducerService.sendTaskCompletedEvent(updatedTask.getId(), taskMapper.toTaskCompletedEvent(updatedTask,userId));
-        return taskMapper.toResponse(updatedTask, commentMapper);
+        return toDetailResponse(updatedTask);
     }
 
-    public Page<TaskResponse> getMyTasks(String id, PageRequest of, String status, String department) {
+    public Page<TaskSummaryResponse> getMyTasks(String id, PageRequest of, String status, String department) {
         log.info("getting my tasks: {}", id);
         Page<Task> tasks = taskRepository.findByAssigneeIdsContains(id, of);
-        return tasks.map(task -> taskMapper.toResponse(task, commentMapper));
+        return tasks.map(taskMapper::toSummaryResponse);
     }
 
-    public Page<TaskResponse> getAvailableTasks(PageRequest of, String department) {
+    public Page<TaskSummaryResponse> getAvailableTasks(PageRequest of, String department) {
         log.info("getting available tasks: {}", department);
         Department dep = parseEnum(department, Department.class);
         Page<Task> tasks = taskRepository.findByStatusAndDepartment(TaskStatus.AVAILABLE, dep, of);
-        return tasks.map(task -> taskMapper.toResponse(task, commentMapper));
+        return tasks.map(taskMapper::toSummaryResponse);
     }
 
-    public Page<TaskResponse> getTasks(int page,
+    public Page<TaskSummaryResponse> getTasks(int page,
                                        int size,
                                        String sort,
                                        String search,
@@ -180,10 +239,87 @@ public class TaskService {
         TaskPriority pr = parseEnum(priority, TaskPriority.class);
         Department dep = parseEnum(department, Department.class);
         Page<Task> tasks = taskRepository.findTasksByFilters(st, pr, assigneeId, creatorId, dep, search, pageable);
-        return tasks.map(task -> taskMapper.toResponse(task, commentMapper));
+        return tasks.map(taskMapper::toSummaryResponse);
     }
 
-    public Page<TaskResponse> getDueSoonTasks(@Min(1) long hours, PageRequest of, String status, String assigneeId) {
+    public CursorPageResponse<TaskSummaryResponse> scrollTasks(String cursor,
+                                                        int size,
+                                                        String sort,
+                                                        boolean includeTotal,
+                                                        String search,
+                                                        String status,
+                                                        String priority,
+                                                        String assigneeId,
+                                                        String creatorId,
+                                                        String department) {
+        log.info("scrolling tasks: size={}, sort={}, search={}, hasCursor={}", size, sort, search, cursor != null);
+        return scroll(cursor, size, sort, includeTotal,
+                parseEnum(status, TaskStatus.class),
+                parseEnum(priority, TaskPriority.class),
+                assigneeId,
+                creatorId,
+                parseEnum(department, Department.class),
+                search);
+    }
+
+    public CursorPageResponse<TaskSummaryResponse> scrollMyTasks(String userId,
+                                                          String cursor,
+                                                          int size,
+                                                          boolean includeTotal,
+                                                          String status,
+                                                          String department) {
+        log.info("scrolling my tasks: {}, size={}, hasCursor={}", userId, size, cursor != null);
+        return scroll(cursor, size, null, includeTotal,
+                parseEnum(status, TaskStatus.class),
+                null,
+                userId,
+                null,
+                parseEnum(department, Department.class),
+                null);
+    }
+
+    private CursorPageResponse<TaskSummaryResponse> scroll(String cursor,
+                                                    int size,
+                                                    String sort,
+                                                    boolean includeTotal,
+                                                    TaskStatus status,
+                                                    TaskPriority priority,
+                                                    String assigneeId,
+                                                    String creatorId,
+                                                    Department department,
+                                                    String search) {
+        TaskCursor after = null;
+        org.springframework.data.domain.Sort.Order order;
+        if (cursor != null && !cursor.isBlank()) {
+            // порядок зашит в курсор, чтобы sort между страницами не мог разъехаться
+            after = TaskCursor.decode(cursor);
+            if (!isValidSortProperty(after.property())) {
+                throw new InvalidCursorException("Unsupported cursor sort property: " + after.property());
+            }
+            order = after.order();
+        } else {
+            order = parseSort(sort).iterator().next();
+        }
+
+        // лишняя запись нужна только чтобы узнать, есть ли следующая страница
+        List<Task> tasks = taskRepository.findTasksByFiltersAfter(status, priority, assigneeId, creatorId, department, search,
+                order, after, size + 1);
+        boolean hasNext = tasks.size() > size;
+        List<Task> pageTasks = hasNext ? tasks.subList(0, size) : tasks;
+        String nextCursor = hasNext ? TaskCursor.after(pageTasks.get(pageTasks.size() - 1), order).encode() : null;
+        Long total = includeTotal
+                ? taskRepository.countTasksByFilters(status, priority, assigneeId, creatorId, department, search)
+                : null;
+
+        return new CursorPageResponse<>(
+                pageTasks.stream().map(taskMapper::toSummaryResponse).toList(),
+                size,
+                nextCursor,
+                hasNext,
+                total);
+    }
+
+    public Page<TaskSummaryResponse> getDueSoonTasks(@Min(1) long hours, PageRequest of, String status, String assigneeId) {
         Instant now = Instant.now();
         Instant to = now.plus(Duration.ofHours(hours));
 
@@ -198,67 +334,58 @@ public class TaskService {
             tasks = taskRepository.findByDueDateBetween(now, to, of);
         }
 
-        return tasks.map(task -> taskMapper.toResponse(task, commentMapper));
+        return tasks.map(taskMapper::toSummaryResponse);
     }
 
-    @Transactional
     public void deleteTask(String id) {
         UserDetailsImpl details = (UserDetailsImpl) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
         log.info("soft-deleting (blocking) task: {}", id);
-        Task task = findTaskById(id);
-        task.setStatus(TaskStatus.BLOCKED);
-        Task updatedTask = taskRepository.save(task);
+        transactions.run(() -> {
+            Task task = findTaskById(id);
+            task.setStatus(TaskStatus.BLOCKED);
+            Task updatedTask = taskRepository.save(task);
+            kafkaProducerService.sendTaskDeletedEvent(id, taskMapper.toTaskDeletedEvent(updatedTask, details.getId()));
+        });
         log.debug("Task soft-deleted (blocked) with ID: {}", id);
-        kafkaProducerService.sendTaskDeletedEvent(id, taskMapper.toTaskDeletedEvent(updatedTask, details.getId()));
     }
 
-    public Page<TaskResponse> getTasksByAssignee(String userId, Pageable pageable, String status, String creatorId, String department) {
+    public Page<TaskSummaryResponse> getTasksByAssignee(String userId, Pageable pageable, String status, String creatorId, String department) {
         log.info("getting tasks by assignee: {}, status={}, creatorId={}, department={}", userId, status, creatorId, department);
         TaskStatus st = parseEnum(status, TaskStatus.class);
         Department dep = parseEnum(department, Department.class);
         Page<Task> tasks = taskRepository.findTasksByAssigneeWithFilters(userId, st, creatorId, dep, pageable);
-        return tasks.map(task -> taskMapper.toResponse(task, commentMapper));
+        return tasks.map(taskMapper::toSummaryResponse);
     }
 
-    @Transactional
     public TaskResponse updateStatus(String id, @Valid UpdateStatusRequest request) {
         log.info("updating status: {}", request);
-        Task task = findTaskById(id);
-        taskMapper.updateStatus(request, task);
-        Task updatedTask = taskRepository.save(task);
+        Task updatedTask = transactions.execute(() -> {
+            Task task = taskRepository.updateStatus(id, request.status())
+                    .orElseThrow(() -> taskNotFound(id));
+            kafkaProducerService.sendTaskStatusUpdatedEvent(task.getId(), taskMapper.toTaskStatusUpdatedEvent(task));
+            return task;
+        });
         log.debug("Task status updated with ID: {}", updatedTask.getId());
-        kafkaProducerService.sendTaskStatusUpdatedEvent(updatedTask.getId(), taskMapper.toTaskStatusUpdatedEvent(updatedTask));
-        return taskMapper.toResponse(updatedTask, commentMapper);
-    }
-
-    @Transactional
-    public List<TaskResponse> createBulkTasks(@Valid List<CreateTaskRequest> requests, String id) {
-        log.info("creating bulk tasks: {}", requests);
-        List<Task> tasks = requests.stream()
-                .map(request -> taskMapper.toTask(request, id))
-                .toList();
-        List<Task> savedTasks = taskRepository.saveAll(tasks);
-        log.debug("Tasks created with IDs: {}", savedTasks.stream().map(Task::getId).toList());
-        savedTasks.forEach(task -> kafkaProducerService.sendTaskCreatedEvent(task.getId(), taskMapper.toTaskCreatedEvent(task)));
-        return savedTasks.stream().map(task -> taskMapper.toResponse(task, commentMapper)).toList();
+        return toDetailResponse(updatedTask);
     }
 
-    @Transactional
     public TaskResponse updateAssignees(String id, @Valid UpdateAssigneesRequest request) {
         log.info("updating assignees: {}", request);
-        Task task = findTaskById(id);
-        taskMapper.updateAssignees(request, task);
-        Task updatedTask = taskRepository.save(task);
+        Task updatedTask = transactions.execute(() -> {
+            Task task = taskRepository.updateAssignees(id, request.assigneeIds())
+                    .orElseThrow(() -> taskNotFound(id));
+            kafkaProducerService.sendTaskAssigneesUpdatedEvent(task.getId(), taskMapper.toTaskAssigneesUpdatedEvent(task));
+            return task;
+        });
         log.debug("Task assignees updated with ID: {}", updatedTask.getId());
-        kafkaProducerService.sendTaskAssigneesUpdatedEvent(updatedTask.getId(), taskMapper.toTaskAssigneesUpdatedEvent(updatedTask));
-        return taskMapper.toResponse(updatedTask, commentMapper);
+        return toDetailResponse(updatedTask);
     }
 
-    public Page<TaskResponse> getTaskHistory(String id, PageRequest of) {
+    public Page<TaskSummaryResponse> getTaskHistory(String id, PageRequest of) {
         log.info("getting task history: {}", id);
         List<TaskStatus> statuses = List.of(TaskStatus.COMPLETED, TaskStatus.BLOCKED);
         Page<Task> tasks = taskRepository.findByAssigneeIdsContainsAndStatusIn(id, statuses, of);
-        return tasks.map(task -> taskMapper.toResponse(task, commentMapper));
+        return tasks.map(taskMapper::toSummaryResponse);
     }
 
     private static <E extends Enum<E>> E parseEnum(String value, Class<E> type) {
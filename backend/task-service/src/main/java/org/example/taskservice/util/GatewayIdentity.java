@@ -0,0 +1,84 @@
+package org.example.taskservice.util;
+
+import io.jsonwebtoken.io.Decoders;
+import org.example.events.enums.Role;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Проверка заголовка идентичности, который gateway подписывает после проверки JWT.
+ * Формат: {@code base64url(userId \n username \n roles через запятую \n exp в секундах) . base64url(HMAC-SHA256)};
+ * проверка — один HMAC по короткой строке без разбора JSON.
+ */
+@Component
+public class GatewayIdentity {
+    private static final Logger logger = LoggerFactory.getLogger(GatewayIdentity.class);
+
+    public static final String HEADER = "X-Auth-Identity";
+
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private final ThreadLocal<Mac> mac;
+
+    public GatewayIdentity(@Value("${jwt.identity.secret:${jwt.secret}}") String secret) {
+        SecretKeySpec key = new SecretKeySpec(Decoders.BASE64.decode(secret), ALGORITHM);
+        this.mac = ThreadLocal.withInitial(() -> {
+            try {
+                Mac instance = Mac.getInstance(ALGORITHM);
+                instance.init(key);
+                return instance;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("Cannot initialize " + ALGORITHM, e);
+            }
+        });
+    }
+
+    public Optional<JwtClaims> verify(String header) {
+        int dot = header.indexOf('.');
+        if (dot <= 0) {
+            logger.warn("Malformed {} header", HEADER);
+            return Optional.empty();
+        }
+        try {
+            byte[] expected = mac.get().doFinal(header.substring(0, dot).getBytes(StandardCharsets.US_ASCII));
+            byte[] actual = Base64.getUrlDecoder().decode(header.substring(dot + 1));
+            if (!MessageDigest.isEqual(expected, actual)) {
+                logger.warn("{} header signature mismatch", HEADER);
+                return Optional.empty();
+            }
+
+            String payload = new String(Base64.getUrlDecoder().decode(header.substring(0, dot)), StandardCharsets.UTF_8);
+            String[] fields = payload.split("\n", -1);
+            if (fields.length != 4) {
+                logger.warn("Malformed {} header payload", HEADER);
+                return Optional.empty();
+            }
+            Instant expiresAt = Instant.ofEpochSecond(Long.parseLong(fields[3]));
+            if (!expiresAt.isAfter(Instant.now())) {
+                logger.warn("{} header is expired", HEADER);
+                return Optional.empty();
+            }
+            List<Role> roles = fields[2].isEmpty()
+                    ? List.of()
+                    : Arrays.stream(fields[2].split(",")).map(Role::valueOf).toList();
+            return Optional.of(new JwtClaims(UUID.fromString(fields[0]), fields[1], roles, expiresAt));
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid {} header: {}", HEADER, e.getMessage());
+            return Optional.empty();
+        }
+    }
+}
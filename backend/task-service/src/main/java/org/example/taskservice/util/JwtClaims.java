@@ -0,0 +1,14 @@
+package org.example.taskservice.util;
+
+import org.example.events.enums.Role;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+public record JwtClaims(UUID userId, String username, List<Role> roles, Instant expiresAt) {
+
+    public JwtClaims {
+        roles = List.copyOf(roles);
+    }
+}
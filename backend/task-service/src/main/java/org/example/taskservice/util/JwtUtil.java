@@ -13,10 +13,21 @@ import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
 import java.util.Collections;
 import java.util.Date;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Component
@@ -27,15 +38,23 @@ public class JwtUtil {
     private final JwtParser jwtParser;
     private final int jwtExpirationMs;
     private final String issuer;
+    private final Cache<String, JwtClaims> claimsCache;
 
     public JwtUtil(
             @Value("${jwt.secret}") String jwtSecret,
             @Value("${jwt.access-token-expiration}") int jwtExpirationMs,
-            @Value("${jwt.issuer}") String issuer) {
+            @Value("${jwt.issuer}") String issuer,
+            @Value("${jwt.claims-cache.max-size:10000}") long claimsCacheSize) {
         this.key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
         this.jwtParser = Jwts.parser().verifyWith(key).build();
         this.jwtExpirationMs = jwtExpirationMs;
         this.issuer = issuer;
+        // запись живёт ровно до exp токена: после него повторный разбор вернёт ExpiredJwtException
+        this.claimsCache = Caffeine.newBuilder()
+                .maximumSize(claimsCacheSize)
+                .expireAfter(Expiry.creating((String digest, JwtClaims claims) ->
+                        Duration.between(Instant.now(), claims.expiresAt())))
+                .build();
     }
 
     public String getJwtFromHeader(String bearerToken) {
@@ -88,6 +107,66 @@ public class JwtUtil {
         return UUID.fromString(userIdStr);
     }
 
+    /**
+     * Проверяет подпись и разбирает токен один раз; повторный токен обходится хэшем и поиском в кэше.
+     * Ключ — SHA-256 токена, сам токен в кэше не хранится. Невалидные токены не кэшируются.
+     */
+    public Optional<JwtClaims> parseClaims(String token) {
+        if (token == null || token.isBlank()) {
+            logger.warn("JWT token is null or empty");
+            return Optional.empty();
+        }
+        return Optional.ofNullable(claimsCache.get(digest(token), digest -> parseAndValidate(token)));
+    }
+
+    private JwtClaims parseAndValidate(String token) {
+        try {
+            Claims claims = jwtParser.parseSignedClaims(token).getPayload();
+            Date expiration = claims.getExpiration();
+            if (expiration == null) {
+                logger.error("JWT token has no expiration");
+                return null;
+            }
+            return new JwtClaims(
+                    UUID.fromString(claims.get("userId", String.class)),
+                    claims.getSubject(),
+                    toRoles(claims),
+                    expiration.toInstant());
+        } catch (ExpiredJwtException e) {
+            logger.error("JWT token is expired: {}", e.getMessage());
+        } catch (JwtException e) {
+            logger.error("JWT validation failed: {}", e.getMessage());
+        } catch (IllegalArgumentException | NullPointerException e) {
+            // userId отсутствует или не является UUID
+            logger.error("Invalid JWT claims: {}", e.getMessage());
+        }
+        return null;
+    }
+
+    private List<Role> toRoles(Claims claims) {
+        List<?> roles = claims.get("roles", List.class);
+        if (roles == null) {
+            return Collections.emptyList();
+        }
+        try {
+            return roles.stream()
+                    .map(role -> Role.valueOf(role.toString()))
+                    .toList();
+        } catch (IllegalArgumentException e) {
+            logger.error("Invalid role value in token: {}", e.getMessage());
+            return Collections.emptyList();
+        }
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
     public boolean validateJwtToken(String authToken) {
         if (authToken == null || authToken.isBlank()) {
             logger.warn("JWT token is null or empty");
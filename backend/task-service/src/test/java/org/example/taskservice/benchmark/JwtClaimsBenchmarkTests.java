@@ -0,0 +1,77 @@
+package org.example.taskservice.benchmark;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Encoders;
+import io.jsonwebtoken.security.Keys;
+import lombok.extern.slf4j.Slf4j;
+import org.example.taskservice.util.JwtUtil;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Стоимость аутентификации запроса в JwtAuthenticationFilter: четыре независимых разбора токена
+ * (как было) против parseClaims с кэшем по SHA-256 токена.
+ * Запуск: {@code mvn test -Dtest=JwtClaimsBenchmarkTests -Dbenchmark=true [-Dbenchmark.requests=200000]}.
+ */
+@Slf4j
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class JwtClaimsBenchmarkTests {
+
+    private static final int WARMUP = 3;
+    private static final int ITERATIONS = 5;
+
+    private final String secret = Encoders.BASE64.encode(Jwts.SIG.HS256.key().build().getEncoded());
+    private final JwtUtil jwtUtil = new JwtUtil(secret, 3_600_000, "auth-service", 10_000);
+    private final String token = Jwts.builder()
+            .subject("benchmark-user")
+            .claim("roles", List.of("ROLE_USER", "ROLE_ADMIN"))
+            .claim("userId", UUID.randomUUID().toString())
+            .issuer("auth-service")
+            .issuedAt(new Date())
+            .expiration(new Date(System.currentTimeMillis() + 3_600_000))
+            .signWith(Keys.hmacShaKeyFor(io.jsonwebtoken.io.Decoders.BASE64.decode(secret)))
+            .compact();
+
+    @Test
+    void compareRepeatedParsingWithClaimsCache() {
+        int requests = Integer.getInteger("benchmark.requests", 100_000);
+
+        double parseEachTime = measure(requests, () -> {
+            jwtUtil.getUserNameFromJwtToken(token);
+            jwtUtil.getUserIdFromJwtToken(token);
+            jwtUtil.getRoles(token);
+            return jwtUtil.validateJwtToken(token);
+        });
+        double cached = measure(requests, () -> jwtUtil.parseClaims(token).isPresent());
+
+        log.info("JWT auth per request: 4 parses = {} µs, cached claims = {} µs, speedup x{}",
+                String.format("%.2f", parseEachTime), String.format("%.2f", cached),
+                String.format("%.1f", parseEachTime / cached));
+        assertTrue(cached < parseEachTime, "cached claims lookup must be cheaper than re-parsing the token");
+    }
+
+    /** Среднее время одного запроса в микросекундах, лучший из ITERATIONS прогонов после прогрева. */
+    private static double measure(int requests, Supplier<Boolean> authenticate) {
+        double best = Double.MAX_VALUE;
+        for (int run = 0; run < WARMUP + ITERATIONS; run++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < requests; i++) {
+                if (!authenticate.get()) {
+                    throw new IllegalStateException("token must be valid");
+                }
+            }
+            double perRequest = (System.nanoTime() - start) / 1_000.0 / requests;
+            if (run >= WARMUP) {
+                best = Math.min(best, perRequest);
+            }
+        }
+        return best;
+    }
+}
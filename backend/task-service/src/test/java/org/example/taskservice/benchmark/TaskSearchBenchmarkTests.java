@@ -0,0 +1,153 @@
+package org.example.taskservice.benchmark;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import lombok.extern.slf4j.Slf4j;
+import org.example.events.enums.Department;
+import org.example.events.enums.TaskPriority;
+import org.example.events.enums.TaskStatus;
+import org.example.taskservice.model.Task;
+import org.example.taskservice.repository.TaskRepositoryImpl;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Сравнение поиска по текстовому индексу с regex-сканированием title/description.
+ * Запуск: {@code mvn test -Dtest=TaskSearchBenchmarkTests -Dbenchmark=true [-Dbenchmark.tasks=200000]}.
+ */
+@Slf4j
+@Testcontainers(disabledWithoutDocker = true)
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class TaskSearchBenchmarkTests {
+
+    private static final String[] WORDS = {
+            "pipeline", "deploy", "kafka", "mongo", "report", "metrics", "design", "backup",
+            "миграция", "отчёт", "тесты", "мониторинг", "интерфейс", "релиз", "аналитика", "обучение"
+    };
+    private static final int WARMUP = 5;
+    private static final int ITERATIONS = 20;
+
+    @Container
+    static MongoDBContainer mongoDBContainer = new MongoDBContainer(DockerImageName.parse("mongo:6.0"));
+
+    private static MongoClient client;
+    private static MongoTemplate mongoTemplate;
+    private static TaskRepositoryImpl repository;
+
+    @BeforeAll
+    static void seed() {
+        client = MongoClients.create(mongoDBContainer.getReplicaSetUrl());
+        mongoTemplate = new MongoTemplate(client, "taskdb-bench");
+        IndexOperations indexOps = mongoTemplate.indexOps(Task.class);
+        IndexResolver.create(mongoTemplate.getConverter().getMappingContext())
+                .resolveIndexFor(Task.class)
+                .forEach(indexOps::createIndex);
+        repository = new TaskRepositoryImpl(mongoTemplate);
+
+        int total = Integer.getInteger("benchmark.tasks", 100_000);
+        Random random = new Random(42);
+        List<Task> batch = new ArrayList<>(1_000);
+        for (int i = 0; i < total; i++) {
+            batch.add(randomTask(random));
+            if (batch.size() == 1_000) {
+                mongoTemplate.insert(batch, Task.class);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            mongoTemplate.insert(batch, Task.class);
+        }
+        log.info("Seeded {} tasks", total);
+    }
+
+    @AfterAll
+    static void close() {
+        client.close();
+    }
+
+    @Test
+    void textIndexVersusRegex() {
+        PageRequest page = PageRequest.of(0, 20, Sort.by(Sort.Order.desc("createdAt")));
+
+        double regexMs = measure(() -> regexSearch("аналитика", Department.IT, page));
+        double textMs = measure(() -> repository.findTasksByFilters(null, null, null, null, Department.IT, "аналитика", page));
+
+        Page<Task> ranked = repository.findTasksByFilters(null, null, null, null, Department.IT, "аналитика", page);
+        assertFalse(ranked.isEmpty());
+        log.info("search 'аналитика' dept=IT: regex {} ms/op, text index {} ms/op, speedup x{}",
+                String.format("%.2f", regexMs), String.format("%.2f", textMs), String.format("%.1f", regexMs / textMs));
+    }
+
+    private static Page<Task> regexSearch(String search, Department department, PageRequest page) {
+        Pattern regex = Pattern.compile(Pattern.quote(search), Pattern.CASE_INSENSITIVE);
+        Query query = new Query(new Criteria().andOperator(
+                Criteria.where("department").is(department),
+                new Criteria().orOperator(
+                        Criteria.where("title").regex(regex),
+                        Criteria.where("description").regex(regex))));
+        query.with(page);
+        List<Task> content = mongoTemplate.find(query, Task.class);
+        long count = mongoTemplate.count(Query.of(query).limit(-1).skip(-1), Task.class);
+        return new PageImpl<>(content, page, count);
+    }
+
+    private static double measure(Runnable op) {
+        for (int i = 0; i < WARMUP; i++) {
+            op.run();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            op.run();
+        }
+        return (System.nanoTime() - start) / 1_000_000.0 / ITERATIONS;
+    }
+
+    private static Task randomTask(Random random) {
+        Task task = new Task();
+        task.setId(UUID.randomUUID().toString());
+        task.setTitle(words(random, 4));
+        task.setDescription(words(random, 30));
+        task.setTags(List.of(WORDS[random.nextInt(WORDS.length)]));
+        task.setStatus(TaskStatus.values()[random.nextInt(TaskStatus.values().length)]);
+        task.setPriority(TaskPriority.values()[random.nextInt(TaskPriority.values().length)]);
+        task.setDepartment(Department.values()[random.nextInt(Department.values().length)]);
+        task.setAssigneeIds(Set.of(UUID.randomUUID().toString()));
+        task.setCreatorId(UUID.randomUUID().toString());
+        task.setCreatedAt(Instant.now().minusSeconds(random.nextInt(10_000_000)));
+        return task;
+    }
+
+    private static String words(Random random, int count) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) sb.append(' ');
+            sb.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,68 @@
+package org.example.taskservice.integration;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import org.example.events.enums.TaskStatus;
+import org.example.taskservice.model.Task;
+import org.example.taskservice.repository.TaskRepository;
+import org.example.taskservice.repository.TaskRepositoryImpl;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactory;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Задачи из POST /tasks/bulk должны обновляться обычным save(), как в updateTask и deleteTask.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class TaskBulkInsertTests {
+
+    @Container
+    static MongoDBContainer mongoDBContainer = new MongoDBContainer(DockerImageName.parse("mongo:6.0"));
+
+    private static MongoClient client;
+    private static TaskRepository taskRepository;
+
+    @BeforeAll
+    static void setUp() {
+        client = MongoClients.create(mongoDBContainer.getReplicaSetUrl());
+        MongoTemplate mongoTemplate = new MongoTemplate(client, "taskdb-bulk");
+        taskRepository = new MongoRepositoryFactory(mongoTemplate)
+                .getRepository(TaskRepository.class, new TaskRepositoryImpl(mongoTemplate));
+    }
+
+    @AfterAll
+    static void tearDown() {
+        client.close();
+    }
+
+    @Test
+    void bulkInsert_ThenSave_UpdatesImportedTask() {
+        Task task = new Task();
+        task.setTitle("Imported task");
+        task.setStatus(TaskStatus.AVAILABLE);
+
+        Map<Integer, String> failures = taskRepository.bulkInsert(List.of(task), true);
+        assertTrue(failures.isEmpty());
+
+        Task stored = taskRepository.findById(task.getId()).orElseThrow();
+        assertEquals(0L, stored.getVersion());
+
+        stored.setTitle("Updated title");
+        Task updated = taskRepository.save(stored);
+
+        assertEquals(1L, updated.getVersion());
+        assertEquals("Updated title", taskRepository.findById(task.getId()).orElseThrow().getTitle());
+        assertEquals(1, taskRepository.count());
+    }
+}
@@ -0,0 +1,93 @@
+package org.example.taskservice.unit;
+
+import com.mongodb.MongoCommandException;
+import com.mongodb.MongoException;
+import com.mongodb.ServerAddress;
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonInt32;
+import org.bson.BsonString;
+import org.example.taskservice.exception.TaskNotFoundException;
+import org.example.taskservice.service.MongoTransactions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.mongodb.MongoTransactionManager;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class MongoTransactionsTests {
+
+    private MongoTransactionManager transactionManager;
+    private MongoTransactions transactions;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        transactionManager = mock(MongoTransactionManager.class);
+        ObjectProvider<MongoTransactionManager> provider = mock(ObjectProvider.class);
+        when(provider.getIfAvailable()).thenReturn(transactionManager);
+        transactions = new MongoTransactions(provider);
+    }
+
+    @Test
+    void execute_WriteConflict_RetriesWholeTransaction() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = transactions.execute(() -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new DataIntegrityViolationException("Write conflict", writeConflict());
+            }
+            return "done";
+        });
+
+        assertEquals("done", result);
+        assertEquals(3, attempts.get());
+        verify(transactionManager, times(2)).rollback(any());
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void execute_NonTransientError_IsNotRetried() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThrows(TaskNotFoundException.class, () -> transactions.execute(() -> {
+            attempts.incrementAndGet();
+            throw new TaskNotFoundException("Task not found with id: task-1");
+        }));
+        assertEquals(1, attempts.get());
+    }
+
+    @Test
+    void execute_WriteConflictOnEveryAttempt_GivesUp() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThrows(DataIntegrityViolationException.class, () -> transactions.execute(() -> {
+            attempts.incrementAndGet();
+            throw new DataIntegrityViolationException("Write conflict", writeConflict());
+        }));
+        assertEquals(5, attempts.get());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void execute_WithoutTransactionManager_RunsActionDirectly() {
+        MongoTransactions plain = new MongoTransactions(mock(ObjectProvider.class));
+
+        assertEquals("done", plain.execute(() -> "done"));
+    }
+
+    private static MongoException writeConflict() {
+        BsonDocument response = new BsonDocument("ok", new BsonInt32(0))
+                .append("code", new BsonInt32(112))
+                .append("codeName", new BsonString("WriteConflict"))
+                .append("errorLabels", new BsonArray(List.of(
+                        new BsonString(MongoException.TRANSIENT_TRANSACTION_ERROR_LABEL))));
+        return new MongoCommandException(response, new ServerAddress());
+    }
+}
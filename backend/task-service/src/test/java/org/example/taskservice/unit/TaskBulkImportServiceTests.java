@@ -0,0 +1,111 @@
+package org.example.taskservice.unit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validation;
+import org.example.taskservice.config.BulkImportProperties;
+import org.example.taskservice.dto.response.task.BulkCreateTasksResponse;
+import org.example.taskservice.dto.response.task.BulkTaskResult;
+import org.example.taskservice.kafka.producer.KafkaProducerService;
+import org.example.taskservice.mapper.TaskMapperImpl;
+import org.example.taskservice.repository.TaskRepository;
+import org.example.taskservice.service.TaskBulkImportService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class TaskBulkImportServiceTests {
+
+    private static final String TASK = "{\"title\":\"Task %d\",\"priority\":\"HIGH\",\"department\":\"IT\"}";
+
+    private TaskRepository taskRepository;
+    private TaskBulkImportService service;
+
+    @BeforeEach
+    void setUp() {
+        taskRepository = mock(TaskRepository.class);
+        when(taskRepository.bulkInsert(anyList(), anyBoolean())).thenReturn(Map.of());
+        service = new TaskBulkImportService(taskRepository, new TaskMapperImpl(), mock(KafkaProducerService.class),
+                new ObjectMapper().findAndRegisterModules(),
+                Validation.buildDefaultValidatorFactory().getValidator(),
+                new BulkImportProperties());
+    }
+
+    @Test
+    void importTasks_NonObjectItems_FailedAtTheirIndexAndRestImported() throws IOException {
+        BulkCreateTasksResponse response = importBody("[" + String.join(",",
+                task(0), "null", "42", "\"text\"", "[1,[2]]", task(5), "true") + "]");
+
+        assertNull(response.error());
+        assertEquals(7, response.received());
+        assertEquals(2, response.created());
+        assertEquals(5, response.failed());
+        List<BulkTaskResult> results = response.results();
+        assertEquals(BulkTaskResult.Status.CREATED, results.get(0).status());
+        assertEquals("Item must be a JSON object, got null", results.get(1).error());
+        assertEquals("Item must be a JSON object, got number", results.get(2).error());
+        assertEquals("Item must be a JSON object, got string", results.get(3).error());
+        assertEquals("Item must be a JSON object, got array", results.get(4).error());
+        assertEquals(BulkTaskResult.Status.CREATED, results.get(5).status());
+        assertEquals("Item must be a JSON object, got boolean", results.get(6).error());
+    }
+
+    @Test
+    void importTasks_InvalidItem_ReportedAndRestImported() throws IOException {
+        BulkCreateTasksResponse response = importBody("[" + task(0) + ",{\"title\":\"\"}," + task(2) + "]");
+
+        assertNull(response.error());
+        assertEquals(2, response.created());
+        assertEquals(BulkTaskResult.Status.FAILED, response.results().get(1).status());
+    }
+
+    @Test
+    void importTasks_TrailingValueAfterArray_ReportedAsMalformedBody() throws IOException {
+        BulkCreateTasksResponse response = importBody("[" + task(0) + "] {\"title\":\"Task 1\"}");
+
+        assertEquals(1, response.created());
+        assertNotNull(response.error());
+        assertTrue(response.error().contains("after the JSON array"), response.error());
+    }
+
+    @Test
+    void importTasks_TrailingGarbageAfterArray_ReportedAsMalformedBody() throws IOException {
+        BulkCreateTasksResponse response = importBody("[" + task(0) + "] garbage");
+
+        assertEquals(1, response.created());
+        assertNotNull(response.error());
+    }
+
+    @Test
+    void importTasks_TruncatedArray_ImportsReadItemsAndReportsError() throws IOException {
+        BulkCreateTasksResponse response = importBody("[" + task(0) + "," + task(1));
+
+        assertEquals(2, response.created());
+        assertNotNull(response.error());
+    }
+
+    @Test
+    void importTasks_NotAnArray_Rejected() throws IOException {
+        BulkCreateTasksResponse response = importBody(task(0));
+
+        assertEquals(0, response.received());
+        assertNotNull(response.error());
+        verifyNoInteractions(taskRepository);
+    }
+
+    private BulkCreateTasksResponse importBody(String json) throws IOException {
+        return service.importTasks(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), "admin");
+    }
+
+    private static String task(int index) {
+        return TASK.formatted(index);
+    }
+}
@@ -0,0 +1,56 @@
+package org.example.taskservice.unit;
+
+import org.example.events.enums.TaskPriority;
+import org.example.taskservice.exception.InvalidCursorException;
+import org.example.taskservice.model.Task;
+import org.example.taskservice.repository.TaskCursor;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskCursorTests {
+
+    @Test
+    void encodeDecode_InstantKey_RoundTrips() {
+        Task task = new Task();
+        task.setId("task-1");
+        task.setCreatedAt(Instant.parse("2024-01-15T10:00:00.123456Z"));
+
+        TaskCursor cursor = TaskCursor.after(task, Sort.Order.desc("createdAt"));
+        TaskCursor decoded = TaskCursor.decode(cursor.encode());
+
+        assertEquals(cursor, decoded);
+        assertEquals(Sort.Order.desc("createdAt"), decoded.order());
+    }
+
+    @Test
+    void encodeDecode_StringKeyWithSeparator_RoundTrips() {
+        Task task = new Task();
+        task.setId("task-2");
+        task.setTitle("a|b|c");
+
+        TaskCursor decoded = TaskCursor.decode(TaskCursor.after(task, Sort.Order.asc("title")).encode());
+
+        assertEquals("a|b|c", decoded.value());
+        assertEquals("task-2", decoded.id());
+    }
+
+    @Test
+    void encodeDecode_NullKeyAndEnumKey_RoundTrip() {
+        Task task = new Task();
+        task.setId("task-3");
+        task.setPriority(TaskPriority.HIGH);
+
+        assertNull(TaskCursor.decode(TaskCursor.after(task, Sort.Order.asc("dueDate")).encode()).value());
+        assertEquals("HIGH", TaskCursor.decode(TaskCursor.after(task, Sort.Order.asc("priority")).encode()).value());
+    }
+
+    @Test
+    void decode_Garbage_ThrowsInvalidCursorException() {
+        assertThrows(InvalidCursorException.class, () -> TaskCursor.decode("not a cursor"));
+        assertThrows(InvalidCursorException.class, () -> TaskCursor.decode("Zm9v"));
+    }
+}
@@ -7,7 +7,10 @@ import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 
 import org.example.userservice.model.UserDetailsImpl;
+import org.example.userservice.util.GatewayIdentity;
+import org.example.userservice.util.JwtClaims;
 import org.example.userservice.util.JwtUtil;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
@@ -18,13 +21,17 @@ import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
 import java.util.Collection;
-import java.util.UUID;
 import java.util.stream.Collectors;
 
 @Component
 @RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private final JwtUtil jwtUtil;
+    private final GatewayIdentity gatewayIdentity;
+
+    /** Доверять заголовку {@link GatewayIdentity#HEADER}; включать, только если сервис доступен через gateway. */
+    @Value("${jwt.behind-gateway:false}")
+    private boolean behindGateway;
 
     @Override
     protected void doFilterInternal(
@@ -32,6 +39,16 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             HttpServletResponse response,
             FilterChain filterChain) throws ServletException, IOException {
         System.out.println("JwtAuthenticationFilter: " + request.getMethod() + " " + request.getRequestURI());
+        // за gateway личность уже проверена: достаточно сверить HMAC заголовка, JWT не разбираем
+        final String identity = behindGateway ? request.getHeader(GatewayIdentity.HEADER) : null;
+        if (identity != null) {
+            if (SecurityContextHolder.getContext().getAuthentication() == null) {
+                gatewayIdentity.verify(identity).ifPresent(claims -> authenticate(request, claims));
+            }
+            filterChain.doFilter(request, response);
+            return;
+        }
+
         final String authHeader = request.getHeader("Authorization");
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
             filterChain.doFilter(request, response);
@@ -39,25 +56,25 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
 
         final String jwt = jwtUtil.getJwtFromHeader(request);
-        final String username = jwtUtil.getUserNameFromJwtToken(jwt);
-        System.out.println("Username: " + username);
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UUID id = jwtUtil.getUserIdFromJwtToken(jwt);
-            Collection<? extends GrantedAuthority> authorities = jwtUtil.getRoles(jwt)
-                    .stream().map(role -> new SimpleGrantedAuthority(role.name())).collect(Collectors.toSet());
-            UserDetailsImpl userDetails = new UserDetailsImpl(id, username, authorities);
-            System.out.println("Authorities: " + authorities);
-            if (jwtUtil.validateJwtToken(jwt)) {
-                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                        userDetails,
-                        null,
-                        userDetails.getAuthorities()
-                );
-                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                SecurityContextHolder.getContext().setAuthentication(authToken);
-            }
+
+        if (SecurityContextHolder.getContext().getAuthentication() == null) {
+            // одна проверка подписи на токен, повторные запросы с ним же берут claims из кэша JwtUtil
+            jwtUtil.parseClaims(jwt).ifPresent(claims -> authenticate(request, claims));
         }
         filterChain.doFilter(request, response);
     }
+
+    private void authenticate(HttpServletRequest request, JwtClaims claims) {
+        Collection<? extends GrantedAuthority> authorities = claims.roles()
+                .stream().map(role -> new SimpleGrantedAuthority(role.name())).collect(Collectors.toSet());
+        UserDetailsImpl userDetails = new UserDetailsImpl(claims.userId(), claims.username(), authorities);
+        UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                userDetails,
+                null,
+                userDetails.getAuthorities()
+        );
+        authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+        SecurityContextHolder.getContext().setAuthentication(authToken);
+    }
 }
 